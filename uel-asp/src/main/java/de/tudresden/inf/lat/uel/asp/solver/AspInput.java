@@ -1,6 +1,7 @@
 package de.tudresden.inf.lat.uel.asp.solver;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -15,6 +16,8 @@ import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.Subsumption;
 import de.tudresden.inf.lat.uel.type.impl.AbstractUnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
+import de.tudresden.inf.lat.uel.type.impl.TypeIndex;
+import de.tudresden.inf.lat.uel.type.impl.VariableSymmetries;
 
 /**
  * This class prepares the input for an ASP solver.
@@ -26,20 +29,31 @@ public class AspInput {
 
 	private Goal goal;
 	private AbstractUnificationAlgorithm parent;
+	private VariableSymmetries symmetries;
 
 	public AspInput(Goal goal, AbstractUnificationAlgorithm parent) {
+		this(goal, parent, true);
+	}
+
+	public AspInput(Goal goal, AbstractUnificationAlgorithm parent, boolean symmetryBreaking) {
 		this.goal = goal;
 		this.parent = parent;
+		this.symmetries = symmetryBreaking ? new VariableSymmetries(goal) : null;
 	}
 
 	public AtomManager getAtomManager() {
 		return goal.getAtomManager();
 	}
 
+	public boolean hasSymmetries() {
+		return (symmetries != null) && !symmetries.isEmpty();
+	}
+
 	public void appendProgram(OutputStreamBuilder output) {
 		int i = 1;
 		Set<Integer> remainingAtoms = new HashSet<Integer>(goal.getAtomManager().getExistentialRestrictions());
 		Set<Integer> emptySet = new HashSet<Integer>();
+		TypeIndex types = goal.getTypeIndex();
 		for (Definition d : goal.getDefinitions()) {
 			encodeAxiom(output, d, i, "definition", "eq", remainingAtoms);
 			i++;
@@ -92,9 +106,9 @@ public class AspInput {
 				output.append("domain(r");
 				output.append(e.getKey());
 				output.append(",");
-				if (goal.getRoleGroupTypes().containsValue(type)) {
+				if (types.isRoleGroupType(type)) {
 					output.append("rg(");
-					encodeAtom(output, goal.getAtomManager().getAtom(getOriginalType(type)), emptySet);
+					encodeAtom(output, goal.getAtomManager().getAtom(types.getRoleGroupParent(type)), emptySet);
 					output.append(")");
 				} else {
 					encodeAtom(output, type, emptySet);
@@ -156,7 +170,7 @@ public class AspInput {
 		output.append(System.lineSeparator());
 		for (Integer var1 : goal.getAtomManager().getVariables()) {
 			for (Integer var2 : goal.getAtomManager().getVariables()) {
-				if (goal.areCompatible(var1, var2)) {
+				if (types.areCompatible(var1, var2)) {
 					// encoding.append("% " + parent.printAtom(var1) + " and " +
 					// parent.printAtom(var2));
 					// encoding.append(System.lineSeparator());
@@ -171,6 +185,20 @@ public class AspInput {
 		}
 		output.append(System.lineSeparator());
 
+		output.append("% Symmetries");
+		output.append(System.lineSeparator());
+		if (hasSymmetries()) {
+			for (List<Integer> pair : symmetries.getInterchangeablePairs()) {
+				output.append("symmetric(");
+				encodeAtom(output, pair.get(0), emptySet);
+				output.append(",");
+				encodeAtom(output, pair.get(1), emptySet);
+				output.append(").");
+				output.append(System.lineSeparator());
+			}
+		}
+		output.append(System.lineSeparator());
+
 		// output.append("% User variables");
 		// output.append(System.lineSeparator());
 		// for (Integer var : goal.getAtomManager().getUserVariables()) {
@@ -182,15 +210,6 @@ public class AspInput {
 		// output.append(System.lineSeparator());
 	}
 
-	private Integer getOriginalType(Integer roleGroupType) {
-		for (Integer type : goal.getRoleGroupTypes().keySet()) {
-			if (goal.getRoleGroupTypes().get(type).equals(roleGroupType)) {
-				return type;
-			}
-		}
-		return null;
-	}
-
 	private void encodeAxiom(OutputStreamBuilder output, Axiom d, int index, String comment, String predicate,
 			Set<Integer> remainingAtoms) {
 		output.append("%");
@@ -20,6 +20,7 @@ public class AspUnificationAlgorithm extends AbstractUnificationAlgorithm {
 	private Unifier currentUnifier;
 	private boolean minimize;
 	private boolean hasNext;
+	private boolean symmetryBreaking = true;
 
 	public AspUnificationAlgorithm(Goal goal, boolean minimize) {
 		super(goal);
@@ -29,6 +30,18 @@ public class AspUnificationAlgorithm extends AbstractUnificationAlgorithm {
 		this.hasNext = false;
 	}
 
+	/**
+	 * Determines whether symmetries between auxiliary variables are broken in
+	 * the ASP program. This must be set before the first unifier is computed.
+	 * 
+	 * @param symmetryBreaking
+	 *            'true' iff symmetry breaking constraints should be added
+	 *            (default: 'true')
+	 */
+	public void setSymmetryBreaking(boolean symmetryBreaking) {
+		this.symmetryBreaking = symmetryBreaking;
+	}
+
 	@Override
 	public void cleanup() {
 		if (aspOutput != null) {
@@ -42,7 +55,7 @@ public class AspUnificationAlgorithm extends AbstractUnificationAlgorithm {
 	public boolean computeNextUnifier() throws InterruptedException {
 		try {
 			if (!initialized) {
-				aspInput = new AspInput(goal, this);
+				aspInput = new AspInput(goal, this, symmetryBreaking);
 				AspSolver solver = new ClingoSolver(goal.hasNegativePart(), !goal.getTypes().isEmpty(), minimize, this);
 				aspOutput = solver.solve(aspInput);
 				callbackPreprocessing();
@@ -65,6 +78,23 @@ public class AspUnificationAlgorithm extends AbstractUnificationAlgorithm {
 		return false;
 	}
 
+	@Override
+	public boolean isUnifiable() throws InterruptedException {
+		try {
+			// one model suffices, and minimization is irrelevant
+			AspSolver solver = new ClingoSolver(goal.hasNegativePart(), !goal.getTypes().isEmpty(), false, 1, this);
+			AspOutput output = solver.solve(new AspInput(goal, this, symmetryBreaking));
+			callbackPreprocessing();
+			try {
+				return output.hasNext();
+			} finally {
+				output.cleanup();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Override
 	public Unifier getUnifier() {
 		if (aspOutput == null) {
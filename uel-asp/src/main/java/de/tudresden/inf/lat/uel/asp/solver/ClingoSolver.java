@@ -16,21 +16,30 @@ public class ClingoSolver implements AspSolver {
 	private static String UNIFICATION_PROGRAM = "/unification.lp";
 	private static String DISUNIFICATION_PROGRAM = "/disunification.lp";
 	private static String TYPES_PROGRAM = "/compatibility.lp";
+	private static String SYMMETRY_PROGRAM = "/symmetry.lp";
 	private static String FINAL_PROGRAM = "/final.lp";
 	private static String CLINGO_COMMAND = "clingo";
-	private static String COMMON_ARGUMENTS = "0 --project --outf=2"; // --enum-mode=domRec";
+	private static String COMMON_ARGUMENTS = "--project --outf=2"; // --enum-mode=domRec";
 	private static String HEURISTIC_ARGUMENTS = "--enum-mode=domRec --dom-mod=5,16 --heu=Domain";
 
 	private final boolean hasNegativePart;
 	private final boolean types;
 	private final boolean minimize;
+	private final int numberOfModels;
 	private Process pClingo = null;
 	AbstractUnificationAlgorithm parent;
 
 	public ClingoSolver(boolean hasNegativePart, boolean types, boolean minimize, AbstractUnificationAlgorithm parent) {
+		// 0 = compute all models
+		this(hasNegativePart, types, minimize, 0, parent);
+	}
+
+	public ClingoSolver(boolean hasNegativePart, boolean types, boolean minimize, int numberOfModels,
+			AbstractUnificationAlgorithm parent) {
 		this.hasNegativePart = hasNegativePart;
 		this.types = types;
 		this.minimize = minimize;
+		this.numberOfModels = numberOfModels;
 		this.parent = parent;
 	}
 
@@ -60,6 +69,7 @@ public class ClingoSolver implements AspSolver {
 	private List<String> getClingoArguments() {
 		List<String> arguments = new ArrayList<>();
 		arguments.add(CLINGO_COMMAND);
+		arguments.add(String.valueOf(numberOfModels));
 		arguments.addAll(Arrays.asList(COMMON_ARGUMENTS.split(" ")));
 		if (minimize) {
 			arguments.addAll(Arrays.asList(HEURISTIC_ARGUMENTS.split(" ")));
@@ -82,6 +92,9 @@ public class ClingoSolver implements AspSolver {
 		if (types) {
 			clingoInput.appendResource(TYPES_PROGRAM);
 		}
+		if (input.hasSymmetries()) {
+			clingoInput.appendResource(SYMMETRY_PROGRAM);
+		}
 		clingoInput.appendResource(FINAL_PROGRAM);
 		input.appendProgram(clingoInput);
 		clingoInput.close();
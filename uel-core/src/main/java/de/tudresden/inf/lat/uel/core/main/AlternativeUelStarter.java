@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
@@ -29,6 +30,10 @@ import de.tudresden.inf.lat.uel.core.processor.UelModel;
 import de.tudresden.inf.lat.uel.core.processor.UelOptions;
 import de.tudresden.inf.lat.uel.core.processor.UelOptions.Verbosity;
 import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.rule.ConstraintSelection;
+import de.tudresden.inf.lat.uel.rule.RestartPolicy;
+import de.tudresden.inf.lat.uel.sat.type.BranchingHeuristic;
+import de.tudresden.inf.lat.uel.sat.type.CountEstimate;
 
 /**
  * This class provides an acces point to UEL without the user interface.
@@ -145,6 +150,46 @@ public class AlternativeUelStarter {
 						return;
 					}
 					break;
+				case 'b':
+					options.satBranchingHeuristic = BranchingHeuristic.GOAL_AWARE;
+					break;
+				case 'r':
+					argIdx++;
+					try {
+						options.ruleConstraintSelection = ConstraintSelection
+								.valueOf(args[argIdx].toUpperCase().replace('-', '_'));
+					} catch (IllegalArgumentException e) {
+						System.err.println("Invalid constraint selection heuristic.");
+						return;
+					}
+					break;
+				case 'j':
+					argIdx++;
+					try {
+						options.ruleParallelism = Integer.parseInt(args[argIdx]);
+					} catch (NumberFormatException e) {
+						System.err.println("Invalid number of threads.");
+						return;
+					}
+					break;
+				case 'R':
+					argIdx++;
+					options.ruleRestartPolicy = parseRestartPolicy(args[argIdx]);
+					if (options.ruleRestartPolicy == null) {
+						System.err.println("Invalid restart policy.");
+						return;
+					}
+					break;
+				case 'g':
+					options.ruleCandidateRanking = true;
+					break;
+				case 'k':
+					argIdx++;
+					if (!parseCheckpoint(args[argIdx], options)) {
+						System.err.println("Invalid checkpoint interval.");
+						return;
+					}
+					break;
 				case 'h':
 					printSyntax();
 					return;
@@ -200,6 +245,43 @@ public class AlternativeUelStarter {
 
 	}
 
+	private static boolean parseCheckpoint(String arg, UelOptions options) {
+		// the interval is optional, and the file name may contain colons
+		int idx = arg.lastIndexOf(':');
+		if ((idx >= 0) && arg.substring(idx + 1).matches("-?[0-9]+")) {
+			try {
+				options.ruleCheckpointInterval = Long.parseLong(arg.substring(idx + 1)) * 1000;
+			} catch (NumberFormatException e) {
+				return false;
+			}
+			arg = arg.substring(0, idx);
+		}
+		options.ruleCheckpointFile = new File(arg);
+		return options.ruleCheckpointInterval >= 0;
+	}
+
+	private static RestartPolicy parseRestartPolicy(String arg) {
+		String[] parts = arg.split(":", 2);
+		long seed = 0;
+		if (parts.length > 1) {
+			try {
+				seed = Long.parseLong(parts[1]);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+		switch (parts[0]) {
+		case "none":
+			return RestartPolicy.NONE;
+		case "luby":
+			return RestartPolicy.luby(RestartPolicy.DEFAULT_UNIT, seed);
+		case "geometric":
+			return RestartPolicy.geometric(RestartPolicy.DEFAULT_UNIT, RestartPolicy.DEFAULT_FACTOR, seed);
+		default:
+			return null;
+		}
+	}
+
 	private static void printSyntax() {
 		try {
 			BufferedReader reader = new BufferedReader(
@@ -261,7 +343,84 @@ public class AlternativeUelStarter {
 	public static Iterator<Set<OWLEquivalentClassesAxiom>> solve(Set<OWLOntology> bgOntologies,
 			OWLOntology positiveProblem, OWLOntology negativeProblem, OWLOntology constraints, Set<OWLClass> variables,
 			UelOptions options) {
+		return new UnifierIterator(
+				createModel(bgOntologies, positiveProblem, negativeProblem, constraints, variables, options));
+	}
 
+	/**
+	 * Decide whether the unification problem has a solution, without
+	 * constructing any unifiers.
+	 * 
+	 * @param bgOntologies
+	 *            the background ontologies
+	 * @param positiveProblem
+	 *            the positive part of the unification problem
+	 * @param negativeProblem
+	 *            the negative part of the unification problem
+	 * @param constraints
+	 *            additional constraints to be loaded after all processing
+	 *            finished (only relevant in SNOMED mode)
+	 * @param variables
+	 *            the set of user variables
+	 * @param options
+	 *            describes the execution options of UEL
+	 * @return 'true' iff the problem is unifiable
+	 * @throws InterruptedException
+	 *             if the computation in this thread was interrupted
+	 */
+	public static boolean decide(Set<OWLOntology> bgOntologies, OWLOntology positiveProblem,
+			OWLOntology negativeProblem, OWLOntology constraints, Set<OWLClass> variables, UelOptions options)
+			throws InterruptedException {
+		UelModel uelModel = createModel(bgOntologies, positiveProblem, negativeProblem, constraints, variables,
+				options);
+		try {
+			return uelModel.isUnifiable();
+		} finally {
+			uelModel.cleanupUnificationAlgorithm();
+		}
+	}
+
+	/**
+	 * Estimate the number of unifiers of the unification problem that differ
+	 * in the substitution sets of the user variables, without enumerating them.
+	 * This requires one of the SAT-based algorithms.
+	 * 
+	 * @param bgOntologies
+	 *            the background ontologies
+	 * @param positiveProblem
+	 *            the positive part of the unification problem
+	 * @param negativeProblem
+	 *            the negative part of the unification problem
+	 * @param constraints
+	 *            additional constraints to be loaded after all processing
+	 *            finished (only relevant in SNOMED mode)
+	 * @param variables
+	 *            the set of user variables
+	 * @param options
+	 *            describes the execution options of UEL
+	 * @param epsilon
+	 *            the tolerance of the estimate (e.g., 0.8)
+	 * @param delta
+	 *            the admissible probability that the bounds of the estimate
+	 *            are wrong (e.g., 0.2)
+	 * @return the estimated number of unifiers, with confidence bounds
+	 * @throws InterruptedException
+	 *             if the computation in this thread was interrupted
+	 */
+	public static CountEstimate estimateNumberOfUnifiers(Set<OWLOntology> bgOntologies, OWLOntology positiveProblem,
+			OWLOntology negativeProblem, OWLOntology constraints, Set<OWLClass> variables, UelOptions options,
+			double epsilon, double delta) throws InterruptedException {
+		UelModel uelModel = createModel(bgOntologies, positiveProblem, negativeProblem, constraints, variables,
+				options);
+		try {
+			return uelModel.estimateNumberOfUnifiers(epsilon, delta, new Random());
+		} finally {
+			uelModel.cleanupUnificationAlgorithm();
+		}
+	}
+
+	private static UelModel createModel(Set<OWLOntology> bgOntologies, OWLOntology positiveProblem,
+			OWLOntology negativeProblem, OWLOntology constraints, Set<OWLClass> variables, UelOptions options) {
 		OWLOntologyManager manager;
 		if (bgOntologies.size() > 0) {
 			manager = bgOntologies.iterator().next().getOWLOntologyManager();
@@ -279,7 +438,7 @@ public class AlternativeUelStarter {
 		uelModel.setupGoal(bgOntologies, positiveProblem, negativeProblem, constraints, variables, true);
 
 		uelModel.initializeUnificationAlgorithm();
-		return new UnifierIterator(uelModel);
+		return uelModel;
 	}
 
 }
@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -20,6 +21,8 @@ import de.tudresden.inf.lat.uel.core.processor.UelOptions.UndefBehavior;
 import de.tudresden.inf.lat.uel.core.processor.UelOptions.Verbosity;
 import de.tudresden.inf.lat.uel.core.renderer.OWLRenderer;
 import de.tudresden.inf.lat.uel.core.renderer.StringRenderer;
+import de.tudresden.inf.lat.uel.sat.solver.SatUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.sat.type.CountEstimate;
 import de.tudresden.inf.lat.uel.type.api.AtomManager;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
@@ -172,6 +175,26 @@ public class UelModel {
 		return false;
 	}
 
+	/**
+	 * Computes unifiers until at least k of them are available or there are no
+	 * more unifiers, and returns the first k unifiers. If the algorithm
+	 * enumerates unifiers by size (e.g.
+	 * {@link UnificationAlgorithmFactory#SAT_BASED_ALGORITHM_SMALLEST}), these
+	 * are the k smallest unifiers, and no further unifiers are computed.
+	 *
+	 * @param k
+	 *            the maximal number of unifiers to be returned
+	 * @return the list of the first (at most) k unifiers
+	 * @throws InterruptedException
+	 *             if the computation in this thread was interrupted from
+	 *             outside
+	 */
+	public List<Unifier> computeTopK(int k) throws InterruptedException {
+		while ((unifierList.size() < k) && computeNextUnifier()) {
+		}
+		return Collections.unmodifiableList(unifierList.subList(0, Math.min(k, unifierList.size())));
+	}
+
 	/**
 	 * Creates a new anonymous ontology containing all axioms of the given one.
 	 * 
@@ -326,11 +349,60 @@ public class UelModel {
 		unifierList = new ArrayList<Unifier>();
 		currentUnifierIndex = -1;
 		allUnifiersFound = false;
-		algorithm = UnificationAlgorithmFactory.instantiateAlgorithm(options.unificationAlgorithmName, goal);
+		algorithm = UnificationAlgorithmFactory.instantiateAlgorithm(options.unificationAlgorithmName, goal,
+				options);
 		algorithm.setShortFormMap(getStringRenderer(null)::getShortForm);
 		postprocessor = new UnifierPostprocessor(atomManager, goal, getStringRenderer(null));
 	}
 
+	/**
+	 * Decides whether the current goal is unifiable. Unlike
+	 * {@link #computeNextUnifier()}, this does not construct, postprocess or
+	 * print the unifier. The unification algorithm must have been initialized
+	 * before, and can still be used for enumerating the unifiers afterwards.
+	 * 
+	 * @return 'true' iff the goal has a unifier
+	 * @throws InterruptedException
+	 *             if the computation in this thread was interrupted from
+	 *             outside
+	 */
+	public boolean isUnifiable() throws InterruptedException {
+		if (!unifierList.isEmpty()) {
+			return true;
+		}
+		if (allUnifiersFound) {
+			return false;
+		}
+		return algorithm.isUnifiable();
+	}
+
+	/**
+	 * Estimates the number of unifiers of the current goal that differ in the
+	 * substitution sets of the user variables, without enumerating them. This
+	 * is only supported by the SAT-based algorithms.
+	 * 
+	 * @param epsilon
+	 *            the tolerance: with probability at least 1 - delta, the
+	 *            estimate differs from the real number by at most a factor of
+	 *            1 + epsilon
+	 * @param delta
+	 *            the admissible probability of error
+	 * @param random
+	 *            the source of randomness
+	 * @return the estimated number of unifiers
+	 * @throws InterruptedException
+	 *             if the computation in this thread was interrupted from
+	 *             outside
+	 */
+	public CountEstimate estimateNumberOfUnifiers(double epsilon, double delta, Random random)
+			throws InterruptedException {
+		if (!(algorithm instanceof SatUnificationAlgorithm)) {
+			throw new UnsupportedOperationException(
+					"Approximate counting is only supported by the SAT-based algorithms.");
+		}
+		return ((SatUnificationAlgorithm) algorithm).estimateNumberOfUnifiers(epsilon, delta, random);
+	}
+
 	private boolean isNew(Unifier newUnifier) throws InterruptedException {
 		for (Unifier oldUnifier : unifierList) {
 			if (Thread.interrupted()) {
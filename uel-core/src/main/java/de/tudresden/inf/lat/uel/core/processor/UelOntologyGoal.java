@@ -32,6 +32,7 @@ import de.tudresden.inf.lat.uel.type.api.Equation;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.Subsumption;
 import de.tudresden.inf.lat.uel.type.impl.DefinitionSet;
+import de.tudresden.inf.lat.uel.type.impl.TypeIndex;
 
 /**
  * This class is a goal of unification.
@@ -59,6 +60,8 @@ public class UelOntologyGoal implements Goal {
 	private final Map<Integer, Integer> roleNumberRestrictions = new HashMap<>();
 	private final Set<Subsumption> subsumptions = new HashSet<>();
 	private final Map<Integer, Integer> typeAssignment = new HashMap<>();
+	// computed on demand, and discarded whenever the goal is changed
+	private TypeIndex typeIndex = null;
 	private final Set<Integer> types = new HashSet<Integer>();
 	private final String snomedRoleGroupUri, snomedCtConceptUri;
 
@@ -105,6 +108,7 @@ public class UelOntologyGoal implements Goal {
 	 *            the definition of the class
 	 */
 	public void addDefinition(OWLClass definiendum, OWLClassExpression definiens) {
+		typeIndex = null;
 		Definition newDefinition = createAxiom(Definition.class, definiendum, definiens);
 		addDefinition(newDefinition);
 		atomManager.makeDefinitionVariable(newDefinition.getDefiniendum());
@@ -117,6 +121,7 @@ public class UelOntologyGoal implements Goal {
 	 *            the disequation encoded as an OWLEquivalentClassesAxiom
 	 */
 	public void addDisequation(OWLEquivalentClassesAxiom axiom) {
+		typeIndex = null;
 		disequations.add(createAxiom(Disequation.class, axiom));
 	}
 
@@ -127,6 +132,7 @@ public class UelOntologyGoal implements Goal {
 	 *            the dissubsumption encoded as an OWLSubClassOfAxiom
 	 */
 	public void addDissubsumption(OWLSubClassOfAxiom axiom) {
+		typeIndex = null;
 		dissubsumptions.add(createAxiom(Dissubsumption.class, axiom));
 	}
 
@@ -137,6 +143,7 @@ public class UelOntologyGoal implements Goal {
 	 *            the equation encoded as an OWLEquivalentClassesAxiom
 	 */
 	public void addEquation(OWLEquivalentClassesAxiom axiom) {
+		typeIndex = null;
 		equations.add(createAxiom(Equation.class, axiom));
 	}
 
@@ -149,6 +156,7 @@ public class UelOntologyGoal implements Goal {
 	 *            disequations)
 	 */
 	public void addNegativeAxioms(Set<? extends OWLAxiom> axioms) {
+		typeIndex = null;
 		for (OWLAxiom axiom : axioms) {
 			if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
 				addDisequation((OWLEquivalentClassesAxiom) axiom);
@@ -168,6 +176,7 @@ public class UelOntologyGoal implements Goal {
 	 *            subsumptions) or OWLEquivalentClassesAxioms (for equations)
 	 */
 	public void addPositiveAxioms(Set<? extends OWLAxiom> axioms) {
+		typeIndex = null;
 		for (OWLAxiom axiom : axioms) {
 			if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
 				addEquation((OWLEquivalentClassesAxiom) axiom);
@@ -186,28 +195,31 @@ public class UelOntologyGoal implements Goal {
 	 *            the subsumption encoded as an OWLSubClassOfAxiom
 	 */
 	public void addSubsumption(OWLSubClassOfAxiom axiom) {
+		typeIndex = null;
 		subsumptions.add(createAxiom(Subsumption.class, axiom));
 	}
 
 	@Override
 	public boolean areCompatible(Integer atomId1, Integer atomId2) {
-		if (subsumers.isEmpty()) {
-			// no compatibility information was extracted
-			return true;
-		}
+		// two definition variables are compatible iff they have a common
+		// subsumee; if no compatibility information was extracted, then all
+		// concept names are compatible
+		return getTypeIndex().areCompatible(atomId1, atomId2);
+	}
 
-		if (atomId1.equals(atomId2)) {
-			// every concept name is compatible with itself
-			return true;
-		}
+	@Override
+	public boolean subtypeOrEquals(Integer type1, Integer type2) {
+		return getTypeIndex().subtypeOrEquals(type1, type2);
+	}
 
-		if (!(atomManager.getDefinitionVariables().contains(atomId1)
-				&& atomManager.getDefinitionVariables().contains(atomId2))) {
-			// compatibility is only checked for definition variables
-			return true;
+	@Override
+	public TypeIndex getTypeIndex() {
+		TypeIndex index = typeIndex;
+		if (index == null) {
+			index = new TypeIndex(this, subsumers.values());
+			typeIndex = index;
 		}
-
-		return subsumers.values().stream().anyMatch(ideal -> ideal.contains(atomId1) && ideal.contains(atomId2));
+		return index;
 	}
 
 	private <S, T> Set<T> collectSets(Set<S> input, Function<S, Set<T>> mapper) {
@@ -255,6 +267,7 @@ public class UelOntologyGoal implements Goal {
 	 * of the background ontology.
 	 */
 	public void extractCompatibilityRelation() {
+		typeIndex = null;
 		for (Integer varId : Sets.difference(
 				Sets.union(atomManager.getDefinitionVariables(), atomManager.getConstants()),
 				atomManager.getUndefNames())) {
@@ -329,6 +342,7 @@ public class UelOntologyGoal implements Goal {
 	 *            with more siblings will be ignored
 	 */
 	public void extractSiblings(int limit) {
+		typeIndex = null;
 		// find all parents of leaves (ids that are not used in other defs) that
 		// do not occur in the goal
 		Set<Integer> leafIds = filterSet(Sets.union(atomManager.getDefinitionVariables(), atomManager.getConstants()),
@@ -406,6 +420,7 @@ public class UelOntologyGoal implements Goal {
 	 * the concept definitions.
 	 */
 	public void extractTypes() {
+		typeIndex = null;
 		extractDomainsAndRanges();
 		extractTopLevelTypes();
 		extractTypeHierarchy();
@@ -529,6 +544,7 @@ public class UelOntologyGoal implements Goal {
 	 * to be used in local solutions.
 	 */
 	public void introduceBlankExistentialRestrictions() {
+		typeIndex = null;
 		for (Integer roleId : atomManager.getRoleIds()) {
 			atomManager.createBlankExistentialRestriction(roleId);
 		}
@@ -573,6 +589,7 @@ public class UelOntologyGoal implements Goal {
 	 *            the number of 'RoleGroups' allowed (0 - unlimited)
 	 */
 	public void introduceRoleNumberRestrictions(int numberOfRoleGroups) {
+		typeIndex = null;
 		for (Integer roleId : atomManager.getRoleIds()) {
 			String roleName = atomManager.getRoleName(roleId);
 			if (roleName.equals(snomedRoleGroupUri)) {
@@ -3,8 +3,14 @@
  */
 package de.tudresden.inf.lat.uel.core.processor;
 
+import java.io.File;
+
 import org.semanticweb.owlapi.model.OWLClass;
 
+import de.tudresden.inf.lat.uel.rule.ConstraintSelection;
+import de.tudresden.inf.lat.uel.rule.RestartPolicy;
+import de.tudresden.inf.lat.uel.sat.type.BranchingHeuristic;
+
 /**
  * This class bundles all options to UEL.
  * 
@@ -113,6 +119,98 @@ public class UelOptions {
 	 */
 	public boolean restrictUndefContext = false;
 
+	/**
+	 * Indicates how the rule-based algorithm chooses the next unsolved
+	 * constraint. Only relevant for the rule-based algorithm.
+	 * 
+	 * Default: ANY.
+	 */
+	public ConstraintSelection ruleConstraintSelection = ConstraintSelection.ANY;
+
+	/**
+	 * Indicates how many threads the rule-based algorithm uses to explore its
+	 * search tree. Only relevant for the rule-based algorithm, and only used
+	 * if the goal contains no type information.
+	 * 
+	 * Default: 1.
+	 */
+	public int ruleParallelism = 1;
+
+	/**
+	 * Indicates when the rule-based algorithm restarts its search. Only
+	 * relevant for the rule-based algorithm, and not used together with
+	 * parallelism.
+	 * 
+	 * Default: NONE.
+	 */
+	public RestartPolicy ruleRestartPolicy = RestartPolicy.NONE;
+
+	/**
+	 * Indicates whether the rule-based algorithm ranks the candidate
+	 * subsumers of the variables by the information in the background
+	 * ontology, e.g., the types and the extracted siblings, instead of trying
+	 * them in the order of the atoms. Only relevant for the rule-based
+	 * algorithm.
+	 * 
+	 * Default: false.
+	 */
+	public boolean ruleCandidateRanking = false;
+
+	/**
+	 * Indicates whether the rule-based algorithm learns nogoods from failed
+	 * subtrees of its search and uses them for backjumping and pruning. Only
+	 * relevant for the rule-based algorithm, and only used if the goal
+	 * contains no type information.
+	 * 
+	 * Default: true.
+	 */
+	public boolean ruleNogoodLearning = true;
+
+	/**
+	 * Indicates whether the rule-based algorithm stores the failed states of
+	 * its search, in order to prune subtrees that are reached again in a
+	 * different order. Only relevant for the rule-based algorithm, and only
+	 * used if the goal contains no type information.
+	 * 
+	 * Default: true.
+	 */
+	public boolean ruleTranspositionTable = true;
+
+	/**
+	 * Indicates whether the rule-based algorithm suppresses the solutions of
+	 * its search that result in a unifier it has already returned. Only
+	 * relevant for the rule-based algorithm.
+	 * 
+	 * Default: true.
+	 */
+	public boolean ruleDuplicateSuppression = true;
+
+	/**
+	 * The file to which the rule-based algorithm periodically saves the state
+	 * of its search. If the file already exists, the search is resumed from
+	 * it. Only relevant for the rule-based algorithm, and not used together
+	 * with parallelism or restarts.
+	 * 
+	 * Default: null (no checkpoints).
+	 */
+	public File ruleCheckpointFile = null;
+
+	/**
+	 * Indicates the minimal number of milliseconds between two checkpoints of
+	 * the rule-based algorithm.
+	 * 
+	 * Default: 60000.
+	 */
+	public long ruleCheckpointInterval = 60000;
+
+	/**
+	 * Indicates how the SAT solver chooses the literals to branch on. Only
+	 * relevant for the SAT-based algorithms.
+	 * 
+	 * Default: DEFAULT.
+	 */
+	public BranchingHeuristic satBranchingHeuristic = BranchingHeuristic.DEFAULT;
+
 	/**
 	 * Indicates whether 'SNOMED mode' is active. If yes, then certain
 	 * syntactical restrictions are enabled, e.g., type compatibility and the
@@ -122,6 +220,15 @@ public class UelOptions {
 	 */
 	public boolean snomedMode = false;
 
+	/**
+	 * Indicates whether the SAT and ASP encodings break symmetries between
+	 * auxiliary variables. This does not change the unifiers, but avoids
+	 * computing several unifiers that only differ in the auxiliary variables.
+	 * 
+	 * Default: true.
+	 */
+	public boolean symmetryBreaking = true;
+
 	/**
 	 * Indicates how the UNDEF names should be treated.
 	 * 
@@ -190,10 +297,53 @@ public class UelOptions {
 		sb.append(restrictUndefContext);
 		sb.append(System.lineSeparator());
 
+		sb.append("Rule-based constraint selection: ");
+		sb.append(ruleConstraintSelection);
+		sb.append(System.lineSeparator());
+
+		sb.append("Rule-based parallelism: ");
+		sb.append(ruleParallelism);
+		sb.append(System.lineSeparator());
+
+		sb.append("Rule-based restart policy: ");
+		sb.append(ruleRestartPolicy);
+		sb.append(System.lineSeparator());
+
+		sb.append("Rule-based candidate ranking: ");
+		sb.append(ruleCandidateRanking);
+		sb.append(System.lineSeparator());
+
+		sb.append("Rule-based nogood learning: ");
+		sb.append(ruleNogoodLearning);
+		sb.append(System.lineSeparator());
+
+		sb.append("Rule-based transposition table: ");
+		sb.append(ruleTranspositionTable);
+		sb.append(System.lineSeparator());
+
+		sb.append("Rule-based duplicate suppression: ");
+		sb.append(ruleDuplicateSuppression);
+		sb.append(System.lineSeparator());
+
+		sb.append("Rule-based checkpoint file: ");
+		sb.append(ruleCheckpointFile);
+		sb.append(" (every ");
+		sb.append(ruleCheckpointInterval);
+		sb.append(" ms)");
+		sb.append(System.lineSeparator());
+
+		sb.append("SAT branching heuristic: ");
+		sb.append(satBranchingHeuristic);
+		sb.append(System.lineSeparator());
+
 		sb.append("SNOMED mode: ");
 		sb.append(snomedMode);
 		sb.append(System.lineSeparator());
 
+		sb.append("Symmetry breaking: ");
+		sb.append(symmetryBreaking);
+		sb.append(System.lineSeparator());
+
 		sb.append("Treat UNDEF names as: ");
 		sb.append(undefBehavior);
 		sb.append(System.lineSeparator());
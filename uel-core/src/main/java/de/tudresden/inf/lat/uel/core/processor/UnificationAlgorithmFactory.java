@@ -1,5 +1,6 @@
 package de.tudresden.inf.lat.uel.core.processor;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -20,6 +21,7 @@ public class UnificationAlgorithmFactory {
 	public static final String RULE_BASED_ALGORITHM = "Rule-based algorithm";
 	public static final String SAT_BASED_ALGORITHM = "SAT-based algorithm";
 	public static final String SAT_BASED_ALGORITHM_MINIMAL = "SAT-based algorithm (minimal assignments)";
+	public static final String SAT_BASED_ALGORITHM_SMALLEST = "SAT-based algorithm (smallest unifiers first)";
 	public static final String ASP_BASED_ALGORITHM = "ASP-based algorithm";
 	public static final String ASP_BASED_ALGORITHM_MINIMAL = "ASP-based algorithm (minimal assignments)";
 
@@ -33,17 +35,64 @@ public class UnificationAlgorithmFactory {
 	 * @return a new algorithm with a given UEL input
 	 */
 	public static UnificationAlgorithm instantiateAlgorithm(String name, Goal input) {
+		return instantiateAlgorithm(name, input, new UelOptions());
+	}
+
+	/**
+	 * Creates an algorithm with a given UEL input, configured according to the
+	 * given options.
+	 * 
+	 * @param name
+	 *            name of algorithm
+	 * @param input
+	 *            UEL input
+	 * @param options
+	 *            UEL options
+	 * @return a new algorithm with a given UEL input
+	 */
+	public static UnificationAlgorithm instantiateAlgorithm(String name, Goal input, UelOptions options) {
 		UnificationAlgorithm ret;
 		if (name.equals(RULE_BASED_ALGORITHM)) {
-			ret = new RuleBasedUnificationAlgorithm(input);
+			RuleBasedUnificationAlgorithm algorithm = new RuleBasedUnificationAlgorithm(input,
+					options.ruleConstraintSelection, options.ruleParallelism);
+			algorithm.setRestartPolicy(options.ruleRestartPolicy);
+			algorithm.setCandidateRanking(options.ruleCandidateRanking);
+			algorithm.setNogoodLearning(options.ruleNogoodLearning);
+			algorithm.setTranspositionTable(options.ruleTranspositionTable);
+			algorithm.setDuplicateSuppression(options.ruleDuplicateSuppression);
+			if (options.ruleCheckpointFile != null) {
+				algorithm.setCheckpointFile(options.ruleCheckpointFile, options.ruleCheckpointInterval);
+				if (options.ruleCheckpointFile.exists()) {
+					try {
+						algorithm.resume(options.ruleCheckpointFile);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			}
+			ret = algorithm;
 		} else if (name.equals(SAT_BASED_ALGORITHM)) {
-			ret = new SatUnificationAlgorithm(input, false);
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, false,
+					options.satBranchingHeuristic);
+			algorithm.setSymmetryBreaking(options.symmetryBreaking);
+			ret = algorithm;
 		} else if (name.equals(SAT_BASED_ALGORITHM_MINIMAL)) {
-			ret = new SatUnificationAlgorithm(input, true);
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, true, options.satBranchingHeuristic);
+			algorithm.setSymmetryBreaking(options.symmetryBreaking);
+			ret = algorithm;
+		} else if (name.equals(SAT_BASED_ALGORITHM_SMALLEST)) {
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, false, true,
+					options.satBranchingHeuristic);
+			algorithm.setSymmetryBreaking(options.symmetryBreaking);
+			ret = algorithm;
 		} else if (name.equals(ASP_BASED_ALGORITHM)) {
-			ret = new AspUnificationAlgorithm(input, false);
+			AspUnificationAlgorithm algorithm = new AspUnificationAlgorithm(input, false);
+			algorithm.setSymmetryBreaking(options.symmetryBreaking);
+			ret = algorithm;
 		} else if (name.equals(ASP_BASED_ALGORITHM_MINIMAL)) {
-			ret = new AspUnificationAlgorithm(input, true);
+			AspUnificationAlgorithm algorithm = new AspUnificationAlgorithm(input, true);
+			algorithm.setSymmetryBreaking(options.symmetryBreaking);
+			ret = algorithm;
 		} else {
 			throw new IllegalArgumentException("Unknown algorithm : '" + name + "'.");
 		}
@@ -62,6 +111,7 @@ public class UnificationAlgorithmFactory {
 		ret.add(RULE_BASED_ALGORITHM);
 		ret.add(ASP_BASED_ALGORITHM);
 		ret.add(ASP_BASED_ALGORITHM_MINIMAL);
+		ret.add(SAT_BASED_ALGORITHM_SMALLEST);
 		return Collections.unmodifiableList(ret);
 	}
 
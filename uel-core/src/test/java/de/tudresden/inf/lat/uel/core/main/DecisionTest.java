@@ -0,0 +1,81 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UelOptions;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+
+/**
+ * Checks that deciding unifiability agrees with the enumeration of unifiers,
+ * and that the enumeration is not affected by a previous decision on the same
+ * algorithm.
+ */
+public class DecisionTest {
+
+	private static final String[] algorithmNames = { UnificationAlgorithmFactory.SAT_BASED_ALGORITHM,
+			UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL, UnificationAlgorithmFactory.RULE_BASED_ALGORITHM };
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	private static void compare(UelOptions options, String ontologyName, Set<String> varNames,
+			Set<String> undefVarNames) throws OWLOntologyCreationException, IOException, InterruptedException {
+		List<Set<OWLAxiom>> expected = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames, options);
+
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames, options);
+		Assertions.assertEquals(!expected.isEmpty(), uelModel.isUnifiable());
+		while (uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+		Assertions.assertEquals(expected, ProcessorTest.renderUnifiers(uelModel));
+	}
+
+	/**
+	 * Compare the decision with the enumeration on a test ontology.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareOnTestOntology(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		for (String algorithmName : algorithmNames) {
+			compare(ProcessorTest.createOptions(algorithmName), ontologyName, varNames, undefVarNames);
+		}
+
+		// the parallel rule-based search
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleParallelism = 4;
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames, options);
+		boolean unifiable = uelModel.isUnifiable();
+		while (uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+		Assertions.assertEquals(unifiable, !uelModel.getUnifierList().isEmpty());
+	}
+
+}
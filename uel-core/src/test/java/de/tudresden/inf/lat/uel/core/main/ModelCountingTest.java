@@ -0,0 +1,114 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.sat.solver.ApproximateModelCounter;
+import de.tudresden.inf.lat.uel.sat.type.CountEstimate;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.type.impl.Unifier;
+
+/**
+ * Checks the approximate number of unifiers against the exact number obtained
+ * by enumerating all unifiers.
+ */
+public class ModelCountingTest {
+
+	private static final double epsilon = 0.8;
+	private static final double delta = 0.2;
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	private static void assertWithinBounds(long expected, CountEstimate estimate) {
+		if (estimate.isExact()) {
+			Assertions.assertEquals(expected, estimate.getEstimate());
+		} else {
+			Assertions.assertTrue(estimate.getLowerBound() <= expected, estimate.toString());
+			Assertions.assertTrue(expected <= estimate.getUpperBound(), estimate.toString());
+		}
+	}
+
+	/**
+	 * Compare the estimate with the exact number of models of a small SAT
+	 * problem that is too large to be counted exactly by the estimator. The
+	 * same counter is used twice.
+	 *
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@Test
+	public void compareOnSatProblem() throws InterruptedException {
+		// 10 propositional variables and two independent binary clauses
+		SatInput input = new SatInput();
+		input.add(new HashSet<Integer>(Arrays.asList(1, 2)));
+		input.add(new HashSet<Integer>(Arrays.asList(3, -4)));
+		Set<Integer> projection = IntStream.rangeClosed(1, 10).boxed().collect(Collectors.toSet());
+		long expected = 1024 * 3 / 4 * 3 / 4;
+
+		ApproximateModelCounter counter = new ApproximateModelCounter(input, projection, new Random(0));
+		CountEstimate first = counter.count(epsilon, delta);
+		Assertions.assertFalse(first.isExact());
+		assertWithinBounds(expected, first);
+		assertWithinBounds(expected, counter.count(epsilon, delta));
+	}
+
+	/**
+	 * Compare the estimate with the number of unifiers of a test ontology that
+	 * differ in the user variables.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareOnTestOntology(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM));
+		CountEstimate estimate = uelModel.estimateNumberOfUnifiers(epsilon, delta, new Random(0));
+		while (uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+
+		Set<Map<Integer, Set<Integer>>> projections = new HashSet<Map<Integer, Set<Integer>>>();
+		for (Unifier unifier : uelModel.getUnifierList()) {
+			Map<Integer, Set<Integer>> projection = new HashMap<Integer, Set<Integer>>();
+			for (Integer varId : uelModel.getGoal().getAtomManager().getUserVariables()) {
+				projection.put(varId, unifier.getDefinitions().getDefinition(varId).getRight());
+			}
+			projections.add(projection);
+		}
+		assertWithinBounds(projections.size(), estimate);
+	}
+
+}
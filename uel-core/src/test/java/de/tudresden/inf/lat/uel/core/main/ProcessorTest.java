@@ -9,6 +9,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -124,6 +125,121 @@ public class ProcessorTest {
 		return data.stream();
 	}
 
+	/**
+	 * Construct the test ontologies together with their variables, but
+	 * without the expected numbers of unifiers. This is used to compare the
+	 * results of different algorithms or options on the same goals.
+	 * 
+	 * @return the name of the ontology file, the names of the user variables,
+	 *         and the names of the concepts whose UNDEF versions are variables
+	 */
+	static Stream<Arguments> ontologies() {
+		Collection<Arguments> data = new ArrayList<>();
+		for (int i = 1; i <= maxTest; i++) {
+			try {
+				String fileName = apath + prefix + String.format("%02d", i);
+				BufferedReader configFile = new BufferedReader(new FileReader(fileName + test));
+				Set<String> varNames = parseSet(readNextLine(configFile));
+				Set<String> undefVarNames = parseSet(readNextLine(configFile));
+				configFile.close();
+				data.add(Arguments.of(fileName + krss, varNames, undefVarNames));
+			} catch (IOException ex) {
+				throw new RuntimeException(ex);
+			}
+		}
+		return data.stream();
+	}
+
+	/**
+	 * Create the options used for all tests on the test ontologies.
+	 * 
+	 * @param algorithmName
+	 *            the name of the unification algorithm
+	 * @return the options
+	 */
+	static UelOptions createOptions(String algorithmName) {
+		UelOptions options = new UelOptions();
+		options.undefBehavior = UndefBehavior.CONSTANTS;
+		options.unificationAlgorithmName = algorithmName;
+		options.verbosity = Verbosity.SILENT;
+		return options;
+	}
+
+	/**
+	 * Set up the goal 'C = D' w.r.t. one of the test ontologies and initialize
+	 * the unification algorithm.
+	 * 
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @param options
+	 *            the options
+	 * @return the initialized model
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 */
+	static UelModel createModel(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			UelOptions options) throws OWLOntologyCreationException, IOException {
+		OWLOntology owlOntology = loadKRSSOntology(ontologyName);
+		OWLOntologyManager manager = owlOntology.getOWLOntologyManager();
+		UelModel uelModel = new UelModel(new BasicOntologyProvider(manager), options);
+
+		OWLOntology positiveProblem = manager.createOntology();
+		manager.addAxiom(positiveProblem, manager.getOWLDataFactory().getOWLEquivalentClassesAxiom(c, d));
+		OWLOntology negativeProblem = manager.createOntology();
+		uelModel.setupGoal(Collections.singleton(owlOntology), positiveProblem, negativeProblem, null,
+				Stream.concat(varNames.stream(), undefVarNames.stream().map(s -> s + AtomManager.UNDEF_SUFFIX))
+						.map(ProcessorTest::toOWLClass).collect(Collectors.toSet()),
+				true);
+		uelModel.initializeUnificationAlgorithm();
+		return uelModel;
+	}
+
+	/**
+	 * Render the unifiers computed so far, restricted to the user variables,
+	 * so that they can be compared between different models of the same goal.
+	 * 
+	 * @param uelModel
+	 *            the model
+	 * @return the unifiers in the order in which they were computed
+	 */
+	static List<Set<OWLAxiom>> renderUnifiers(UelModel uelModel) {
+		return uelModel.getUnifierList().stream().map(uelModel::renderUnifier).collect(Collectors.toList());
+	}
+
+	/**
+	 * Compute all unifiers of one of the test ontologies.
+	 * 
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @param options
+	 *            the options
+	 * @return the rendered unifiers in the order in which they were computed
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	static List<Set<OWLAxiom>> computeUnifiers(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			UelOptions options) throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, options);
+		while (uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+		return renderUnifiers(uelModel);
+	}
+
 	static OWLOntology loadKRSSOntology(String input) throws OWLOntologyCreationException, IOException {
 		OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
 		OWLOntology ontology = ontologyManager.createOntology();
@@ -166,22 +282,8 @@ public class ProcessorTest {
 	}
 
 	public void tryOntology() throws OWLOntologyCreationException, IOException, InterruptedException {
-		OWLOntology owlOntology = loadKRSSOntology(ontologyName);
-		OWLOntologyManager manager = owlOntology.getOWLOntologyManager();
-		UelOptions options = new UelOptions();
-		options.undefBehavior = UndefBehavior.CONSTANTS;
-		options.unificationAlgorithmName = algorithmName;
-		options.verbosity = Verbosity.SILENT;
-		UelModel uelModel = new UelModel(new BasicOntologyProvider(manager), options);
-
-		OWLOntology positiveProblem = manager.createOntology();
-		manager.addAxiom(positiveProblem, manager.getOWLDataFactory().getOWLEquivalentClassesAxiom(c, d));
-		OWLOntology negativeProblem = manager.createOntology();
-		uelModel.setupGoal(Collections.singleton(owlOntology), positiveProblem, negativeProblem, null,
-				Stream.concat(varNames.stream(), undefVarNames.stream().map(s -> s + AtomManager.UNDEF_SUFFIX))
-						.map(ProcessorTest::toOWLClass).collect(Collectors.toSet()),
-				true);
-		uelModel.initializeUnificationAlgorithm();
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, createOptions(algorithmName));
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
 
 		// System.out.println(uelModel.getStringRenderer(null).renderGoal(uelModel.getGoal()));
 
@@ -0,0 +1,1015 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UelOptions;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.rule.ConstraintSelection;
+import de.tudresden.inf.lat.uel.rule.RestartPolicy;
+
+/**
+ * Checks that the techniques for pruning the search of the rule-based
+ * algorithm do not change the set of unifiers, by comparing them to the plain
+ * depth-first search.
+ */
+public class RuleSearchTest {
+
+	private static final String base = "http://uel.sourceforge.net/rules#";
+	private static final int numberOfSyntheticGoals = 20;
+	private static final int parallelism = 4;
+
+	private static final String keyParallelism = "Number of threads";
+	private static final String keyRestarts = "Number of restarts (so far)";
+	private static final String keyDuplicates = "Number of suppressed duplicates (so far)";
+	private static final String keyDeadEnds = "Number of encountered dead ends (so far)";
+	private static final String keyLearnedNogoods = "Number of learned nogoods (so far)";
+	private static final String keyPrunedBranches = "Number of pruned branches (so far)";
+	private static final String keyTreeSize = "Size of the search tree (so far)";
+
+	// seeds of synthetic goals with conflicts on which the learned nogoods
+	// prune the search, and on which the search with restarts restarts
+	private static final int[] conflictingSeeds = { 244, 926, 1003, 1251, 1276, 2850 };
+
+	private static final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	private static Stream<Arguments> seeds() {
+		return IntStream.range(0, numberOfSyntheticGoals).mapToObj(Arguments::of);
+	}
+
+	/**
+	 * A random goal, which has more unifiers and a larger search tree than the
+	 * test ontologies. The goal can additionally contain type information, or
+	 * subsumptions and dissubsumptions that are not satisfied by the hidden
+	 * solution and lead to dead ends in the search.
+	 */
+	private static class SyntheticGoal {
+
+		private final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		private final Random random;
+		private final OWLClass[] constants = new OWLClass[4];
+		private final OWLClass[] variables = new OWLClass[3];
+		private final OWLObjectProperty[] roles = new OWLObjectProperty[2];
+		private final OWLOntology background;
+		private final OWLOntology positive;
+		private final OWLOntology negative;
+
+		SyntheticGoal(int seed) throws OWLOntologyCreationException {
+			this(seed, false, false);
+		}
+
+		SyntheticGoal(int seed, boolean typed, boolean conflicting) throws OWLOntologyCreationException {
+			random = new Random(seed);
+			for (int i = 0; i < constants.length; i++) {
+				constants[i] = factory.getOWLClass(IRI.create(base + "A" + i));
+			}
+			for (int i = 0; i < variables.length; i++) {
+				variables[i] = factory.getOWLClass(IRI.create(base + "X" + i));
+			}
+			for (int i = 0; i < roles.length; i++) {
+				roles[i] = factory.getOWLObjectProperty(IRI.create(base + "r" + i));
+			}
+			background = manager.createOntology();
+			positive = manager.createOntology();
+			negative = manager.createOntology();
+			if (typed) {
+				OWLClass top = factory.getOWLClass(IRI.create(new UelOptions().snomedCtConceptUri));
+				OWLClass[] types = new OWLClass[2];
+				for (int i = 0; i < types.length; i++) {
+					types[i] = factory.getOWLClass(IRI.create(base + "T" + i));
+					manager.addAxiom(background, factory.getOWLSubClassOfAxiom(types[i], top));
+				}
+				for (int i = 0; i < constants.length; i++) {
+					manager.addAxiom(background, factory.getOWLSubClassOfAxiom(constants[i], types[i % 2]));
+				}
+				for (int i = 0; i < roles.length; i++) {
+					manager.addAxiom(background, factory.getOWLObjectPropertyDomainAxiom(roles[i], types[0]));
+					manager.addAxiom(background, factory.getOWLObjectPropertyRangeAxiom(roles[i], types[i % 2]));
+				}
+			}
+			// the goal is constructed from a hidden solution, so that it is
+			// unifiable if the solution is compatible with the types
+			List<Set<OWLClassExpression>> solution = new ArrayList<>();
+			for (int i = 0; i < variables.length; i++) {
+				solution.add(createConjuncts(constants));
+			}
+			int numberOfAxioms = 2 + random.nextInt(2);
+			for (int i = 0; i < numberOfAxioms; i++) {
+				Set<OWLClassExpression> left = new LinkedHashSet<OWLClassExpression>();
+				Set<OWLClassExpression> expanded = new LinkedHashSet<OWLClassExpression>();
+				for (OWLClassExpression conjunct : createConjuncts(variables)) {
+					left.add(conjunct);
+					if (conjunct instanceof OWLClass) {
+						expanded.addAll(solution.get(Arrays.asList(variables).indexOf(conjunct)));
+					} else {
+						expanded.add(conjunct);
+					}
+				}
+				Set<OWLClassExpression> right = new LinkedHashSet<OWLClassExpression>();
+				for (OWLClassExpression conjunct : expanded) {
+					if (random.nextBoolean() && !conjunct.getClassesInSignature().stream()
+							.anyMatch(Arrays.asList(variables)::contains)) {
+						right.add(conjunct);
+					}
+				}
+				manager.addAxiom(positive, factory.getOWLSubClassOfAxiom(factory.getOWLObjectIntersectionOf(left),
+						factory.getOWLObjectIntersectionOf(right)));
+			}
+			if (conflicting) {
+				// these axioms are independent of the hidden solution, and
+				// thus possibly make the goal not unifiable
+				int numberOfConflicts = random.nextInt(4);
+				for (int i = 0; i < numberOfConflicts; i++) {
+					manager.addAxiom(positive, factory.getOWLSubClassOfAxiom(
+							factory.getOWLObjectIntersectionOf(createConjuncts(variables)),
+							factory.getOWLObjectIntersectionOf(createConjuncts(constants))));
+				}
+				int numberOfDissubsumptions = random.nextInt(3);
+				for (int i = 0; i < numberOfDissubsumptions; i++) {
+					manager.addAxiom(negative, factory.getOWLSubClassOfAxiom(
+							factory.getOWLObjectIntersectionOf(createConjuncts(variables)),
+							factory.getOWLObjectIntersectionOf(createConjuncts(constants))));
+				}
+			}
+		}
+
+		private Set<OWLClassExpression> createConjuncts(OWLClass[] names) {
+			Set<OWLClassExpression> conjuncts = new LinkedHashSet<OWLClassExpression>();
+			int numberOfConjuncts = 1 + random.nextInt(3);
+			for (int i = 0; i < numberOfConjuncts; i++) {
+				OWLClass name = names[random.nextInt(names.length)];
+				if (random.nextInt(3) == 0) {
+					conjuncts.add(factory.getOWLObjectSomeValuesFrom(roles[random.nextInt(roles.length)],
+							constants[random.nextInt(constants.length)]));
+				} else {
+					conjuncts.add(name);
+				}
+			}
+			return conjuncts;
+		}
+
+		Set<Set<OWLAxiom>> computeUnifiers(UelOptions options) {
+			return new HashSet<>(computeUnifiers(options, Integer.MAX_VALUE));
+		}
+
+		Map<String, String> computeStatistics(UelOptions options) {
+			UnifierIterator iterator = createIterator(options);
+			try {
+				while (iterator.hasNext()) {
+					iterator.next();
+				}
+				return getStatistics(iterator.getUelModel());
+			} finally {
+				iterator.cleanup();
+			}
+		}
+
+		List<Set<OWLAxiom>> computeUnifiers(UelOptions options, int limit) {
+			UnifierIterator iterator = createIterator(options);
+			List<Set<OWLAxiom>> unifiers = new ArrayList<>();
+			try {
+				while ((unifiers.size() < limit) && iterator.hasNext()) {
+					unifiers.add(new HashSet<OWLAxiom>(iterator.next()));
+				}
+			} finally {
+				iterator.cleanup();
+			}
+			return unifiers;
+		}
+
+		private UnifierIterator createIterator(UelOptions options) {
+			Set<OWLClass> userVariables = new HashSet<OWLClass>();
+			for (OWLClass variable : variables) {
+				if (positive.containsClassInSignature(variable.getIRI())) {
+					userVariables.add(variable);
+				}
+			}
+			return (UnifierIterator) AlternativeUelStarter.solve(background, positive, negative, null, userVariables,
+					options);
+		}
+	}
+
+	private static Map<String, String> getStatistics(UelModel uelModel) {
+		Map<String, String> statistics = new HashMap<>();
+		for (Entry<String, String> entry : uelModel.getUnificationAlgorithm().getInfo()) {
+			statistics.put(entry.getKey(), entry.getValue());
+		}
+		return statistics;
+	}
+
+	private static UelOptions createPlainOptions() {
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleNogoodLearning = false;
+		options.ruleTranspositionTable = false;
+		options.ruleDuplicateSuppression = false;
+		return options;
+	}
+
+	private static List<Set<OWLAxiom>> computeUnifiers(String ontologyName, Set<String> varNames,
+			Set<String> undefVarNames, UelOptions options, int limit)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames, options);
+		while ((uelModel.getUnifierList().size() < limit) && uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+		return ProcessorTest.renderUnifiers(uelModel);
+	}
+
+	private static Map<String, String> computeStatistics(String ontologyName, Set<String> varNames,
+			Set<String> undefVarNames, UelOptions options)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames, options);
+		while (uelModel.computeNextUnifier()) {
+		}
+		Map<String, String> statistics = getStatistics(uelModel);
+		uelModel.cleanupUnificationAlgorithm();
+		return statistics;
+	}
+
+	private static void compareWithPlainSearch(UelOptions options, String ontologyName, Set<String> varNames,
+			Set<String> undefVarNames) throws OWLOntologyCreationException, IOException, InterruptedException {
+		List<Set<OWLAxiom>> expected = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames,
+				createPlainOptions());
+		List<Set<OWLAxiom>> actual = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames, options);
+		Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+	}
+
+	private static void compareWithPlainSearch(UelOptions options, int seed) throws OWLOntologyCreationException {
+		SyntheticGoal goal = new SyntheticGoal(seed);
+		Set<Set<OWLAxiom>> expected = goal.computeUnifiers(createPlainOptions());
+		Assertions.assertEquals(expected, goal.computeUnifiers(options));
+	}
+
+	private static Map<String, String> compareWithPlainSearchOnTypedGoal(UelOptions options, int seed)
+			throws OWLOntologyCreationException {
+		SyntheticGoal goal = new SyntheticGoal(seed, true, false);
+		UelOptions plainOptions = createPlainOptions();
+		plainOptions.snomedMode = true;
+		options.snomedMode = true;
+		Assertions.assertEquals(goal.computeUnifiers(plainOptions), goal.computeUnifiers(options));
+		return goal.computeStatistics(options);
+	}
+
+	private static List<Set<OWLAxiom>> computeUnifiers(OWLOntology background, OWLOntology positive,
+			OWLOntology negative, Set<OWLClass> variables, UelOptions options, Map<String, String> statistics) {
+		UnifierIterator iterator = (UnifierIterator) AlternativeUelStarter.solve(background, positive, negative, null,
+				variables, options);
+		List<Set<OWLAxiom>> unifiers = new ArrayList<>();
+		try {
+			while (iterator.hasNext()) {
+				unifiers.add(new HashSet<OWLAxiom>(iterator.next()));
+			}
+			statistics.putAll(getStatistics(iterator.getUelModel()));
+		} finally {
+			iterator.cleanup();
+		}
+		return unifiers;
+	}
+
+	private static int getCount(Map<String, String> statistics, String key) {
+		return Integer.parseInt(statistics.get(key));
+	}
+
+	/**
+	 * Compare the search with nogood learning and backjumping to the plain
+	 * search.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareNogoodLearning(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelOptions options = createPlainOptions();
+		options.ruleNogoodLearning = true;
+		compareWithPlainSearch(options, ontologyName, varNames, undefVarNames);
+	}
+
+	/**
+	 * Compare the search with nogood learning and backjumping to the plain
+	 * search on a synthetic goal.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareNogoodLearningOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = createPlainOptions();
+		options.ruleNogoodLearning = true;
+		compareWithPlainSearch(options, seed);
+	}
+
+	/**
+	 * Check that the learned nogoods prune the search on synthetic goals with
+	 * conflicts, without changing the unifiers.
+	 *
+	 * @throws OWLOntologyCreationException
+	 *             if a goal could not be constructed
+	 */
+	@Test
+	public void checkNogoodPruning() throws OWLOntologyCreationException {
+		UelOptions options = createPlainOptions();
+		options.ruleNogoodLearning = true;
+		int learnedNogoods = 0;
+		int prunedBranches = 0;
+		for (int seed : conflictingSeeds) {
+			// the order of the search can differ between two constructions of
+			// the same goal, but not between two searches on the same goal
+			SyntheticGoal goal = new SyntheticGoal(seed, false, true);
+			Assertions.assertEquals(goal.computeUnifiers(createPlainOptions()), goal.computeUnifiers(options));
+			Map<String, String> expected = goal.computeStatistics(createPlainOptions());
+			Map<String, String> actual = goal.computeStatistics(options);
+			Assertions.assertTrue(getCount(actual, keyTreeSize) <= getCount(expected, keyTreeSize));
+			Assertions.assertTrue(getCount(actual, keyDeadEnds) <= getCount(expected, keyDeadEnds));
+			learnedNogoods += getCount(actual, keyLearnedNogoods);
+			prunedBranches += getCount(actual, keyPrunedBranches);
+		}
+		Assertions.assertTrue(learnedNogoods > 0);
+		Assertions.assertTrue(prunedBranches > 0);
+	}
+
+	/**
+	 * Check that nogood learning is disabled on a synthetic goal with type
+	 * information, and that the unifiers are the same as without it.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareNogoodLearningOnTypedGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = createPlainOptions();
+		options.ruleNogoodLearning = true;
+		Map<String, String> statistics = compareWithPlainSearchOnTypedGoal(options, seed);
+		Assertions.assertFalse(statistics.containsKey(keyLearnedNogoods));
+	}
+
+	/**
+	 * Compare the search with the transposition table to the plain search.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareTranspositionTable(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelOptions options = createPlainOptions();
+		options.ruleTranspositionTable = true;
+		compareWithPlainSearch(options, ontologyName, varNames, undefVarNames);
+	}
+
+	/**
+	 * Compare the search with the transposition table to the plain search on
+	 * a synthetic goal.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareTranspositionTableOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = createPlainOptions();
+		options.ruleTranspositionTable = true;
+		compareWithPlainSearch(options, seed);
+	}
+
+	/**
+	 * Check that the transposition table prunes the search on a goal in which
+	 * the same failing state is reached by solving the constraints in
+	 * different orders, without changing the unifiers.
+	 *
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@Test
+	public void checkTranspositionPruning() throws OWLOntologyCreationException {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntology background = manager.createOntology();
+		OWLOntology positive = manager.createOntology();
+		OWLOntology negative = manager.createOntology();
+		OWLClass[] constants = new OWLClass[2];
+		for (int i = 0; i < constants.length; i++) {
+			constants[i] = factory.getOWLClass(IRI.create(base + "A" + i));
+		}
+		OWLClass[] variables = new OWLClass[3];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = factory.getOWLClass(IRI.create(base + "X" + i));
+		}
+		// every two variables have A0 as a common subsumer, and X0 and X1
+		// cannot have A1 as a common subsumer
+		for (int i = 0; i < variables.length; i++) {
+			manager.addAxiom(positive, factory.getOWLSubClassOfAxiom(
+					factory.getOWLObjectIntersectionOf(variables[i], variables[(i + 1) % variables.length]),
+					constants[0]));
+		}
+		OWLClassExpression conflict = factory.getOWLObjectIntersectionOf(variables[0], variables[1]);
+		manager.addAxiom(positive, factory.getOWLSubClassOfAxiom(conflict, constants[1]));
+		manager.addAxiom(negative, factory.getOWLSubClassOfAxiom(conflict, constants[1]));
+
+		UelOptions options = createPlainOptions();
+		options.ruleTranspositionTable = true;
+		Set<OWLClass> userVariables = new HashSet<>(Arrays.asList(variables));
+		Map<String, String> expected = new HashMap<>();
+		Map<String, String> actual = new HashMap<>();
+		Assertions.assertEquals(
+				new HashSet<>(computeUnifiers(background, positive, negative, userVariables, createPlainOptions(),
+						expected)),
+				new HashSet<>(computeUnifiers(background, positive, negative, userVariables, options, actual)));
+		Assertions.assertTrue(getCount(actual, keyPrunedBranches) > 0);
+		Assertions.assertTrue(getCount(actual, keyTreeSize) < getCount(expected, keyTreeSize));
+	}
+
+	/**
+	 * Check that the transposition table is disabled on a synthetic goal with
+	 * type information, and that the unifiers are the same as without it.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareTranspositionTableOnTypedGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = createPlainOptions();
+		options.ruleTranspositionTable = true;
+		Map<String, String> statistics = compareWithPlainSearchOnTypedGoal(options, seed);
+		Assertions.assertFalse(statistics.containsKey(keyPrunedBranches));
+	}
+
+	/**
+	 * Compare the parallel search to the plain search.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareParallelSearch(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleParallelism = parallelism;
+		compareWithPlainSearch(options, ontologyName, varNames, undefVarNames);
+	}
+
+	/**
+	 * Compare the parallel search to the plain search on a synthetic goal, and
+	 * check that it uses the requested number of threads.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareParallelSearchOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleParallelism = parallelism;
+		compareWithPlainSearch(options, seed);
+		Map<String, String> statistics = new SyntheticGoal(seed).computeStatistics(options);
+		Assertions.assertEquals(parallelism, getCount(statistics, keyParallelism));
+	}
+
+	/**
+	 * Check that the search on a synthetic goal with type information uses
+	 * only one thread, and that the unifiers are the same as those of the
+	 * plain search.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareParallelSearchOnTypedGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleParallelism = parallelism;
+		Map<String, String> statistics = compareWithPlainSearchOnTypedGoal(options, seed);
+		Assertions.assertEquals(1, getCount(statistics, keyParallelism));
+	}
+
+	private static UelOptions createCheckpointOptions(File checkpointFile) {
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleCheckpointFile = checkpointFile;
+		options.ruleCheckpointInterval = 0;
+		return options;
+	}
+
+	/**
+	 * Interrupt the search after each unifier, resume it from the checkpoint,
+	 * and check that the resumed search yields exactly the remaining unifiers
+	 * and that resuming it again from the final checkpoint yields none.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @param tempDir
+	 *            a directory for the checkpoint files
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareResumedSearch(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			@TempDir File tempDir) throws OWLOntologyCreationException, IOException, InterruptedException {
+		List<Set<OWLAxiom>> expected = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM));
+		for (int limit = 0; limit <= expected.size(); limit++) {
+			UelOptions options = createCheckpointOptions(new File(tempDir, "checkpoint" + limit));
+			List<Set<OWLAxiom>> actual = new ArrayList<>(
+					computeUnifiers(ontologyName, varNames, undefVarNames, options, limit));
+			actual.addAll(computeUnifiers(ontologyName, varNames, undefVarNames, options, Integer.MAX_VALUE));
+			Assertions.assertEquals(expected, actual, "interrupted after " + limit + " unifiers");
+			// the final checkpoint resumes the exhausted search
+			Assertions.assertTrue(options.ruleCheckpointFile.exists());
+			Assertions.assertTrue(
+					computeUnifiers(ontologyName, varNames, undefVarNames, options, Integer.MAX_VALUE).isEmpty());
+		}
+	}
+
+	/**
+	 * Interrupt the search on a synthetic goal after each unifier, resume it
+	 * from the checkpoint, and check that the resumed search yields exactly
+	 * the remaining unifiers and that resuming it again yields none.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @param tempDir
+	 *            a directory for the checkpoint files
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareResumedSearchOnSyntheticGoal(int seed, @TempDir File tempDir)
+			throws OWLOntologyCreationException {
+		SyntheticGoal goal = new SyntheticGoal(seed);
+		List<Set<OWLAxiom>> expected = goal.computeUnifiers(
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM), Integer.MAX_VALUE);
+		for (int limit = 0; limit <= expected.size(); limit++) {
+			UelOptions options = createCheckpointOptions(new File(tempDir, "checkpoint" + limit));
+			List<Set<OWLAxiom>> actual = new ArrayList<>(goal.computeUnifiers(options, limit));
+			actual.addAll(goal.computeUnifiers(options, Integer.MAX_VALUE));
+			Assertions.assertEquals(expected, actual, "interrupted after " + limit + " unifiers");
+			Assertions.assertTrue(options.ruleCheckpointFile.exists());
+			Assertions.assertTrue(goal.computeUnifiers(options, Integer.MAX_VALUE).isEmpty());
+		}
+	}
+
+	/**
+	 * Compare the search with the suppression of duplicate unifiers to the
+	 * plain search, and check that no unifier is returned twice and that each
+	 * duplicate found by the plain search is suppressed.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareDuplicateSuppression(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelOptions options = createPlainOptions();
+		options.ruleDuplicateSuppression = true;
+		compareWithPlainSearch(options, ontologyName, varNames, undefVarNames);
+		List<Set<OWLAxiom>> unifiers = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames, options);
+		Assertions.assertEquals(new HashSet<>(unifiers).size(), unifiers.size());
+		List<Set<OWLAxiom>> plainUnifiers = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames,
+				createPlainOptions());
+		Assertions.assertEquals(plainUnifiers.size() - unifiers.size(),
+				getCount(computeStatistics(ontologyName, varNames, undefVarNames, options), keyDuplicates));
+	}
+
+	/**
+	 * Compare the search with the suppression of duplicate unifiers to the
+	 * plain search on a synthetic goal, and check that no unifier is returned
+	 * twice and that each duplicate found by the plain search is suppressed.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareDuplicateSuppressionOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = createPlainOptions();
+		options.ruleDuplicateSuppression = true;
+		compareWithPlainSearch(options, seed);
+		SyntheticGoal goal = new SyntheticGoal(seed);
+		List<Set<OWLAxiom>> unifiers = goal.computeUnifiers(options, Integer.MAX_VALUE);
+		Assertions.assertEquals(new HashSet<>(unifiers).size(), unifiers.size());
+		List<Set<OWLAxiom>> plainUnifiers = goal.computeUnifiers(createPlainOptions(), Integer.MAX_VALUE);
+		Assertions.assertEquals(plainUnifiers.size() - unifiers.size(),
+				getCount(goal.computeStatistics(options), keyDuplicates));
+	}
+
+	private static void compareWithSatAlgorithms(UelOptions options, String ontologyName, Set<String> varNames,
+			Set<String> undefVarNames) throws OWLOntologyCreationException, IOException, InterruptedException {
+		List<Set<OWLAxiom>> minimal = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL));
+		List<Set<OWLAxiom>> all = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM));
+		List<Set<OWLAxiom>> unifiers = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames, options);
+		Assertions.assertTrue(unifiers.containsAll(minimal));
+		Assertions.assertTrue(all.containsAll(unifiers));
+	}
+
+	private static void compareWithMinimalSatAlgorithm(UelOptions options, int seed)
+			throws OWLOntologyCreationException {
+		// the SAT-based algorithm without minimal assignments takes too long
+		// on some of the synthetic goals
+		SyntheticGoal goal = new SyntheticGoal(seed);
+		Set<Set<OWLAxiom>> minimal = goal
+				.computeUnifiers(ProcessorTest.createOptions(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL));
+		Set<Set<OWLAxiom>> unifiers = goal.computeUnifiers(options);
+		Assertions.assertFalse(unifiers.isEmpty());
+		Assertions.assertTrue(unifiers.containsAll(minimal));
+	}
+
+	/**
+	 * Check that the rule-based algorithm finds all unifiers that are computed
+	 * by the SAT-based algorithm with minimal assignments, and only unifiers
+	 * that are also computed by the SAT-based algorithm without this
+	 * restriction. The test ontologies contain no domain restrictions, which
+	 * therefore do not restrict the existential restrictions that can be
+	 * assigned to variables.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareWithSatAlgorithms(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		compareWithSatAlgorithms(ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM),
+				ontologyName, varNames, undefVarNames);
+	}
+
+	/**
+	 * Check that the rule-based algorithm finds all unifiers of a synthetic
+	 * goal that are computed by the SAT-based algorithm with minimal
+	 * assignments. Every synthetic goal is unifiable.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareWithMinimalSatAlgorithmOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		compareWithMinimalSatAlgorithm(ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM),
+				seed);
+	}
+
+	private static List<UelOptions> createSelectionOptions() {
+		List<UelOptions> options = new ArrayList<>();
+		for (ConstraintSelection selection : ConstraintSelection.values()) {
+			if (selection != ConstraintSelection.ANY) {
+				UelOptions selectionOptions = ProcessorTest
+						.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+				selectionOptions.ruleConstraintSelection = selection;
+				options.add(selectionOptions);
+			}
+		}
+		return options;
+	}
+
+	/**
+	 * Compare the search with the other strategies for selecting the next
+	 * unsolved constraint to the SAT-based algorithms. The selection changes
+	 * the order in which the rules are applied, and thus possibly the
+	 * non-minimal unifiers that are found.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareConstraintSelections(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		for (UelOptions options : createSelectionOptions()) {
+			compareWithSatAlgorithms(options, ontologyName, varNames, undefVarNames);
+		}
+	}
+
+	/**
+	 * Compare the search with the other strategies for selecting the next
+	 * unsolved constraint on a synthetic goal to the SAT-based algorithm with
+	 * minimal assignments.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareConstraintSelectionsOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		for (UelOptions options : createSelectionOptions()) {
+			compareWithMinimalSatAlgorithm(options, seed);
+		}
+	}
+
+	private static UelOptions[] createRestartOptions() {
+		// restart after very few dead ends, so that the small goals are also
+		// searched with restarts
+		RestartPolicy[] policies = { RestartPolicy.luby(1, 0), RestartPolicy.geometric(1, 2.0, 0) };
+		UelOptions[] options = new UelOptions[policies.length];
+		for (int i = 0; i < policies.length; i++) {
+			options[i] = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+			options[i].ruleRestartPolicy = policies[i];
+		}
+		return options;
+	}
+
+	/**
+	 * Compare the search with restarts to the SAT-based algorithms. Restarts
+	 * change the order in which the rules are applied, and thus the unifiers
+	 * that are found in addition to the minimal ones, so the unifiers cannot
+	 * be compared to those of the plain search.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareRestarts(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		for (UelOptions options : createRestartOptions()) {
+			compareWithSatAlgorithms(options, ontologyName, varNames, undefVarNames);
+		}
+	}
+
+	/**
+	 * Compare the search with restarts on a synthetic goal to the SAT-based
+	 * algorithm with minimal assignments.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareRestartsOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		for (UelOptions options : createRestartOptions()) {
+			compareWithMinimalSatAlgorithm(options, seed);
+		}
+	}
+
+	/**
+	 * Check that the search restarts on synthetic goals with conflicts, and
+	 * that it finds the unifiers in the same order if it is repeated with the
+	 * same seed.
+	 *
+	 * @throws OWLOntologyCreationException
+	 *             if a goal could not be constructed
+	 */
+	@Test
+	public void checkRestarts() throws OWLOntologyCreationException {
+		int restarts = 0;
+		for (int seed : conflictingSeeds) {
+			SyntheticGoal goal = new SyntheticGoal(seed, false, true);
+			for (UelOptions options : createRestartOptions()) {
+				List<Set<OWLAxiom>> expected = goal.computeUnifiers(options, Integer.MAX_VALUE);
+				Assertions.assertEquals(expected, goal.computeUnifiers(options, Integer.MAX_VALUE));
+				restarts += getCount(goal.computeStatistics(options), keyRestarts);
+			}
+		}
+		Assertions.assertTrue(restarts > 0);
+	}
+
+	/**
+	 * Compare the search with ranked candidate subsumers to the SAT-based
+	 * algorithms. The ranking changes the order in which the nondeterministic
+	 * rules are applied, and thus possibly the non-minimal unifiers that are
+	 * found.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareCandidateRanking(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleCandidateRanking = true;
+		compareWithSatAlgorithms(options, ontologyName, varNames, undefVarNames);
+	}
+
+	/**
+	 * Compare the search with ranked candidate subsumers on a synthetic goal
+	 * to the SAT-based algorithm with minimal assignments.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareCandidateRankingOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleCandidateRanking = true;
+		compareWithMinimalSatAlgorithm(options, seed);
+	}
+
+	private static List<Set<OWLAxiom>> computeRankedUnifiers(boolean typed, boolean swapped)
+			throws OWLOntologyCreationException {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntology background = manager.createOntology();
+		OWLOntology positive = manager.createOntology();
+		OWLOntology negative = manager.createOntology();
+		OWLClass a = factory.getOWLClass(IRI.create(base + "A"));
+		OWLClass b = factory.getOWLClass(IRI.create(base + "B"));
+		OWLClass c = factory.getOWLClass(IRI.create(base + "C"));
+		OWLClass x = factory.getOWLClass(IRI.create(base + "X"));
+		OWLClass y = factory.getOWLClass(IRI.create(base + "Y"));
+		OWLClass z = factory.getOWLClass(IRI.create(base + "Z"));
+		UelOptions options = ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+		options.ruleCandidateRanking = true;
+		if (typed) {
+			OWLClass top = factory.getOWLClass(IRI.create(options.snomedCtConceptUri));
+			OWLClass t = factory.getOWLClass(IRI.create(base + "T"));
+			manager.addAxiom(background, factory.getOWLSubClassOfAxiom(t, top));
+			manager.addAxiom(background, factory.getOWLSubClassOfAxiom(b, t));
+			options.snomedMode = true;
+			// the parallel search is disabled by the type information
+			options.ruleParallelism = parallelism;
+		}
+		OWLAxiom first = factory.getOWLSubClassOfAxiom(z, b);
+		OWLAxiom second = factory.getOWLSubClassOfAxiom(factory.getOWLObjectIntersectionOf(x, y), c);
+		manager.addAxiom(positive, swapped ? second : first);
+		manager.addAxiom(positive, swapped ? first : second);
+		// X needs a subsumer that does not subsume A
+		manager.addAxiom(negative, factory.getOWLSubClassOfAxiom(a, x));
+
+		Map<String, String> statistics = new HashMap<>();
+		List<Set<OWLAxiom>> unifiers = computeUnifiers(background, positive, negative,
+				new HashSet<>(Arrays.asList(x, y, z)), options, statistics);
+		Assertions.assertEquals(1, getCount(statistics, keyParallelism));
+		return unifiers;
+	}
+
+	/**
+	 * Check that the ranked candidate subsumers are tried first, independently
+	 * of the order of the axioms of the goal, with and without type
+	 * information. Without the ranking, the first subsumer of X that is tried
+	 * is B, which does not help to satisfy the goal. The constant C is ranked
+	 * highest, since it also satisfies the subsumption with X on the left-hand
+	 * side, so the first unifier assigns only C to X.
+	 *
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@Test
+	public void checkCandidateRanking() throws OWLOntologyCreationException {
+		OWLClass c = factory.getOWLClass(IRI.create(base + "C"));
+		OWLClass x = factory.getOWLClass(IRI.create(base + "X"));
+		OWLClass y = factory.getOWLClass(IRI.create(base + "Y"));
+		for (boolean typed : new boolean[] { false, true }) {
+			for (boolean swapped : new boolean[] { false, true }) {
+				List<Set<OWLAxiom>> unifiers = computeRankedUnifiers(typed, swapped);
+				Assertions.assertFalse(unifiers.isEmpty());
+				Set<OWLAxiom> first = unifiers.get(0);
+				Assertions.assertTrue(first.contains(factory.getOWLEquivalentClassesAxiom(x, c)));
+				Assertions.assertTrue(first.contains(factory.getOWLEquivalentClassesAxiom(y, factory.getOWLThing())));
+			}
+		}
+	}
+
+}
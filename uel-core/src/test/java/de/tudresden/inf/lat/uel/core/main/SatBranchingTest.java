@@ -0,0 +1,209 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import de.tudresden.inf.lat.uel.core.processor.UelOptions;
+import de.tudresden.inf.lat.uel.core.processor.UelOptions.UndefBehavior;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.sat.type.BranchingHeuristic;
+
+/**
+ * Checks that the branching heuristics of the SAT solver only affect the order
+ * in which the unifiers are found, but not the unifiers themselves. The goals
+ * are the test ontologies and synthetic goals that mimic the structure of
+ * SNOMED CT (types, role groups, domain and range restrictions).
+ */
+public class SatBranchingTest {
+
+	private static final String base = "http://uel.sourceforge.net/benchmark#";
+	private static final int numberOfSyntheticGoals = 5;
+
+	private static final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	private static Stream<Arguments> seeds() {
+		return IntStream.range(0, numberOfSyntheticGoals).mapToObj(Arguments::of);
+	}
+
+	private static void assertSameUnifiers(List<? extends Set<? extends OWLAxiom>> expected,
+			List<? extends Set<? extends OWLAxiom>> actual, boolean distinct) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+		if (distinct) {
+			Assertions.assertEquals(actual.size(), new HashSet<>(actual).size());
+		}
+	}
+
+	/**
+	 * Compare the heuristics on a test ontology.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareOnTestOntology(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		for (String algorithmName : new String[] { UnificationAlgorithmFactory.SAT_BASED_ALGORITHM,
+				UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL }) {
+			List<List<Set<OWLAxiom>>> results = new ArrayList<>();
+			for (BranchingHeuristic heuristic : BranchingHeuristic.values()) {
+				UelOptions options = ProcessorTest.createOptions(algorithmName);
+				options.satBranchingHeuristic = heuristic;
+				results.add(ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames, options));
+			}
+			for (List<Set<OWLAxiom>> result : results) {
+				assertSameUnifiers(results.get(0), result,
+						algorithmName.equals(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL));
+			}
+		}
+	}
+
+	/**
+	 * Compare the heuristics on a synthetic goal in SNOMED mode, using only
+	 * minimal assignments.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 * @throws OWLOntologyCreationException
+	 *             if the goal could not be constructed
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareOnSyntheticGoal(int seed) throws OWLOntologyCreationException {
+		Random random = new Random(seed);
+		UelOptions defaults = new UelOptions();
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntology background = manager.createOntology();
+		OWLClass top = factory.getOWLClass(IRI.create(defaults.snomedCtConceptUri));
+		OWLObjectProperty roleGroup = factory.getOWLObjectProperty(IRI.create(defaults.snomedRoleGroupUri));
+
+		// top-level types, with 'type0' playing the role of 'Clinical finding'
+		int numberOfTypes = 3 + random.nextInt(3);
+		OWLClass[] types = new OWLClass[numberOfTypes];
+		for (int t = 0; t < numberOfTypes; t++) {
+			types[t] = factory.getOWLClass(IRI.create(base + "type" + t));
+			manager.addAxiom(background, factory.getOWLSubClassOfAxiom(types[t], top));
+		}
+
+		// attributes with domain 'type0' and one of the other types as range
+		int numberOfRoles = 2 + random.nextInt(3);
+		OWLObjectProperty[] roles = new OWLObjectProperty[numberOfRoles];
+		int[] ranges = new int[numberOfRoles];
+		for (int r = 0; r < numberOfRoles; r++) {
+			roles[r] = factory.getOWLObjectProperty(IRI.create(base + "role" + r));
+			ranges[r] = 1 + random.nextInt(numberOfTypes - 1);
+			manager.addAxiom(background, factory.getOWLObjectPropertyDomainAxiom(roles[r], types[0]));
+			manager.addAxiom(background, factory.getOWLObjectPropertyRangeAxiom(roles[r], types[ranges[r]]));
+		}
+
+		// primitive concepts below the range types
+		int width = 2 + random.nextInt(3);
+		OWLClass[][] values = new OWLClass[numberOfTypes][width];
+		for (int t = 1; t < numberOfTypes; t++) {
+			for (int w = 0; w < width; w++) {
+				values[t][w] = factory.getOWLClass(IRI.create(base + "value" + t + "_" + w));
+				manager.addAxiom(background, factory.getOWLSubClassOfAxiom(values[t][w], types[t]));
+			}
+		}
+
+		// fully defined concepts consisting of role groups, and a goal that
+		// asks for the fillers of one of them
+		int numberOfDefinitions = 2 + random.nextInt(4);
+		OWLOntology positive = manager.createOntology();
+		Set<OWLClass> variables = new HashSet<OWLClass>();
+		for (int d = 0; d < numberOfDefinitions; d++) {
+			OWLClass defined = factory.getOWLClass(IRI.create(base + "defined" + d));
+			int numberOfGroups = 1 + random.nextInt(2);
+			Set<OWLClassExpression> conjuncts = new HashSet<OWLClassExpression>();
+			Set<OWLClassExpression> goalConjuncts = new HashSet<OWLClassExpression>();
+			conjuncts.add(types[0]);
+			goalConjuncts.add(types[0]);
+			for (int g = 0; g < numberOfGroups; g++) {
+				int r = random.nextInt(numberOfRoles);
+				conjuncts.add(factory.getOWLObjectSomeValuesFrom(roleGroup, factory.getOWLObjectSomeValuesFrom(roles[r],
+						values[ranges[r]][random.nextInt(width)])));
+				OWLClass variable = factory.getOWLClass(IRI.create(base + "X" + d + "_" + g));
+				variables.add(variable);
+				goalConjuncts.add(factory.getOWLObjectSomeValuesFrom(roleGroup,
+						factory.getOWLObjectSomeValuesFrom(roles[r], variable)));
+			}
+			manager.addAxiom(background,
+					factory.getOWLEquivalentClassesAxiom(defined, factory.getOWLObjectIntersectionOf(conjuncts)));
+			if (d == 0) {
+				manager.addAxiom(positive, factory.getOWLSubClassOfAxiom(
+						factory.getOWLObjectIntersectionOf(goalConjuncts), defined));
+			}
+		}
+		variables.retainAll(positive.getClassesInSignature());
+		OWLOntology negative = manager.createOntology();
+
+		// there are too many local unifiers to enumerate all of them
+		List<List<Set<OWLAxiom>>> results = new ArrayList<>();
+		for (BranchingHeuristic heuristic : BranchingHeuristic.values()) {
+			UelOptions options = new UelOptions();
+			options.undefBehavior = UndefBehavior.CONSTANTS;
+			options.unificationAlgorithmName = UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL;
+			options.satBranchingHeuristic = heuristic;
+			options.snomedMode = true;
+			results.add(solve(background, positive, negative, variables, options));
+		}
+		for (List<Set<OWLAxiom>> result : results) {
+			// the unifiers may only differ in the type assignments, which are
+			// not rendered
+			assertSameUnifiers(results.get(0), result, false);
+		}
+	}
+
+	private static List<Set<OWLAxiom>> solve(OWLOntology background, OWLOntology positive, OWLOntology negative,
+			Set<OWLClass> variables, UelOptions options) {
+		UnifierIterator iterator = (UnifierIterator) AlternativeUelStarter.solve(background, positive, negative, null,
+				variables, options);
+		List<Set<OWLAxiom>> unifiers = new ArrayList<>();
+		try {
+			while (iterator.hasNext()) {
+				unifiers.add(new HashSet<OWLAxiom>(iterator.next()));
+			}
+		} finally {
+			iterator.cleanup();
+		}
+		return unifiers;
+	}
+
+}
@@ -0,0 +1,87 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.rule.RuleBasedUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.rule.SearchProfile;
+
+/**
+ * Checks that the profile of the rule-based algorithm can be exported as
+ * valid JSON that contains the statistics of the search.
+ */
+public class SearchProfileTest {
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	/**
+	 * Profile the computation of all unifiers of a test ontology, and check
+	 * the statistics of the rules in the exported JSON object.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read or the JSON object
+	 *             could not be parsed
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void checkJson(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM));
+		SearchProfile profile = new SearchProfile();
+		((RuleBasedUnificationAlgorithm) uelModel.getUnificationAlgorithm()).setProfile(profile);
+		while (uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+
+		String json = profile.toJson();
+		StringWriter writer = new StringWriter();
+		profile.writeJson(writer);
+		Assertions.assertEquals(json, writer.toString());
+
+		JsonNode root = new ObjectMapper().readTree(json);
+		Assertions.assertTrue(root.get("depths").isArray());
+		Assertions.assertTrue(root.get("branchingFactors").isArray());
+		Assertions.assertTrue(root.get("backtracks").isArray());
+		long attempts = 0;
+		Iterator<JsonNode> rules = root.get("rules").elements();
+		while (rules.hasNext()) {
+			JsonNode rule = rules.next();
+			long successes = rule.get("successes").asLong();
+			long failures = rule.get("failures").asLong();
+			Assertions.assertTrue(successes + failures <= rule.get("attempts").asLong());
+			double rate = rule.get("successRate").asDouble();
+			Assertions.assertTrue((rate >= 0) && (rate <= 1));
+			attempts += rule.get("attempts").asLong();
+		}
+		Assertions.assertTrue(attempts > 0);
+	}
+
+}
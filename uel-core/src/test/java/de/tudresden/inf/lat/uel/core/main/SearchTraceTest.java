@@ -0,0 +1,168 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.rule.RuleBasedUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.rule.SearchTrace;
+
+/**
+ * Checks the events recorded in the trace of the rule-based algorithm, by
+ * comparing the traces of the same search with different capacities and
+ * levels. The search is deterministic, so these traces only differ in their
+ * timestamps.
+ */
+public class SearchTraceTest {
+
+	private static final int unlimited = 1 << 20;
+
+	// the width of the column containing the timestamps
+	private static final int timeWidth = 13;
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	/**
+	 * Compute all unifiers while recording the search in the given trace, and
+	 * return the dump of the trace without the timestamps.
+	 */
+	private static List<String> dumpTrace(SearchTrace trace, String ontologyName, Set<String> varNames,
+			Set<String> undefVarNames) throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM));
+		RuleBasedUnificationAlgorithm algorithm = (RuleBasedUnificationAlgorithm) uelModel.getUnificationAlgorithm();
+		algorithm.setTrace(trace);
+		while (uelModel.computeNextUnifier()) {
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PrintStream stream = new PrintStream(out, true, "UTF-8");
+		algorithm.dumpTrace(stream);
+		uelModel.cleanupUnificationAlgorithm();
+
+		List<String> lines = new ArrayList<>();
+		for (String line : out.toString("UTF-8").split(System.lineSeparator())) {
+			if (!line.isEmpty()) {
+				lines.add(line.substring(timeWidth));
+			}
+		}
+		return lines;
+	}
+
+	private static String getEventName(String line) {
+		// the depth is followed by the name of the event
+		return line.substring(4, 17).trim();
+	}
+
+	/**
+	 * Check that a trace that is large enough keeps all recorded events,
+	 * including one event for each unifier.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void checkRecordedEvents(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		SearchTrace trace = new SearchTrace(SearchTrace.PROPAGATION, unlimited);
+		List<String> lines = dumpTrace(trace, ontologyName, varNames, undefVarNames);
+		Assertions.assertTrue(trace.getEventCount() > 0);
+		Assertions.assertEquals(trace.getEventCount(), lines.size());
+		int numberOfUnifiers = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM)).size();
+		Assertions.assertEquals(numberOfUnifiers,
+				lines.stream().filter(line -> getEventName(line).equals("unifier")).count());
+	}
+
+	/**
+	 * Check that a trace whose capacity is exceeded keeps exactly the most
+	 * recent events, starting with the oldest one that was not overwritten.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void checkOverwrittenEvents(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		List<String> all = dumpTrace(new SearchTrace(SearchTrace.PROPAGATION, unlimited), ontologyName, varNames,
+				undefVarNames);
+		Assertions.assertTrue(all.size() > 1);
+		int capacity = Math.max(1, all.size() / 3);
+		SearchTrace trace = new SearchTrace(SearchTrace.PROPAGATION, capacity);
+		List<String> recent = dumpTrace(trace, ontologyName, varNames, undefVarNames);
+		Assertions.assertEquals(all.size(), trace.getEventCount());
+		Assertions.assertEquals(all.subList(all.size() - capacity, all.size()), recent);
+	}
+
+	/**
+	 * Check that a trace only records the events of the enabled levels.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void checkLevels(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		List<String> propagation = dumpTrace(new SearchTrace(SearchTrace.PROPAGATION, unlimited), ontologyName,
+				varNames, undefVarNames);
+		List<String> decisions = dumpTrace(new SearchTrace(SearchTrace.DECISIONS, unlimited), ontologyName,
+				varNames, undefVarNames);
+		Assertions.assertEquals(propagation.stream()
+				.filter(line -> !getEventName(line).equals("commit") && !getEventName(line).equals("eager-failure"))
+				.collect(Collectors.toList()), decisions);
+		Assertions.assertTrue(propagation.stream().anyMatch(line -> getEventName(line).equals("commit")));
+
+		SearchTrace trace = new SearchTrace(SearchTrace.OFF, unlimited);
+		Assertions.assertTrue(dumpTrace(trace, ontologyName, varNames, undefVarNames).isEmpty());
+		Assertions.assertEquals(0, trace.getEventCount());
+	}
+
+}
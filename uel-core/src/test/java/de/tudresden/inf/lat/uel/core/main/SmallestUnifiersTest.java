@@ -0,0 +1,103 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.type.impl.Unifier;
+
+/**
+ * Checks that enumerating the unifiers by size yields each unifier exactly
+ * once, where two unifiers are considered equal if they agree on the user
+ * variables, and that the top-k unifiers are the k smallest ones.
+ */
+public class SmallestUnifiersTest {
+
+	private static final int k = 5;
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	private static Map<Integer, Set<Integer>> project(UelModel uelModel, Unifier unifier) {
+		Map<Integer, Set<Integer>> projection = new HashMap<Integer, Set<Integer>>();
+		for (Integer varId : uelModel.getGoal().getAtomManager().getUserVariables()) {
+			projection.put(varId, unifier.getDefinitions().getDefinition(varId).getRight());
+		}
+		return projection;
+	}
+
+	private static List<Map<Integer, Set<Integer>>> project(UelModel uelModel, List<Unifier> unifiers) {
+		return unifiers.stream().map(unifier -> project(uelModel, unifier)).collect(Collectors.toList());
+	}
+
+	private static int size(Map<Integer, Set<Integer>> projection) {
+		return projection.values().stream().mapToInt(Set::size).sum();
+	}
+
+	/**
+	 * Compare the unifiers enumerated by size with all unifiers of a test
+	 * ontology.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareWithAllUnifiers(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		// the algorithms are run on the same goal, so that the atom ids agree
+		UelModel uelModel = ProcessorTest.createModel(ontologyName, varNames, undefVarNames,
+				ProcessorTest.createOptions(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM));
+		while (uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+		Set<Map<Integer, Set<Integer>>> expected = new HashSet<>(project(uelModel, uelModel.getUnifierList()));
+
+		uelModel.getOptions().unificationAlgorithmName = UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_SMALLEST;
+		uelModel.initializeUnificationAlgorithm();
+		while (uelModel.computeNextUnifier()) {
+		}
+		uelModel.cleanupUnificationAlgorithm();
+		List<Map<Integer, Set<Integer>>> smallest = project(uelModel, uelModel.getUnifierList());
+		Assertions.assertEquals(smallest.size(), new HashSet<>(smallest).size());
+		Assertions.assertEquals(expected, new HashSet<>(smallest));
+		for (int i = 1; i < smallest.size(); i++) {
+			Assertions.assertTrue(size(smallest.get(i - 1)) <= size(smallest.get(i)));
+		}
+
+		uelModel.initializeUnificationAlgorithm();
+		List<Map<Integer, Set<Integer>>> topK = project(uelModel, uelModel.computeTopK(k));
+		uelModel.cleanupUnificationAlgorithm();
+		Assertions.assertEquals(Math.min(k, expected.size()), topK.size());
+		Assertions.assertEquals(topK.size(), new HashSet<>(topK).size());
+		Assertions.assertEquals(smallest.subList(0, topK.size()).stream().map(SmallestUnifiersTest::size)
+				.collect(Collectors.toList()), topK.stream().map(SmallestUnifiersTest::size).collect(Collectors.toList()));
+		Assertions.assertTrue(expected.containsAll(topK));
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import de.tudresden.inf.lat.uel.core.processor.UelOptions;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+
+/**
+ * Checks that breaking the symmetries between auxiliary variables does not
+ * change the unifiers as seen by the user. The ASP-based algorithms are only
+ * checked if clingo is available.
+ */
+public class SymmetryBreakingTest {
+
+	private static Stream<Arguments> ontologies() {
+		return ProcessorTest.ontologies();
+	}
+
+	private static boolean isClingoAvailable() {
+		try {
+			Process process = new ProcessBuilder("clingo", "--version").start();
+			return process.waitFor() == 0;
+		} catch (IOException | InterruptedException ex) {
+			return false;
+		}
+	}
+
+	private static void compare(String algorithmName, boolean minimal, boolean snomedMode, String ontologyName,
+			Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelOptions options = ProcessorTest.createOptions(algorithmName);
+		// in SNOMED mode, blank existential restrictions are introduced
+		options.snomedMode = snomedMode;
+		options.symmetryBreaking = false;
+		List<Set<OWLAxiom>> expected = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames, options);
+		options.symmetryBreaking = true;
+		List<Set<OWLAxiom>> actual = ProcessorTest.computeUnifiers(ontologyName, varNames, undefVarNames, options);
+
+		Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+		if (minimal) {
+			// minimal assignments are only distinguished by the user
+			// variables, and thus not affected by symmetries at all
+			Assertions.assertEquals(expected.size(), actual.size());
+		}
+	}
+
+	/**
+	 * Compare the SAT-based algorithms with and without symmetry breaking on a
+	 * test ontology.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareSat(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		compare(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM, false, false, ontologyName, varNames,
+				undefVarNames);
+		// in SNOMED mode, there are too many local unifiers to enumerate all
+		// of them
+		for (boolean snomedMode : new boolean[] { false, true }) {
+			compare(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL, true, snomedMode, ontologyName, varNames,
+					undefVarNames);
+		}
+	}
+
+	/**
+	 * Compare the ASP-based algorithms with and without symmetry breaking on a
+	 * test ontology.
+	 *
+	 * @param ontologyName
+	 *            the name of the ontology file
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the concepts whose UNDEF versions are variables
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology could not be loaded
+	 * @throws IOException
+	 *             if the ontology file could not be read
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	@ParameterizedTest
+	@MethodSource("ontologies")
+	public void compareAsp(String ontologyName, Set<String> varNames, Set<String> undefVarNames)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		Assumptions.assumeTrue(isClingoAvailable(), "clingo is not available");
+		compare(UnificationAlgorithmFactory.ASP_BASED_ALGORITHM, false, false, ontologyName, varNames,
+				undefVarNames);
+		// in SNOMED mode, there are too many local unifiers to enumerate all
+		// of them
+		for (boolean snomedMode : new boolean[] { false, true }) {
+			compare(UnificationAlgorithmFactory.ASP_BASED_ALGORITHM_MINIMAL, true, snomedMode, ontologyName, varNames,
+					undefVarNames);
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+import de.tudresden.inf.lat.uel.type.impl.AtomManagerImpl;
+import de.tudresden.inf.lat.uel.type.impl.TypeIndex;
+
+/**
+ * Checks the answers of the type index against the queries of the goal from
+ * which it was computed, on randomly generated type information.
+ */
+public class TypeIndexTest {
+
+	private static final int numberOfGoals = 20;
+	private static final int numberOfTypes = 8;
+	private static final int numberOfVariables = 6;
+	private static final int numberOfConstants = 3;
+
+	private static Stream<Arguments> seeds() {
+		return IntStream.range(0, numberOfGoals).mapToObj(Arguments::of);
+	}
+
+	/**
+	 * A goal with a random forest of types, random role group types, and a
+	 * random compatibility relation between its definition variables.
+	 */
+	private static class RandomTypeGoal implements Goal {
+
+		private final AtomManager atomManager = new AtomManagerImpl();
+		private final Set<Integer> types = new HashSet<Integer>();
+		private final Map<Integer, Integer> supertypes = new HashMap<Integer, Integer>();
+		private final Map<Integer, Integer> roleGroupTypes = new HashMap<Integer, Integer>();
+		private final Set<List<Integer>> compatible = new HashSet<List<Integer>>();
+		private final List<Integer> atoms = new ArrayList<Integer>();
+
+		RandomTypeGoal(Random random) {
+			List<Integer> typeList = new ArrayList<Integer>();
+			for (int i = 0; i < numberOfTypes; i++) {
+				Integer type = atomManager.createConceptName("T" + i, true);
+				if (!typeList.isEmpty() && random.nextBoolean()) {
+					supertypes.put(type, typeList.get(random.nextInt(typeList.size())));
+				}
+				typeList.add(type);
+			}
+			types.addAll(typeList);
+			for (int i = 0; i < 2; i++) {
+				roleGroupTypes.put(typeList.get(random.nextInt(typeList.size())),
+						atomManager.createConceptName("RG" + i, true));
+			}
+			atoms.addAll(typeList);
+			atoms.addAll(roleGroupTypes.values());
+
+			List<Integer> variables = new ArrayList<Integer>();
+			for (int i = 0; i < numberOfVariables; i++) {
+				Integer var = atomManager.createConceptName("X" + i, false);
+				atomManager.makeDefinitionVariable(var);
+				variables.add(var);
+			}
+			for (Integer var1 : variables) {
+				for (Integer var2 : variables) {
+					if ((var1 <= var2) && random.nextBoolean()) {
+						compatible.add(Arrays.asList(var1, var2));
+						compatible.add(Arrays.asList(var2, var1));
+					}
+				}
+			}
+			atoms.addAll(variables);
+			for (int i = 0; i < numberOfConstants; i++) {
+				atoms.add(atomManager.createConceptName("A" + i, false));
+			}
+		}
+
+		@Override
+		public AtomManager getAtomManager() {
+			return atomManager;
+		}
+
+		@Override
+		public Set<Integer> getTypes() {
+			return types;
+		}
+
+		@Override
+		public Integer getDirectSupertype(Integer type) {
+			return supertypes.get(type);
+		}
+
+		@Override
+		public Map<Integer, Integer> getRoleGroupTypes() {
+			return roleGroupTypes;
+		}
+
+		@Override
+		public boolean areCompatible(Integer atomId1, Integer atomId2) {
+			Set<Integer> variables = atomManager.getDefinitionVariables();
+			if (!variables.contains(atomId1) || !variables.contains(atomId2) || atomId1.equals(atomId2)) {
+				return true;
+			}
+			return compatible.contains(Arrays.asList(atomId1, atomId2));
+		}
+
+		/**
+		 * Create random sets of atoms, which are used as the sets of mutually
+		 * compatible concept names.
+		 */
+		List<Set<Integer>> createIdeals(Random random) {
+			List<Set<Integer>> ideals = new ArrayList<Set<Integer>>();
+			int numberOfIdeals = random.nextInt(4);
+			for (int i = 0; i < numberOfIdeals; i++) {
+				Set<Integer> ideal = new HashSet<Integer>();
+				for (Integer atomId : atoms) {
+					if (random.nextInt(3) == 0) {
+						ideal.add(atomId);
+					}
+				}
+				ideals.add(ideal);
+			}
+			return ideals;
+		}
+	}
+
+	/**
+	 * Compare the subtype relation and the role group types of the index to
+	 * those of the goal.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareTypes(int seed) {
+		RandomTypeGoal goal = new RandomTypeGoal(new Random(seed));
+		TypeIndex index = new TypeIndex(goal);
+		for (Integer atomId1 : goal.atoms) {
+			for (Integer atomId2 : goal.atoms) {
+				Assertions.assertEquals(goal.subtypeOrEquals(atomId1, atomId2),
+						index.subtypeOrEquals(atomId1, atomId2));
+			}
+			Assertions.assertEquals(goal.getRoleGroupTypes().containsValue(atomId1), index.isRoleGroupType(atomId1));
+		}
+		for (Map.Entry<Integer, Integer> entry : goal.getRoleGroupTypes().entrySet()) {
+			Assertions.assertEquals(entry.getKey(), index.getRoleGroupParent(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Compare the compatibility relation of the index to that of the goal.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareCompatibility(int seed) {
+		RandomTypeGoal goal = new RandomTypeGoal(new Random(seed));
+		TypeIndex index = new TypeIndex(goal);
+		for (Integer atomId1 : goal.atoms) {
+			for (Integer atomId2 : goal.atoms) {
+				Assertions.assertEquals(goal.areCompatible(atomId1, atomId2), index.areCompatible(atomId1, atomId2));
+			}
+		}
+	}
+
+	/**
+	 * Check that two definition variables are compatible w.r.t. the index
+	 * computed from sets of concept names iff they occur together in one of
+	 * these sets, unless there are no such sets at all.
+	 *
+	 * @param seed
+	 *            the random seed for constructing the goal
+	 */
+	@ParameterizedTest
+	@MethodSource("seeds")
+	public void compareIdeals(int seed) {
+		Random random = new Random(seed);
+		RandomTypeGoal goal = new RandomTypeGoal(random);
+		List<Set<Integer>> ideals = goal.createIdeals(random);
+		TypeIndex index = new TypeIndex(goal, ideals);
+		Set<Integer> variables = goal.getAtomManager().getDefinitionVariables();
+		for (Integer atomId1 : goal.atoms) {
+			for (Integer atomId2 : goal.atoms) {
+				boolean expected = ideals.isEmpty() || !variables.contains(atomId1)
+						|| !variables.contains(atomId2) || atomId1.equals(atomId2)
+						|| ideals.stream().anyMatch(ideal -> ideal.contains(atomId1) && ideal.contains(atomId2));
+				Assertions.assertEquals(expected, index.areCompatible(atomId1, atomId2));
+			}
+		}
+	}
+
+}
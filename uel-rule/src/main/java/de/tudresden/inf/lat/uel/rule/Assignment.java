@@ -13,14 +13,61 @@ import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
  * An assignment of sets of non-variable atoms to variables. Such an assignment
  * should always be acyclic.
  *
+ * If the assignment belongs to a goal, the subsumers of each variable are
+ * stored as an {@link AtomSet}, i.e., a bitset over the IDs of the atoms, so
+ * that copies are compact and bulk operations work on whole words. The sets
+ * of subsumers are found by the IDs of the variables, so that looking up or
+ * adding a subsumer does not compute any hash codes. The
+ * assignments without a goal, e.g., the new subsumers of a rule application,
+ * are usually small and use hash sets instead.
+ *
+ * While a checkpoint is open, all additions of subsumers are recorded on an
+ * undo trail, so that they can be retrieved or rolled back without copying the
+ * whole assignment. The type domains of the variables are kept in a
+ * {@link TypeDomains} object, which records all of its changes.
+ *
  * @author Stefan Borgwardt
  */
 public class Assignment {
 
+	/**
+	 * An entry of the undo trail: an atom that was added to the subsumers of a
+	 * variable.
+	 */
+	private static final class Change {
+		final Atom var;
+		final Atom atom;
+
+		Change(Atom var, Atom atom) {
+			this.var = var;
+			this.atom = atom;
+		}
+	}
+
+	// the same sets of subsumers, by variable and by the ID of the variable
 	private final Map<Atom, Set<Atom>> subs = new HashMap<>();
-	//private List<Atom> nonVariableAtoms;
+	private final List<Set<Atom>> subsById = new ArrayList<>();
+	// created on the first dependency check and then maintained incrementally
+	private DependencyGraph dependencies = null;
+	// changes made since the oldest open checkpoint
+	private final List<Change> trail = new ArrayList<>();
+	private int openCheckpoints = 0;
+	// the positions of the type trail at the open checkpoints
+	private final Deque<Integer> typeMarks = new ArrayDeque<>();
+	// computed on first use and shared between copies
+	private List<Atom> nonVariableAtoms = null;
+	private Map<Atom, List<Atom>> candidateSubsumers = new HashMap<>();
+	// 'null' if the candidate subsumers are not shuffled
+	private Long candidateSeed = null;
+	// 'null' if the candidate subsumers are not ranked
+	private CandidateRanking candidateRanking = null;
+	// the variables to which a role group filler is attached; only maintained
+	// if the goal uses role groups
+	private Integer roleGroupId = null;
+	private final Map<Atom, Set<Atom>> roleGroupParents = new HashMap<>();
 	public Goal goal;
-	public Map<Atom, List<Atom>> types = new HashMap<>();
+	private TypeDomains types = null;
+	private FlatConstraintFactory constraintFactory;
 
 	/**
 	 * Create an empty assignment.
@@ -41,8 +88,26 @@ public class Assignment {
 			throw new IllegalArgumentException("Goal cannot be null!");
 		}
 		this.goal = goal;
-		//this.nonVariableAtoms = nonVariableAtoms;
-		this.types = new HashMap<>();
+		this.types = new TypeDomains(goal);
+		Integer roleId = goal.getAtomManager().getRoleId(goal.SNOMED_RoleGroup_URI());
+		if ((roleId != null) && (roleId >= 0)) {
+			this.roleGroupId = roleId;
+		}
+	}
+
+	/**
+	 * Create an empty assignment for a goal whose constraints are created by
+	 * the given factory.
+	 *
+	 * @param goal
+	 *            the goal
+	 * @param constraintFactory
+	 *            the factory that is used by the rules to create new
+	 *            constraints
+	 */
+	Assignment(Goal goal, FlatConstraintFactory constraintFactory) {
+		this(goal);
+		this.constraintFactory = constraintFactory;
 	}
 
 	/**
@@ -52,20 +117,153 @@ public class Assignment {
 	 *            the other assignment
 	 */
 	Assignment(Assignment other) {
-		addAll(other);
-		addAllTypes(other);
-		//this.nonVariableAtoms = other.getNonVariableAtoms();
 		this.goal = other.goal;
-		/*this.types = new HashMap<>();
-		for (Map.Entry<Atom, List<Atom>> entry : other.types.entrySet()) {
-			this.types.put(entry.getKey(), new ArrayList<>(entry.getValue()));
-		}*/
+		this.roleGroupId = other.roleGroupId;
+		for (Entry<Atom, Set<Atom>> entry : other.subs.entrySet()) {
+			put(entry.getKey(), copy(entry.getValue()));
+		}
+		for (Entry<Atom, Set<Atom>> entry : other.roleGroupParents.entrySet()) {
+			roleGroupParents.put(entry.getKey(), new HashSet<>(entry.getValue()));
+		}
+		if (other.types != null) {
+			this.types = new TypeDomains(other.types);
+		}
+		if (other.dependencies != null) {
+			this.dependencies = new DependencyGraph(other.dependencies);
+		}
+		this.nonVariableAtoms = other.nonVariableAtoms;
+		this.candidateSubsumers = other.candidateSubsumers;
+		this.candidateSeed = other.candidateSeed;
+		this.candidateRanking = other.candidateRanking;
+		this.constraintFactory = other.constraintFactory;
 	}
 
+	/**
+	 * Retrieve the factory that creates the constraints of the goal.
+	 *
+	 * @return the constraint factory
+	 */
+	public FlatConstraintFactory getConstraintFactory() {
+		if (constraintFactory == null) {
+			throw new IllegalStateException("No constraint factory available.");
+		}
+		return constraintFactory;
+	}
+
+	/**
+	 * Retrieve the non-variable atoms of the goal. The list is computed only
+	 * once, since the rules do not create new atoms.
+	 *
+	 * @return an unmodifiable list of all non-variable atoms
+	 */
 	public List<Atom> getNonVariableAtoms() {
-		//return Collections.unmodifiableList(nonVariableAtoms);
-		//return this.nonVariableAtoms;
-		return this.goal.getAtomManager().getNonvariableAtoms();
+		if (nonVariableAtoms == null) {
+			nonVariableAtoms = Collections.unmodifiableList(goal.getAtomManager().getNonvariableAtoms());
+		}
+		return nonVariableAtoms;
+	}
+
+	/**
+	 * Retrieve the non-variable atoms that may be assigned to a variable. This
+	 * excludes the existential restrictions over the variable itself, which
+	 * would make the assignment cyclic, and the existential restrictions whose
+	 * role has no domain restriction, which are incompatible with the types of
+	 * any variable. The list is computed only once for each variable.
+	 *
+	 * @param var
+	 *            the variable
+	 * @return an unmodifiable list of candidate subsumers, in the order of
+	 *         'getNonVariableAtoms()' unless they have been ranked or shuffled
+	 */
+	public List<Atom> getCandidateSubsumers(Atom var) {
+		List<Atom> candidates = candidateSubsumers.get(var);
+		if (candidates == null) {
+			candidates = new ArrayList<>();
+			for (Atom at : getNonVariableAtoms()) {
+				if (at.isExistentialRestriction() && (at.getConceptName().equals(var)
+						|| (types.hasDomainRestrictions() && (types.getDomainRestriction(
+								((ExistentialRestriction) at).getRoleId()) == null)))) {
+					continue;
+				}
+				candidates.add(at);
+			}
+			if (candidateRanking != null) {
+				candidateRanking.sort(var, candidates);
+			}
+			if (candidateSeed != null) {
+				Collections.shuffle(candidates, new Random(candidateSeed ^ var.hashCode()));
+			}
+			candidates = Collections.unmodifiableList(candidates);
+			candidateSubsumers.put(var, candidates);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Randomize the order of the candidate subsumers of all variables. Since
+	 * the rules refer to the candidates by their positions, this must only be
+	 * called when no rule application is in progress.
+	 *
+	 * @param seed
+	 *            the seed of the pseudo-random order
+	 */
+	void shuffleCandidates(long seed) {
+		candidateSeed = seed;
+		// copies of this assignment keep the previous order
+		candidateSubsumers = new HashMap<>();
+	}
+
+	/**
+	 * Order the candidate subsumers of all variables by the information in the
+	 * background ontology (see 'CandidateRanking'). Like 'shuffleCandidates',
+	 * this must only be called when no rule application is in progress.
+	 *
+	 * @param ranking
+	 *            the ranking of the candidates, or 'null' to use the order of
+	 *            'getNonVariableAtoms()'
+	 */
+	void rankCandidates(CandidateRanking ranking) {
+		candidateRanking = ranking;
+		candidateSubsumers = new HashMap<>();
+	}
+
+	/**
+	 * Determine the order in which the variables in the body of a subsumption
+	 * should be extended by its head.
+	 *
+	 * @param body
+	 *            the body of the subsumption
+	 * @param head
+	 *            the head of the subsumption
+	 * @return the positions in the body, with the variables ordered by the rank
+	 *         of the head as their candidate subsumer, or 'null' if the
+	 *         candidates are not ranked
+	 */
+	public int[] getExtensionOrder(List<Atom> body, Atom head) {
+		return (candidateRanking == null) ? null : candidateRanking.order(body, head);
+	}
+
+	/**
+	 * Checks if an atom can currently be added to the assignment of a variable
+	 * without violating acyclicity or the domain restrictions. In contrast to
+	 * 'isCompatibleTypeAboutDomain', this does not change the types of the
+	 * variable. Range restrictions are not checked.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param at
+	 *            the new atom
+	 * @return false iff adding the atom is known to fail
+	 */
+	public boolean admitsSubsumer(Atom var, Atom at) {
+		if (makesCyclic(var, at)) {
+			return false;
+		}
+		if (!at.isExistentialRestriction() || !types.hasDomainRestrictions()) {
+			return true;
+		}
+		BitSet domain = types.getDomainRestriction(((ExistentialRestriction) at).getRoleId());
+		return (domain != null) && types.intersects(var, domain);
 	}
 
 	/**
@@ -82,7 +280,24 @@ public class Assignment {
 			throw new IllegalArgumentException();
 		}
 		Set<Atom> flatAtoms = getOrInit(var);
-		return flatAtoms.add(at);
+		if (!flatAtoms.add(at)) {
+			return false;
+		}
+		if ((dependencies != null) && !at.isGround()) {
+			dependencies.addEdge(var, at.getConceptName());
+		}
+		if (isRoleGroup(at)) {
+			Set<Atom> parents = roleGroupParents.get(at.getConceptName());
+			if (parents == null) {
+				parents = new HashSet<>();
+				roleGroupParents.put(at.getConceptName(), parents);
+			}
+			parents.add(var);
+		}
+		if (openCheckpoints > 0) {
+			trail.add(new Change(var, at));
+		}
+		return true;
 	}
 
 	/**
@@ -97,8 +312,15 @@ public class Assignment {
 	public boolean addAll(Atom var, Set<Atom> at) {
 		if (at == null)
 			return false;
-		Set<Atom> flatAtoms = getOrInit(var);
-		return flatAtoms.addAll(at);
+		if ((dependencies == null) && (openCheckpoints == 0) && (roleGroupId == null)) {
+			return getOrInit(var).addAll(at);
+		}
+		boolean ret = false;
+		for (Atom atom : at) {
+			if (add(var, atom))
+				ret = true;
+		}
+		return ret;
 	}
 
 	/**
@@ -131,9 +353,20 @@ public class Assignment {
 	boolean removeAll(Atom var, Set<Atom> at) {
 		if (at == null)
 			return false;
-		if (subs.get(var) == null)
+		Set<Atom> flatAtoms = get(var);
+		if (flatAtoms == null)
 			return false;
-		return subs.get(var).removeAll(at);
+		if ((dependencies == null) && (roleGroupId == null)) {
+			return flatAtoms.removeAll(at);
+		}
+		boolean ret = false;
+		for (Atom atom : at) {
+			if (flatAtoms.remove(atom)) {
+				ret = true;
+				removed(var, atom);
+			}
+		}
+		return ret;
 	}
 
 	/**
@@ -154,6 +387,113 @@ public class Assignment {
 		return ret;
 	}
 
+	/**
+	 * Remove all atoms from this assignment that are not assigned to the same
+	 * variable by another assignment.
+	 *
+	 * @param other
+	 *            the assignment whose entries are to be retained
+	 * @return true iff the assignment was changed as a result of this operation
+	 */
+	boolean retainAll(Assignment other) {
+		boolean ret = false;
+		for (Entry<Atom, Set<Atom>> entry : subs.entrySet()) {
+			Set<Atom> removed = copy(entry.getValue());
+			removed.removeAll(other.getSubsumers(entry.getKey()));
+			if (removeAll(entry.getKey(), removed))
+				ret = true;
+		}
+		return ret;
+	}
+
+	/**
+	 * Open a new checkpoint. From now on, all additions to this assignment are
+	 * recorded until the checkpoint is released or rolled back. Rolling back
+	 * also undoes the changes to the types of variables.
+	 *
+	 * @return an identifier of the checkpoint
+	 */
+	int checkpoint() {
+		openCheckpoints++;
+		typeMarks.push(markTypes());
+		return trail.size();
+	}
+
+	/**
+	 * Retrieve the subsumers that were added to this assignment since a
+	 * checkpoint.
+	 *
+	 * @param checkpoint
+	 *            the identifier of an open checkpoint
+	 * @return a new assignment containing exactly the added subsumers
+	 */
+	Assignment getChangesSince(int checkpoint) {
+		Assignment changes = new Assignment();
+		for (Change change : trail.subList(checkpoint, trail.size())) {
+			changes.add(change.var, change.atom);
+		}
+		return changes;
+	}
+
+	/**
+	 * Close a checkpoint, keeping all changes made since it was opened.
+	 *
+	 * @param checkpoint
+	 *            the identifier of an open checkpoint
+	 */
+	void release(int checkpoint) {
+		openCheckpoints--;
+		typeMarks.pop();
+		if (openCheckpoints == 0) {
+			trail.clear();
+		}
+	}
+
+	/**
+	 * Undo all changes made since a checkpoint in reverse order and close it.
+	 *
+	 * @param checkpoint
+	 *            the identifier of an open checkpoint
+	 */
+	void rollBackTo(int checkpoint) {
+		for (int i = trail.size() - 1; i >= checkpoint; i--) {
+			Change change = trail.remove(i);
+			get(change.var).remove(change.atom);
+			removed(change.var, change.atom);
+		}
+		rollBackTypes(typeMarks.peek());
+		release(checkpoint);
+	}
+
+	// update the indices after an atom was removed from the assignment
+	private void removed(Atom var, Atom at) {
+		if ((dependencies != null) && !at.isGround()) {
+			dependencies.removeEdge(var, at.getConceptName());
+		}
+		if (isRoleGroup(at)) {
+			roleGroupParents.get(at.getConceptName()).remove(var);
+		}
+	}
+
+	private boolean isRoleGroup(Atom at) {
+		return (roleGroupId != null) && at.isExistentialRestriction()
+				&& ((ExistentialRestriction) at).getRoleId().equals(roleGroupId);
+	}
+
+	/**
+	 * Retrieve the variables that have an existential restriction over
+	 * 'RoleGroup' with a given filler as a subsumer.
+	 *
+	 * @param child
+	 *            the role group filler
+	 * @return an unmodifiable view of the variables to which the filler is
+	 *         attached
+	 */
+	Set<Atom> getRoleGroupParents(Atom child) {
+		Set<Atom> parents = roleGroupParents.get(child);
+		return (parents == null) ? Collections.<Atom> emptySet() : Collections.unmodifiableSet(parents);
+	}
+
 	/**
 	 * Retrieve the subsumers of a given variable according to this assignment.
 	 *
@@ -177,15 +517,38 @@ public class Assignment {
 		return subs.keySet();
 	}
 
+	private Set<Atom> get(Atom var) {
+		int id = var.getAtomId();
+		if (id < 0) {
+			return subs.get(var);
+		}
+		return (id < subsById.size()) ? subsById.get(id) : null;
+	}
+
 	private Set<Atom> getOrInit(Atom var) {
-		Set<Atom> flatAtoms = subs.get(var);
+		Set<Atom> flatAtoms = get(var);
 		if (flatAtoms == null) {
-			flatAtoms = new HashSet<>();
-			subs.put(var, flatAtoms);
+			flatAtoms = (goal == null) ? new HashSet<>() : new AtomSet(goal.getAtomManager());
+			put(var, flatAtoms);
 		}
 		return flatAtoms;
 	}
 
+	private void put(Atom var, Set<Atom> flatAtoms) {
+		subs.put(var, flatAtoms);
+		int id = var.getAtomId();
+		if (id >= 0) {
+			while (subsById.size() <= id) {
+				subsById.add(null);
+			}
+			subsById.set(id, flatAtoms);
+		}
+	}
+
+	private static Set<Atom> copy(Set<Atom> atoms) {
+		return (atoms instanceof AtomSet) ? new AtomSet((AtomSet) atoms) : new HashSet<>(atoms);
+	}
+
 	/**
 	 * Check whether this assignment is empty.
 	 *
@@ -200,62 +563,155 @@ public class Assignment {
 	}
 
 	/**
-	 * Add a set of atom types to the assignment of a variable.
+	 * Count the assigned subsumers.
 	 *
-	 * @param var the variable
-	 * @param at the new types
-	 * @return true iff the assignment was changed as a result of this operation
+	 * @return the number of pairs of a variable and one of its subsumers
 	 */
-	public boolean addAllTypes(Atom var, Set<Atom> at) {
-		if (at == null || at.isEmpty()) {
-			return false;
-		}
-		List<Atom> typeList = getOrInitType(var);
-		boolean changed = false;
-		for (Atom atom : at) {
-			if (!typeList.contains(atom)) {
-				typeList.add(atom);
-				changed = true;
-			}
+	int size() {
+		int size = 0;
+		for (Set<Atom> subsumers : subs.values()) {
+			size += subsumers.size();
 		}
-		return changed;
+		return size;
 	}
 
 	/**
-	 * Add another variable type assignment to this assignment.
+	 * Return the current position of the trail of type changes.
 	 *
-	 * @param other the assignment to be merged into this one
-	 * @return true iff the assignment was changed as a result of this operation
+	 * @return an identifier of the current types of the variables
 	 */
-	public boolean addAllTypes(Assignment other) {
-		if (other == null) {
-			return false;
-		}
-		boolean changed = false;
-		for (Entry<Atom, List<Atom>> entry : other.types.entrySet()) {
-			if (addAllTypes(entry.getKey(), new HashSet<>(entry.getValue()))) {
-				changed = true;
-			}
+	int markTypes() {
+		return (types == null) ? 0 : types.mark();
+	}
+
+	/**
+	 * Undo all changes to the types of variables since a given position of
+	 * the trail.
+	 *
+	 * @param mark
+	 *            an identifier returned by 'markTypes()'
+	 */
+	void rollBackTypes(int mark) {
+		if (types != null) {
+			types.rollBackTo(mark);
 		}
-		return changed;
 	}
 
 	/**
-	 * Get or initialize the type list for a variable.
+	 * Retrieve the possible types of a variable.
+	 *
+	 * @param var
+	 *            the variable
+	 * @return the list of types, or 'null' if the type of the variable is not
+	 *         restricted
+	 */
+	public List<Atom> getTypes(Atom var) {
+		BitSet domain = types.get(var);
+		return (domain == null) ? null : types.getTypes(domain);
+	}
+
+	/**
+	 * Retrieve the variables whose type is restricted.
+	 *
+	 * @return the set of variables
+	 */
+	Set<Atom> getTypedVariables() {
+		return types.getVariables();
+	}
+
+	/**
+	 * Find the next possible type of a variable.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param from
+	 *            the ID of the first type to consider
+	 * @return the ID of the next type, or -1 if there is none
+	 */
+	public int getNextType(Atom var, int from) {
+		BitSet domain = types.get(var);
+		return (domain == null) ? -1 : domain.nextSetBit(from);
+	}
+
+	/**
+	 * Retrieve a type by its ID.
+	 *
+	 * @param type
+	 *            the ID of the type
+	 * @return the type
+	 */
+	public Atom getType(int type) {
+		return types.getType(type);
+	}
+
+	/**
+	 * Fix the type of a variable.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param type
+	 *            the ID of the type, which has to be one of its possible types
+	 * @return true iff the type was possible
+	 */
+	public boolean chooseType(Atom var, int type) {
+		return types.narrow(var, type);
+	}
+
+	/**
+	 * Find a variable that still has several possible types.
+	 *
+	 * @return the variable, or 'null' if the types of all restricted variables
+	 *         are determined
+	 */
+	Atom getAmbiguousTypeVariable() {
+		return types.getAmbiguousVariable();
+	}
+
+	/**
+	 * Retrieve the variables whose type has been determined since the last
+	 * call of this method.
 	 *
-	 * @param var the variable
-	 * @return the initialized list of assigned types
+	 * @return the variables that have exactly one possible type
 	 */
-	private List<Atom> getOrInitType(Atom var) {
-		return types.computeIfAbsent(var, k -> new ArrayList<>());
+	List<Atom> pollDeterminedTypes() {
+		return types.pollDetermined();
 	}
 
+	/**
+	 * Propagate the type of a role group filler to the variables to which it
+	 * is attached by a role group.
+	 *
+	 * @param parent
+	 *            a variable that has the existential restriction over
+	 *            'RoleGroup' and 'child' as a subsumer
+	 * @param child
+	 *            the role group filler, whose type has to be determined
+	 * @return false iff the type of 'parent' is incompatible with the role
+	 *         group
+	 */
+	boolean propagateRoleGroupType(Atom parent, Atom child) {
+		int type = types.get(child).nextSetBit(0);
+		int parentType = types.getRoleGroupParent(type);
+		return (parentType < 0) || types.narrow(parent, parentType);
+	}
+
+	/**
+	 * Check whether the type of a variable is determined and is a role group
+	 * type.
+	 *
+	 * @param var
+	 *            the variable
+	 * @return true iff the variable is a role group filler of a known type
+	 */
+	boolean isRoleGroupFiller(Atom var) {
+		BitSet domain = types.get(var);
+		return (domain != null) && (domain.cardinality() == 1) && types.isRoleGroupType(domain.nextSetBit(0));
+	}
 
 	/**
 	 * Checks if there is a dependency of 'a' on 'b', i.e., whether 'b' is
 	 * reachable from 'a' in the graph representation of the current assignment.
-	 * It is important that the current assignment is acyclic; otherwise, this
-	 * implementation might not terminate.
+	 * It is important that the current assignment is acyclic.
 	 *
 	 * @param a
 	 *            the start variable
@@ -264,18 +720,17 @@ public class Assignment {
 	 * @return true iff 'a' depends on 'b'
 	 */
 	boolean dependsOn(Atom a, Atom b) {
-		for (Atom at : getSubsumers(a)) {
-			if (!at.isGround()) {
-				Atom nextVar = at.getConceptName();
-				if (nextVar.equals(b)) {
-					return true;
-				}
-				if (dependsOn(nextVar, b)) {
-					return true;
+		if (dependencies == null) {
+			dependencies = new DependencyGraph();
+			for (Entry<Atom, Set<Atom>> entry : subs.entrySet()) {
+				for (Atom at : entry.getValue()) {
+					if (!at.isGround()) {
+						dependencies.addEdge(entry.getKey(), at.getConceptName());
+					}
 				}
 			}
 		}
-		return false;
+		return dependencies.reaches(a, b);
 	}
 
 	/**
@@ -328,95 +783,41 @@ public class Assignment {
 		return buf.toString();
 	}
 
-	// domain restrictions
+	/**
+	 * Checks if an existential restriction can be added to the assignment of
+	 * a variable w.r.t. the domain restriction of its role, and narrows the
+	 * possible types of the variable accordingly. If the goal contains no
+	 * domain restrictions at all, then every existential restriction is
+	 * allowed. Otherwise, existential restrictions for roles without a domain
+	 * restriction are not allowed.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param at
+	 *            the existential restriction
+	 * @return true iff the variable can still have a type in the domain of
+	 *         the role
+	 */
 	public boolean isCompatibleTypeAboutDomain(Atom var, Atom at) {
 		if (goal == null) {
 			throw new IllegalStateException("Goal has not been initialized!");
 		}
-		if (goal.getDomains() == null || goal.getDomains().isEmpty()) {
-			System.out.println("goal.getDomains() == null!");
-			return false; // Or return true, depending on your logic
-		}
-
-		Integer roleId = ((ExistentialRestriction)at).getRoleId();
-		Set<Integer> domain = goal.getDomains().get(roleId);
-		if (roleId.equals(goal.getAtomManager().getRoleId(goal.SNOMED_RoleGroup_URI()))) {
-			domain = new HashSet<>(goal.getRoleGroupTypes().keySet()) ;
-		}
-		//Set<Integer> head = new HashSet<>();
-		// If domain is null or empty, return false (or another logic)
-		if (domain == null || domain.isEmpty()) {
-			System.out.println("domain == null!");
-			return false;
-		}
-
-		List<Atom> atomList = new ArrayList<>();
-		for (Integer id : domain) {
-			Atom atom = goal.getAtomManager().getAtom(id); // Translate integer to atom
-			if (atom != null) {
-				atomList.add(atom);
-			}
-		}
-		List<Atom> originalTypes = types.get(var) != null ? new ArrayList<>(types.get(var)) : null;
-		if (types.get(var) != null) {
-			List<Atom> copy = new ArrayList<>(types.get(var));
-			copy.retainAll(atomList); // keep only common elements
-			if (!copy.isEmpty()) {
-				types.put(var, copy);
-				return true;
-			} else {
-				/*for (Atom type : originalTypes) {
-					System.out.println("Types of "+ var + " "+ goal.getAtomManager().getIndex(type));
-				}
-				for (Integer d : domain) {
-					System.out.println("Domain of "+ roleId + " "+ d);
-				}
-				System.out.println("");*/
-				/*if (originalTypes != null) {
-					types.put(var, originalTypes);
-				} else {
-					types.remove(var);
-				}*/
-				return false;
-			}
-		} else {
-			types.put(var, atomList);
+		if (!types.hasDomainRestrictions()) {
 			return true;
 		}
+		BitSet domain = types.getDomainRestriction(((ExistentialRestriction) at).getRoleId());
+		return (domain != null) && types.narrow(var, domain);
 	}
 
 	// range restrictions
 	public boolean isCompatibleTypeAboutRange(Atom at) {
-		Integer roleId = ((ExistentialRestriction)at).getRoleId();
-
 		Atom child = at.getConceptName();
 		if (!child.isVariable()) {
 			return true;
 		}
-		Set<Integer> range = goal.getRanges().get(roleId);
-		if (roleId.equals(goal.getAtomManager().getRoleId(goal.SNOMED_RoleGroup_URI()))) {
-			range = new HashSet<>(goal.getRoleGroupTypes().values()) ;
-		}
-		List<Atom> atomList = new ArrayList<>();
-		for (Integer id : range) {
-			Atom atom = goal.getAtomManager().getAtom(id); // Translate integer to atom
-			if (atom != null) {
-				atomList.add(atom);
-			}
-		}
-		if (types.get(child) != null) {
-			List<Atom> copy = new ArrayList<>(types.get(child));
-			copy.retainAll(atomList); // keep only common elements
-			if (!copy.isEmpty()) {
-				types.put(child, copy);
-				return true;
-			} else {
-				return false;
-			}
-		} else {
-			types.put(child, atomList);
-			return true;
-		}
+		BitSet range = types.getRangeRestriction(((ExistentialRestriction) at).getRoleId());
+		// roles without a range restriction can have fillers of any type
+		return (range == null) || types.narrow(child, range);
 	}
 
 }
@@ -0,0 +1,141 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+
+/**
+ * A canonical representation of the subsumers that an assignment assigns to
+ * some variables. Two assignments have equal fingerprints iff they assign the
+ * same atoms to these variables, regardless of the order in which the atoms
+ * were added.
+ *
+ * To recognize assignments that result in the same unifier for the user, the
+ * fingerprint can be restricted to the variables on which the definitions of
+ * the user variables depend, i.e., the variables that are reachable from the
+ * user variables via the fillers of assigned existential restrictions and via
+ * background definitions. The subsumers of other auxiliary variables do not
+ * influence the unifier that is presented to the user.
+ */
+final class AssignmentFingerprint {
+
+	/**
+	 * Compute the fingerprint of an assignment.
+	 *
+	 * @param assignment
+	 *            the assignment
+	 * @param atomManager
+	 *            the atom manager that assigns IDs to the atoms
+	 * @param variables
+	 *            the IDs of the considered variables
+	 * @return the fingerprint
+	 */
+	static AssignmentFingerprint of(Assignment assignment, AtomManager atomManager, Iterable<Integer> variables) {
+		int size = 0;
+		for (Integer varId : variables) {
+			size += assignment.getSubsumers(atomManager.getAtom(varId)).size();
+		}
+		long[] pairs = new long[size];
+		int i = 0;
+		for (Integer varId : variables) {
+			long var = (long) varId << 32;
+			for (Atom at : assignment.getSubsumers(atomManager.getAtom(varId))) {
+				pairs[i++] = var | atomManager.getIndex(at);
+			}
+		}
+		Arrays.sort(pairs);
+		return new AssignmentFingerprint(pairs);
+	}
+
+	/**
+	 * Compute the fingerprint of an assignment restricted to the variables on
+	 * which the user variables of a goal depend.
+	 *
+	 * @param assignment
+	 *            the assignment
+	 * @param goal
+	 *            the goal
+	 * @return the fingerprint
+	 */
+	static AssignmentFingerprint ofUserVariables(Assignment assignment, Goal goal) {
+		AtomManager atomManager = goal.getAtomManager();
+		Set<Integer> variables = new HashSet<>();
+		Deque<Integer> toVisit = new ArrayDeque<>(atomManager.getUserVariables());
+		while (!toVisit.isEmpty()) {
+			Integer varId = toVisit.pop();
+			if (!variables.add(varId)) {
+				continue;
+			}
+			for (Atom at : assignment.getSubsumers(atomManager.getAtom(varId))) {
+				visit(at, atomManager, toVisit);
+			}
+			Set<Integer> definiens = goal.getDefiniens(varId);
+			if (definiens != null) {
+				for (Integer atomId : definiens) {
+					visit(atomManager.getAtom(atomId), atomManager, toVisit);
+				}
+			}
+		}
+		return of(assignment, atomManager, variables);
+	}
+
+	private static void visit(Atom at, AtomManager atomManager, Deque<Integer> toVisit) {
+		Atom conceptName = at.getConceptName();
+		if (conceptName.isVariable()) {
+			toVisit.push(atomManager.getIndex(conceptName));
+		}
+	}
+
+	/**
+	 * Restore a fingerprint from its array representation.
+	 *
+	 * @param pairs
+	 *            the array returned by 'toArray'
+	 * @return the fingerprint
+	 */
+	static AssignmentFingerprint fromArray(long[] pairs) {
+		return new AssignmentFingerprint(pairs.clone());
+	}
+
+	private final int hashCode;
+	private final long[] pairs;
+
+	private AssignmentFingerprint(long[] pairs) {
+		this.pairs = pairs;
+		this.hashCode = Arrays.hashCode(pairs);
+	}
+
+	/**
+	 * Return the array representation of this fingerprint, which contains the
+	 * sorted pairs of variable IDs and atom IDs.
+	 *
+	 * @return a copy of the array
+	 */
+	long[] toArray() {
+		return pairs.clone();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof AssignmentFingerprint)) {
+			return false;
+		}
+		AssignmentFingerprint other = (AssignmentFingerprint) obj;
+		return (hashCode == other.hashCode) && Arrays.equals(pairs, other.pairs);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+}
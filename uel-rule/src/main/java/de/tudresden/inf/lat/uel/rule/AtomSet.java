@@ -0,0 +1,223 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * A set of atoms that is represented by a bitset over their IDs in an atom
+ * manager. Membership tests, additions, and removals only need the ID that is
+ * stored in the atom, and operations on two sets over the same atom manager are
+ * performed word by word. Iteration returns the atoms in the order of their
+ * IDs. All atoms that are added to such a set have to be known to the atom
+ * manager.
+ */
+final class AtomSet extends AbstractSet<Atom> {
+
+	private static final long[] EMPTY = new long[0];
+
+	private final AtomManager atomManager;
+	private long[] words = EMPTY;
+	private int size = 0;
+
+	/**
+	 * Create an empty set.
+	 *
+	 * @param atomManager
+	 *            the atom manager that assigns IDs to the atoms
+	 */
+	AtomSet(AtomManager atomManager) {
+		this.atomManager = atomManager;
+	}
+
+	/**
+	 * Create a copy of another set.
+	 *
+	 * @param other
+	 *            the other set
+	 */
+	AtomSet(AtomSet other) {
+		this.atomManager = other.atomManager;
+		this.words = (other.size == 0) ? EMPTY : other.words.clone();
+		this.size = other.size;
+	}
+
+	private int indexOf(Object obj) {
+		if (!(obj instanceof Atom)) {
+			return -1;
+		}
+		int atomId = ((Atom) obj).getAtomId();
+		if (atomId >= 0) {
+			return atomId;
+		}
+		// an atom that was not created by the atom manager
+		Integer id = atomManager.getIndex((Atom) obj);
+		return (id == null) ? -1 : id;
+	}
+
+	private boolean sameManager(Collection<?> c) {
+		return (c instanceof AtomSet) && (((AtomSet) c).atomManager == atomManager);
+	}
+
+	@Override
+	public boolean contains(Object obj) {
+		return containsIndex(indexOf(obj));
+	}
+
+	private boolean containsIndex(int id) {
+		if (id < 0) {
+			return false;
+		}
+		int word = id >>> 6;
+		return (word < words.length) && ((words[word] & (1L << id)) != 0);
+	}
+
+	@Override
+	public boolean add(Atom at) {
+		int id = indexOf(at);
+		if (id < 0) {
+			throw new IllegalArgumentException("Unknown atom: " + at);
+		}
+		int word = id >>> 6;
+		if (word >= words.length) {
+			words = Arrays.copyOf(words, Math.max(word + 1, 2 * words.length));
+		}
+		long bit = 1L << id;
+		if ((words[word] & bit) != 0) {
+			return false;
+		}
+		words[word] |= bit;
+		size++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object obj) {
+		int id = indexOf(obj);
+		if (!containsIndex(id)) {
+			return false;
+		}
+		words[id >>> 6] &= ~(1L << id);
+		size--;
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Atom> c) {
+		if (!sameManager(c)) {
+			return super.addAll(c);
+		}
+		long[] other = ((AtomSet) c).words;
+		if (other.length > words.length) {
+			words = Arrays.copyOf(words, other.length);
+		}
+		int oldSize = size;
+		for (int i = 0; i < other.length; i++) {
+			size += Long.bitCount(other[i] & ~words[i]);
+			words[i] |= other[i];
+		}
+		return size != oldSize;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		if (!sameManager(c)) {
+			boolean ret = false;
+			for (Object obj : c) {
+				if (remove(obj)) {
+					ret = true;
+				}
+			}
+			return ret;
+		}
+		long[] other = ((AtomSet) c).words;
+		int oldSize = size;
+		for (int i = 0; i < Math.min(words.length, other.length); i++) {
+			size -= Long.bitCount(words[i] & other[i]);
+			words[i] &= ~other[i];
+		}
+		return size != oldSize;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (!sameManager(c)) {
+			return super.containsAll(c);
+		}
+		long[] other = ((AtomSet) c).words;
+		for (int i = 0; i < other.length; i++) {
+			long mine = (i < words.length) ? words[i] : 0L;
+			if ((other[i] & ~mine) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(words, 0L);
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<Atom> iterator() {
+		return new Iterator<Atom>() {
+			private int next = nextIndex(0);
+			private int last = -1;
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public Atom next() {
+				if (next < 0) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = nextIndex(next + 1);
+				return atomManager.getAtom(last);
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				words[last >>> 6] &= ~(1L << last);
+				size--;
+				last = -1;
+			}
+		};
+	}
+
+	private int nextIndex(int from) {
+		int word = from >>> 6;
+		if (word >= words.length) {
+			return -1;
+		}
+		long bits = words[word] & (-1L << from);
+		while (true) {
+			if (bits != 0) {
+				return (word << 6) + Long.numberOfTrailingZeros(bits);
+			}
+			if (++word == words.length) {
+				return -1;
+			}
+			bits = words[word];
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Definition;
+import de.tudresden.inf.lat.uel.type.api.Equation;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+import de.tudresden.inf.lat.uel.type.api.Subsumption;
+import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
+import de.tudresden.inf.lat.uel.type.impl.TypeIndex;
+
+/**
+ * A value ordering for the nondeterministic rules, which ranks the atoms that
+ * may be added to the assignment of a variable by the information in the
+ * background ontology. Candidates are compared by the following criteria, in
+ * this order:
+ *
+ * 1. compatibility with the type of the variable, i.e., whether the type of a
+ * concept name or the domain of the role of an existential restriction agrees
+ * with the type that is assigned to the variable by the goal;
+ *
+ * 2. the number of goal axioms with the variable on the left-hand side and the
+ * candidate on the right-hand side, which would be satisfied by the choice;
+ *
+ * 3. the number of definitions of concepts of the same type as the variable
+ * that contain the candidate, which includes the siblings that were extracted
+ * from the background ontology.
+ *
+ * Remaining ties are broken by the original order. The ranking only depends on
+ * the goal, and not on the current state of the search, so that the rules can
+ * refer to the candidates by their positions.
+ */
+final class CandidateRanking {
+
+	private static final int INCOMPATIBLE = 0;
+	private static final int UNKNOWN = 1;
+	private static final int COMPATIBLE = 2;
+	private static final int MAX_COUNT = (1 << 24) - 1;
+
+	private final Goal goal;
+	private final TypeIndex types;
+	private final AtomManager atomManager;
+	private final Map<Integer, Integer> typeAssignment;
+	// for each variable, how often each atom occurs together with it in a goal
+	// axiom
+	private final Map<Integer, Map<Integer, Integer>> satisfied = new HashMap<>();
+	// for each type (or 'null'), how often each atom occurs in the definitions
+	// of concepts of this type
+	private final Map<Integer, Map<Integer, Integer>> siblings = new HashMap<>();
+
+	/**
+	 * Precompute the ranking criteria for a goal.
+	 *
+	 * @param goal
+	 *            the goal
+	 */
+	CandidateRanking(Goal goal) {
+		this.goal = goal;
+		this.types = goal.getTypeIndex();
+		this.atomManager = goal.getAtomManager();
+		this.typeAssignment = goal.getTypeAssignment();
+		for (Subsumption sub : goal.getSubsumptions()) {
+			countSatisfied(sub.getLeft(), sub.getRight());
+		}
+		for (Equation eq : goal.getEquations()) {
+			countSatisfied(eq.getLeft(), eq.getRight());
+			countSatisfied(eq.getRight(), eq.getLeft());
+		}
+		for (Definition def : goal.getDefinitions()) {
+			countSatisfied(def.getLeft(), def.getRight());
+			Integer type = typeAssignment.get(def.getDefiniendum());
+			count(siblings, type, def.getDefiniens());
+			if (type != null) {
+				count(siblings, null, def.getDefiniens());
+			}
+		}
+	}
+
+	private void countSatisfied(Set<Integer> left, Set<Integer> right) {
+		for (Integer id : left) {
+			if (atomManager.getVariables().contains(id)) {
+				count(satisfied, id, right);
+			}
+		}
+	}
+
+	private static void count(Map<Integer, Map<Integer, Integer>> counts, Integer key, Set<Integer> atomIds) {
+		Map<Integer, Integer> map = counts.computeIfAbsent(key, k -> new HashMap<>());
+		for (Integer atomId : atomIds) {
+			map.merge(atomId, 1, Integer::sum);
+		}
+	}
+
+	private static int get(Map<Integer, Map<Integer, Integer>> counts, Integer key, Integer atomId) {
+		Map<Integer, Integer> map = counts.get(key);
+		if ((map == null) || (atomId == null)) {
+			return 0;
+		}
+		return map.getOrDefault(atomId, 0);
+	}
+
+	/**
+	 * Sort a list of candidate subsumers of a variable by decreasing rank.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param candidates
+	 *            the candidates, which are sorted in-place
+	 */
+	void sort(Atom var, List<Atom> candidates) {
+		Integer varId = atomManager.getIndex(var);
+		Map<Atom, Long> ranks = new HashMap<>();
+		candidates.sort(Collections.reverseOrder(
+				Comparator.comparing(at -> ranks.computeIfAbsent(at, a -> rank(varId, a)))));
+	}
+
+	/**
+	 * Order the positions of the variables in a list of atoms by the rank of a
+	 * common candidate subsumer.
+	 *
+	 * @param atoms
+	 *            the atoms
+	 * @param candidate
+	 *            the candidate subsumer
+	 * @return the positions of all atoms in the list, where the variables come
+	 *         first, ordered by decreasing rank of the candidate for them
+	 */
+	int[] order(List<Atom> atoms, Atom candidate) {
+		List<Integer> positions = new ArrayList<>(atoms.size());
+		List<Long> ranks = new ArrayList<>(atoms.size());
+		for (int i = 0; i < atoms.size(); i++) {
+			Atom at = atoms.get(i);
+			positions.add(i);
+			ranks.add(at.isVariable() ? rank(atomManager.getIndex(at), candidate) : -1L);
+		}
+		positions.sort(Collections.reverseOrder(Comparator.comparing(ranks::get)));
+		int[] order = new int[positions.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = positions.get(i);
+		}
+		return order;
+	}
+
+	/**
+	 * Combine the criteria for a candidate subsumer of a variable into a single
+	 * number, which compares lexicographically.
+	 */
+	private long rank(Integer varId, Atom candidate) {
+		Integer candidateId = atomManager.getIndex(candidate);
+		long rank = compatibility(varId, candidate);
+		rank = (rank << 24) + Math.min(get(satisfied, varId, candidateId), MAX_COUNT);
+		rank = (rank << 24) + Math.min(get(siblings, typeAssignment.get(varId), candidateId), MAX_COUNT);
+		return rank;
+	}
+
+	private int compatibility(Integer varId, Atom candidate) {
+		Integer type = typeAssignment.get(varId);
+		if (type == null) {
+			return UNKNOWN;
+		}
+		if (candidate.isExistentialRestriction()) {
+			Set<Integer> domain = goal.getDomains().get(((ExistentialRestriction) candidate).getRoleId());
+			if ((domain == null) || domain.isEmpty()) {
+				return UNKNOWN;
+			}
+			for (Integer domainType : domain) {
+				if (types.subtypeOrEquals(type, domainType)) {
+					return COMPATIBLE;
+				}
+			}
+			return INCOMPATIBLE;
+		}
+		Integer candidateId = atomManager.getIndex(candidate);
+		Integer candidateType = goal.getTypes().contains(candidateId) ? candidateId : typeAssignment.get(candidateId);
+		if (candidateType == null) {
+			return UNKNOWN;
+		}
+		return types.subtypeOrEquals(type, candidateType) ? COMPATIBLE : INCOMPATIBLE;
+	}
+
+}
@@ -0,0 +1,44 @@
+package de.tudresden.inf.lat.uel.rule;
+
+/**
+ * Describes how the rule-based algorithm chooses the next unsolved constraint
+ * to which a nondeterministic rule is applied.
+ */
+public enum ConstraintSelection {
+
+	/**
+	 * Choose the unsolved constraints in the order in which they were added to
+	 * the goal.
+	 */
+	ANY("any"),
+
+	/**
+	 * Choose an unsolved constraint with the fewest possible applications of
+	 * nondeterministic rules first. Constraints to which no rule is applicable
+	 * lead to a dead end immediately.
+	 */
+	FEWEST_APPLICATIONS("fewest applications"),
+
+	/**
+	 * Choose an unsolved constraint with the fewest non-ground atoms first.
+	 */
+	GROUND_FIRST("ground first"),
+
+	/**
+	 * Choose an unsolved constraint whose variables occur in the largest number
+	 * of other constraints first.
+	 */
+	VARIABLE_DEGREE("variable degree");
+
+	private final String description;
+
+	ConstraintSelection(String description) {
+		this.description = description;
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+
+}
@@ -0,0 +1,165 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+
+/**
+ * The dependency graph between the variables of an assignment, where there is
+ * an edge from X to Y iff an existential restriction with the filler Y is
+ * assigned to X. The transitive closure of this graph is maintained as a
+ * bitset matrix, so that it can be checked in constant time whether one
+ * variable depends on another one.
+ *
+ * Adding an edge updates the rows of all predecessors of its source. When the
+ * last edge between two variables is removed, only the rows of the
+ * predecessors of its source are recomputed from the direct successors. Like
+ * the assignment itself, the graph is assumed to be acyclic.
+ */
+final class DependencyGraph {
+
+	private final List<Map<Integer, Integer>> edges;
+	private final Map<Atom, Integer> index;
+	private final List<BitSet> reachable;
+
+	/**
+	 * Create an empty graph.
+	 */
+	DependencyGraph() {
+		this.edges = new ArrayList<>();
+		this.index = new HashMap<>();
+		this.reachable = new ArrayList<>();
+	}
+
+	/**
+	 * Create a copy of another graph.
+	 *
+	 * @param other
+	 *            the other graph
+	 */
+	DependencyGraph(DependencyGraph other) {
+		this.edges = new ArrayList<>(other.edges.size());
+		for (Map<Integer, Integer> successors : other.edges) {
+			this.edges.add(new HashMap<>(successors));
+		}
+		this.index = new HashMap<>(other.index);
+		this.reachable = new ArrayList<>(other.reachable.size());
+		for (BitSet row : other.reachable) {
+			this.reachable.add((BitSet) row.clone());
+		}
+	}
+
+	/**
+	 * Add an edge between two variables. Parallel edges are counted, so that
+	 * they can be removed independently.
+	 *
+	 * @param from
+	 *            the source variable
+	 * @param to
+	 *            the target variable
+	 */
+	void addEdge(Atom from, Atom to) {
+		int source = getOrCreateIndex(from);
+		int target = getOrCreateIndex(to);
+		if (edges.get(source).merge(target, 1, Integer::sum) > 1) {
+			return;
+		}
+
+		BitSet added = (BitSet) reachable.get(target).clone();
+		added.set(target);
+		for (BitSet row : reachable) {
+			if (row.get(source)) {
+				row.or(added);
+			}
+		}
+		reachable.get(source).or(added);
+	}
+
+	private int getOrCreateIndex(Atom var) {
+		Integer i = index.get(var);
+		if (i == null) {
+			i = edges.size();
+			index.put(var, i);
+			edges.add(new HashMap<>());
+			reachable.add(new BitSet());
+		}
+		return i;
+	}
+
+	private BitSet recompute(int node) {
+		BitSet row = reachable.get(node);
+		if (row == null) {
+			row = new BitSet();
+			// guard against cycles
+			reachable.set(node, row);
+			for (Integer successor : edges.get(node).keySet()) {
+				row.set(successor);
+				row.or(recompute(successor));
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * Remove an edge between two variables.
+	 *
+	 * @param from
+	 *            the source variable
+	 * @param to
+	 *            the target variable
+	 */
+	void removeEdge(Atom from, Atom to) {
+		Integer source = index.get(from);
+		Integer target = index.get(to);
+		if ((source == null) || (target == null)) {
+			return;
+		}
+		Map<Integer, Integer> successors = edges.get(source);
+		Integer multiplicity = successors.get(target);
+		if (multiplicity == null) {
+			return;
+		}
+		if (multiplicity > 1) {
+			successors.put(target, multiplicity - 1);
+			return;
+		}
+		successors.remove(target);
+
+		// only the predecessors of 'from' can be affected
+		List<Integer> affected = new ArrayList<>();
+		for (int node = 0; node < reachable.size(); node++) {
+			if ((node == source) || reachable.get(node).get(source)) {
+				affected.add(node);
+			}
+		}
+		for (Integer node : affected) {
+			reachable.set(node, null);
+		}
+		for (Integer node : affected) {
+			recompute(node);
+		}
+	}
+
+	/**
+	 * Checks whether one variable is reachable from another one.
+	 *
+	 * @param from
+	 *            the start variable
+	 * @param to
+	 *            the goal variable
+	 * @return true iff there is a non-empty path from 'from' to 'to'
+	 */
+	boolean reaches(Atom from, Atom to) {
+		Integer source = index.get(from);
+		Integer target = index.get(to);
+		if ((source == null) || (target == null)) {
+			return false;
+		}
+		return reachable.get(source).get(target);
+	}
+
+}
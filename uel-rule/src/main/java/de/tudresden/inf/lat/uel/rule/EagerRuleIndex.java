@@ -0,0 +1,62 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tudresden.inf.lat.uel.rule.rules.EagerRule;
+
+/**
+ * An index of the eager rules that can be applied to each subsumption or
+ * dissubsumption. Most eager rules only depend on the shape of a constraint,
+ * e.g., whether it is ground or whether its head is an existential restriction
+ * with the same role as a body atom. For these rules, applicability is checked
+ * only once per constraint, while the rules that depend on the current
+ * assignment are always candidates.
+ *
+ * The candidates are stored by the IDs of the interned constraints.
+ */
+final class EagerRuleIndex {
+
+	private final List<List<EagerRule>> candidates = new ArrayList<>();
+	private final List<EagerRule> rules;
+
+	/**
+	 * Create a new index for a list of eager rules.
+	 *
+	 * @param rules
+	 *            the eager rules, in the order in which they should be tried
+	 */
+	EagerRuleIndex(List<EagerRule> rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * Retrieve the rules that may be applicable to a constraint, in their
+	 * original order.
+	 *
+	 * @param con
+	 *            the subsumption or dissubsumption
+	 * @return the rules that have to be tried on the constraint
+	 */
+	List<EagerRule> getCandidates(FlatConstraint con) {
+		int id = con.getId();
+		if (id < 0) {
+			return rules;
+		}
+		while (candidates.size() <= id) {
+			candidates.add(null);
+		}
+		List<EagerRule> list = candidates.get(id);
+		if (list == null) {
+			list = new ArrayList<>();
+			for (EagerRule rule : rules) {
+				if (rule.dependsOnAssignment() || (rule.getFirstApplication(con, null) != null)) {
+					list.add(rule);
+				}
+			}
+			candidates.set(id, list);
+		}
+		return list;
+	}
+
+}
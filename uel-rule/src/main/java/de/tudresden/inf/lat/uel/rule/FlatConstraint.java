@@ -7,6 +7,10 @@ import de.tudresden.inf.lat.uel.type.api.Atom;
 /**
  * This is a class representing a subsumption or dissubsumption between a conjunction of flat
  * atoms (body) and a flat atom or a list of flat atoms (head).
+ *
+ * Constraints created by a {@link FlatConstraintFactory} are unique, i.e., two
+ * such constraints of the same factory are equal iff they are identical, and
+ * are identified by a dense integer ID.
  * 
  * @author Stefan Borgwardt
  */
@@ -18,6 +22,8 @@ public class FlatConstraint {
 	private final boolean isDissubsumption;
 	private boolean solved;
 	private final int hashCode;
+	private final FlatConstraintFactory factory;
+	private final int id;
 
 	/**
 	 * Construct a new subsumption from the given atoms.
@@ -44,7 +50,9 @@ public class FlatConstraint {
 			this.isDissubsumption = true;
 		}
 		this.solved = false;
-		this.hashCode = body.hashCode() * 31 + head.hashCode();
+		this.hashCode = computeHashCode();
+		this.factory = null;
+		this.id = -1;
 	}
 
 	/**
@@ -69,7 +77,9 @@ public class FlatConstraint {
 			throw new IllegalArgumentException("This is a subsumption.");
 		}
 		this.solved = false;
-		this.hashCode = body.hashCode() * 31 + head.hashCode();
+		this.hashCode = computeHashCode();
+		this.factory = null;
+		this.id = -1;
 	}
 
 	/**
@@ -97,7 +107,9 @@ public class FlatConstraint {
 			this.isDissubsumption = true;
 		}
 		this.solved = false;
-		this.hashCode = body.hashCode() * 31 + head.hashCode();
+		this.hashCode = computeHashCode();
+		this.factory = null;
+		this.id = -1;
 	}
 
 	/**
@@ -122,7 +134,42 @@ public class FlatConstraint {
 			throw new IllegalArgumentException("This is a subsumption.");
 		}
 		this.solved = false;
-		this.hashCode = body.hashCode() * 31 + head.hashCode();
+		this.hashCode = computeHashCode();
+		this.factory = null;
+		this.id = -1;
+	}
+
+	/**
+	 * Construct a new unique constraint. Only used by
+	 * {@link FlatConstraintFactory}.
+	 */
+	FlatConstraint(List<Atom> body, Atom head, List<Atom> dissubsumptionHead, boolean isDissubsumption,
+			FlatConstraintFactory factory, int id) {
+		this.body = body;
+		this.head = head;
+		this.dissubsumptionHead = dissubsumptionHead;
+		this.isDissubsumption = isDissubsumption;
+		this.solved = false;
+		this.hashCode = computeHashCode();
+		this.factory = factory;
+		this.id = id;
+	}
+
+	// independent of the order of the atoms in the body and head
+	private int computeHashCode() {
+		int bodyHash = 0;
+		for (Atom at : body) {
+			bodyHash += at.hashCode();
+		}
+		int headHash = 0;
+		if (isDissubsumption) {
+			for (Atom at : dissubsumptionHead) {
+				headHash += at.hashCode();
+			}
+		} else {
+			headHash = head.hashCode();
+		}
+		return bodyHash * 31 + headHash;
 	}
 
 	/**
@@ -158,6 +205,16 @@ public class FlatConstraint {
 		return dissubsumptionHead;
 	}
 
+	/**
+	 * Retrieve the ID of this constraint.
+	 *
+	 * @return the index of this constraint in the factory that created it, or
+	 *         -1 if it was not created by a factory
+	 */
+	public int getId() {
+		return id;
+	}
+
 	/**
 	 * Check whether this is a dissubsumption.
 	 *
@@ -226,7 +283,13 @@ public class FlatConstraint {
 			return false;
 
 		FlatConstraint other = (FlatConstraint) obj;
-
+		if ((factory != null) && (factory == other.factory)) {
+			// unique constraints
+			return false;
+		}
+		if (hashCode != other.hashCode) {
+			return false;
+		}
 
 		if (!body.containsAll(other.body))
 			return false;
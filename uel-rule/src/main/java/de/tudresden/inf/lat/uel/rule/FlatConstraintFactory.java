@@ -0,0 +1,184 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * This factory interns flat constraints: each distinct subsumption or
+ * dissubsumption is created only once and identified by a dense integer ID.
+ * Constraints are looked up by the sorted IDs of their body and head atoms, so
+ * the order and repetition of atoms is irrelevant.
+ */
+public final class FlatConstraintFactory {
+
+	private static final class Key {
+		private final int[] body;
+		private final int[] head;
+		private final boolean isDissubsumption;
+		private final int hashCode;
+
+		Key(int[] body, int[] head, boolean isDissubsumption) {
+			this.body = body;
+			this.head = head;
+			this.isDissubsumption = isDissubsumption;
+			this.hashCode = (Arrays.hashCode(body) * 31 + Arrays.hashCode(head)) * 2 + (isDissubsumption ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return (hashCode == other.hashCode) && (isDissubsumption == other.isDissubsumption)
+					&& Arrays.equals(body, other.body) && Arrays.equals(head, other.head);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	private final AtomManager atomManager;
+	private final Map<Key, FlatConstraint> constraints = new HashMap<>();
+	private final List<FlatConstraint> constraintsById = new ArrayList<>();
+
+	/**
+	 * Create a new factory.
+	 *
+	 * @param atomManager
+	 *            the atom manager that assigns IDs to the atoms of the
+	 *            constraints
+	 */
+	public FlatConstraintFactory(AtomManager atomManager) {
+		this.atomManager = atomManager;
+	}
+
+	/**
+	 * Retrieve the unique subsumption or dissubsumption with the given atoms.
+	 *
+	 * @param body
+	 *            the body of the constraint
+	 * @param head
+	 *            the head of the constraint
+	 * @param isDissubsumption
+	 *            a flag indicating whether the constraint is a dissubsumption
+	 * @return the unique constraint
+	 */
+	public FlatConstraint create(List<Atom> body, Atom head, boolean isDissubsumption) {
+		return intern(body, Collections.singletonList(head), isDissubsumption);
+	}
+
+	/**
+	 * Retrieve the unique dissubsumption with the given atoms.
+	 *
+	 * @param body
+	 *            the body of the dissubsumption
+	 * @param head
+	 *            the head of the dissubsumption
+	 * @param isDissubsumption
+	 *            must be 'true'
+	 * @return the unique dissubsumption
+	 */
+	public FlatConstraint create(List<Atom> body, List<Atom> head, boolean isDissubsumption) {
+		if (!isDissubsumption) {
+			throw new IllegalArgumentException("This is a subsumption.");
+		}
+		return intern(body, head, true);
+	}
+
+	/**
+	 * Retrieve the unique subsumption or dissubsumption with a single-atom
+	 * body.
+	 *
+	 * @param body
+	 *            the body of the constraint
+	 * @param head
+	 *            the head of the constraint
+	 * @param isDissubsumption
+	 *            a flag indicating whether the constraint is a dissubsumption
+	 * @return the unique constraint
+	 */
+	public FlatConstraint create(Atom body, Atom head, boolean isDissubsumption) {
+		return intern(Collections.singletonList(body), Collections.singletonList(head), isDissubsumption);
+	}
+
+	/**
+	 * Retrieve the unique dissubsumption with a single-atom body.
+	 *
+	 * @param body
+	 *            the body of the dissubsumption
+	 * @param head
+	 *            the head of the dissubsumption
+	 * @param isDissubsumption
+	 *            must be 'true'
+	 * @return the unique dissubsumption
+	 */
+	public FlatConstraint create(Atom body, List<Atom> head, boolean isDissubsumption) {
+		return create(Collections.singletonList(body), head, isDissubsumption);
+	}
+
+	/**
+	 * Retrieve a constraint by its ID.
+	 *
+	 * @param id
+	 *            the ID of the constraint
+	 * @return the constraint with the given ID
+	 */
+	public FlatConstraint getConstraint(int id) {
+		return constraintsById.get(id);
+	}
+
+	private FlatConstraint intern(List<Atom> body, List<Atom> head, boolean isDissubsumption) {
+		if ((body == null) || (head == null) || head.contains(null)) {
+			throw new IllegalArgumentException("Body and head cannot be null.");
+		}
+		Key key = new Key(toSortedIds(body), toSortedIds(head), isDissubsumption);
+		FlatConstraint con = constraints.get(key);
+		if (con == null) {
+			int id = constraintsById.size();
+			if (isDissubsumption) {
+				con = new FlatConstraint(body, null, head, true, this, id);
+			} else {
+				con = new FlatConstraint(body, head.get(0), null, false, this, id);
+			}
+			constraints.put(key, con);
+			constraintsById.add(con);
+		}
+		return con;
+	}
+
+	/**
+	 * Return the number of distinct constraints created by this factory.
+	 *
+	 * @return the number of constraints, which is also the next ID
+	 */
+	public int size() {
+		return constraintsById.size();
+	}
+
+	private int[] toSortedIds(List<Atom> atoms) {
+		int[] ids = new int[atoms.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = atomManager.getIndex(atoms.get(i));
+		}
+		Arrays.sort(ids);
+		// remove duplicates
+		int size = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if ((i == 0) || (ids[i] != ids[i - 1])) {
+				ids[size++] = ids[i];
+			}
+		}
+		return (size == ids.length) ? ids : Arrays.copyOf(ids, size);
+	}
+
+}
@@ -0,0 +1,186 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * Stores nogoods for the rule-based algorithm, i.e., states of the search that
+ * are known to have no unifier. A state consists of the (variable, atom) pairs
+ * of the current assignment and the constraints of the current goal. Since the
+ * rules only ever add assignments and constraints, every state that includes a
+ * nogood also has no unifier and can be pruned.
+ *
+ * Both parts of a state are represented by bitsets, using the IDs of the
+ * interned constraints and dense IDs for the assigned pairs. The constraints
+ * of the current state are tracked by the goal, while the assigned pairs are
+ * maintained incrementally while results are committed and rolled back.
+ */
+final class NogoodStore {
+
+	/**
+	 * A state of the search.
+	 */
+	static final class Nogood {
+		private final BitSet subsumers;
+		private final BitSet constraints;
+
+		Nogood(BitSet subsumers, BitSet constraints) {
+			this.subsumers = subsumers;
+			this.constraints = constraints;
+		}
+
+		boolean isIncludedIn(BitSet otherSubsumers, BitSet otherConstraints) {
+			return isSubset(subsumers, otherSubsumers) && isSubset(constraints, otherConstraints);
+		}
+	}
+
+	private static boolean isSubset(BitSet a, BitSet b) {
+		for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1)) {
+			if (!b.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final AtomManager atomManager;
+	private final int capacity;
+	private final BitSet currentConstraints;
+	private final BitSet currentSubsumers = new BitSet();
+	private final Deque<Nogood> nogoods = new ArrayDeque<>();
+	private final Map<Long, Integer> pairIds = new HashMap<>();
+
+	/**
+	 * Create an empty store.
+	 *
+	 * @param atomManager
+	 *            the atom manager that assigns IDs to the atoms
+	 * @param goal
+	 *            the goal whose constraints are part of the current state
+	 * @param capacity
+	 *            the maximal number of nogoods; if it is exceeded, the oldest
+	 *            nogoods are forgotten
+	 */
+	NogoodStore(AtomManager atomManager, NormalizedGoal goal, int capacity) {
+		this.atomManager = atomManager;
+		this.currentConstraints = goal.getConstraintIds();
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Add assigned subsumers to the current state.
+	 *
+	 * @param subsumers
+	 *            the new subsumers
+	 */
+	void addSubsumers(Assignment subsumers) {
+		update(subsumers, true);
+	}
+
+	/**
+	 * Find a stored nogood that is included in the current state.
+	 *
+	 * @return the nogood or 'null' if the current state is not known to fail
+	 */
+	Nogood findIncludedNogood() {
+		for (Nogood nogood : nogoods) {
+			if (nogood.isIncludedIn(currentSubsumers, currentConstraints)) {
+				return nogood;
+			}
+		}
+		return null;
+	}
+
+	private int getPairId(Atom var, Atom at) {
+		long key = ((long) atomManager.getIndex(var) << 32) | atomManager.getIndex(at);
+		Integer id = pairIds.get(key);
+		if (id == null) {
+			id = pairIds.size();
+			pairIds.put(key, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Check whether a result introduced part of a nogood.
+	 *
+	 * @param nogood
+	 *            the nogood
+	 * @param res
+	 *            the result
+	 * @return true iff one of the new subsumers or constraints of the result is
+	 *         part of the nogood
+	 */
+	boolean intersects(Nogood nogood, Result<?> res) {
+		Assignment newSubsumers = res.getNewSubsumers();
+		for (Atom var : newSubsumers.getKeys()) {
+			for (Atom at : newSubsumers.getSubsumers(var)) {
+				if (nogood.subsumers.get(getPairId(var, at))) {
+					return true;
+				}
+			}
+		}
+		for (FlatConstraint con : res.getNewSolvedConstraints()) {
+			if ((con.getId() >= 0) && nogood.constraints.get(con.getId())) {
+				return true;
+			}
+		}
+		for (FlatConstraint con : res.getNewUnsolvedConstraints()) {
+			if ((con.getId() >= 0) && nogood.constraints.get(con.getId())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Store the current state as a nogood. Stored nogoods that include the
+	 * current state are removed, and nothing is stored if the current state
+	 * already includes a nogood.
+	 *
+	 * @return true iff the current state was stored
+	 */
+	boolean learn() {
+		Iterator<Nogood> iter = nogoods.iterator();
+		while (iter.hasNext()) {
+			Nogood nogood = iter.next();
+			if (nogood.isIncludedIn(currentSubsumers, currentConstraints)) {
+				return false;
+			}
+			if (isSubset(currentSubsumers, nogood.subsumers) && isSubset(currentConstraints, nogood.constraints)) {
+				iter.remove();
+			}
+		}
+		if (nogoods.size() >= capacity) {
+			nogoods.removeFirst();
+		}
+		nogoods.addLast(new Nogood((BitSet) currentSubsumers.clone(), (BitSet) currentConstraints.clone()));
+		return true;
+	}
+
+	/**
+	 * Remove assigned subsumers from the current state.
+	 *
+	 * @param subsumers
+	 *            the removed subsumers
+	 */
+	void removeSubsumers(Assignment subsumers) {
+		update(subsumers, false);
+	}
+
+	private void update(Assignment subsumers, boolean value) {
+		for (Atom var : subsumers.getKeys()) {
+			for (Atom at : subsumers.getSubsumers(var)) {
+				currentSubsumers.set(getPairId(var, at), value);
+			}
+		}
+	}
+
+}
@@ -1,7 +1,9 @@
 package de.tudresden.inf.lat.uel.rule;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,54 +27,58 @@ import de.tudresden.inf.lat.uel.type.api.Dissubsumption;
  */
 class NormalizedGoal implements Set<FlatConstraint> {
 
-	private static void convert(Definition d, AtomManager atomManager, Set<FlatConstraint> flatConstraints) {
+	private static void convert(Definition d, AtomManager atomManager, FlatConstraintFactory factory,
+			Set<FlatConstraint> flatConstraints) {
 		Atom definiendum = atomManager.getAtom(d.getDefiniendum());
 		List<Atom> right = toAtoms(d.getRight(), atomManager);
 		for (Atom rightAtom : right) {
-			flatConstraints.add(new FlatConstraint(definiendum, rightAtom, false));
+			flatConstraints.add(factory.create(definiendum, rightAtom, false));
 		}
-		flatConstraints.add(new FlatConstraint(right, definiendum, false));
+		flatConstraints.add(factory.create(right, definiendum, false));
 	}
 
-	private static void convert(Equation e, AtomManager atomManager, Set<FlatConstraint> flatConstraints) {
+	private static void convert(Equation e, AtomManager atomManager, FlatConstraintFactory factory,
+			Set<FlatConstraint> flatConstraints) {
 		List<Atom> left = toAtoms(e.getLeft(), atomManager);
 		List<Atom> right = toAtoms(e.getRight(), atomManager);
 		for (Atom rightAtom : right) {
-			flatConstraints.add(new FlatConstraint(left, rightAtom, false));
+			flatConstraints.add(factory.create(left, rightAtom, false));
 		}
 		for (Atom leftAtom : left) {
-			flatConstraints.add(new FlatConstraint(right, leftAtom, false));
+			flatConstraints.add(factory.create(right, leftAtom, false));
 		}
 	}
 
-	private static void convert(Subsumption s, AtomManager atomManager, Set<FlatConstraint> flatSubsumptions) {
+	private static void convert(Subsumption s, AtomManager atomManager, FlatConstraintFactory factory,
+			Set<FlatConstraint> flatSubsumptions) {
 		List<Atom> left = toAtoms(s.getLeft(), atomManager);
 		List<Atom> right = toAtoms(s.getRight(), atomManager);
 		for (Atom rightAtom : right) {
-			flatSubsumptions.add(new FlatConstraint(left, rightAtom, false));
+			flatSubsumptions.add(factory.create(left, rightAtom, false));
 		}
 	}
 
-	private static void convert(Dissubsumption dis, AtomManager atomManager, Set<FlatConstraint> flatConstraints) {
+	private static void convert(Dissubsumption dis, AtomManager atomManager, FlatConstraintFactory factory,
+			Set<FlatConstraint> flatConstraints) {
 		List<Atom> left = toAtoms(dis.getLeft(), atomManager);
 		List<Atom> right = toAtoms(dis.getRight(), atomManager);
-		flatConstraints.add(new FlatConstraint(left, right, true));
+		flatConstraints.add(factory.create(left, right, true));
 
 	}
 
-	private static Set<FlatConstraint> convertInput(Goal input) {
+	private static Set<FlatConstraint> convertInput(Goal input, FlatConstraintFactory factory) {
 		Set<FlatConstraint> flatConstraints = new HashSet<>();
 		for (Definition d : input.getDefinitions()) {
-			convert(d, input.getAtomManager(), flatConstraints);
+			convert(d, input.getAtomManager(), factory, flatConstraints);
 		}
 		for (Subsumption s : input.getSubsumptions()) {
-			convert(s, input.getAtomManager(), flatConstraints);
+			convert(s, input.getAtomManager(), factory, flatConstraints);
 		}
 		for (Equation e : input.getEquations()) {
-			convert(e, input.getAtomManager(), flatConstraints);
+			convert(e, input.getAtomManager(), factory, flatConstraints);
 		}
 		for (Dissubsumption dis : input.getDissubsumptions()) {
-			convert(dis, input.getAtomManager(), flatConstraints);
+			convert(dis, input.getAtomManager(), factory, flatConstraints);
 		}
 		// TODO disequations are not supported yet
 		return flatConstraints;
@@ -86,10 +92,14 @@ class NormalizedGoal implements Set<FlatConstraint> {
 		return atoms;
 	}
 
+	private final BitSet constraintIds = new BitSet();
+	private long constraintHash = 0;
+	private final FlatConstraintFactory factory;
 	private Set<FlatConstraint> goal;
 	private int maxSize;
 	private Map<Atom, Set<FlatConstraint>> variableBodyIndex;
 	private Map<Atom, Set<FlatConstraint>> variableHeadIndex;
+	private Map<Atom, Map<Atom, Set<FlatConstraint>>> watchIndex;
 
 	/**
 	 * Construct a new goal from a set of equations given by a UelInput object.
@@ -98,10 +108,12 @@ class NormalizedGoal implements Set<FlatConstraint> {
 	 *            the input object
 	 */
 	NormalizedGoal(Goal input) {
-		goal = convertInput(input);
+		factory = new FlatConstraintFactory(input.getAtomManager());
+		goal = convertInput(input, factory);
 		maxSize = goal.size();
 		variableBodyIndex = new HashMap<>();
 		variableHeadIndex = new HashMap<>();
+		watchIndex = new HashMap<>();
 		for (FlatConstraint con : goal) {
 			addToIndex(con);
 		}
@@ -120,18 +132,24 @@ class NormalizedGoal implements Set<FlatConstraint> {
 
 	@Override
 	public boolean addAll(Collection<? extends FlatConstraint> c) {
-		if (!goal.addAll(c)) {
-			return false;
+		boolean changed = false;
+		for (FlatConstraint con : c) {
+			// only index the new constraints, since the hash is not idempotent
+			if (goal.add(con)) {
+				addToIndex(con);
+				changed = true;
+			}
 		}
 		if (goal.size() > maxSize)
 			maxSize = goal.size();
-		for (FlatConstraint con : c) {
-			addToIndex(con);
-		}
-		return true;
+		return changed;
 	}
 
 	private void addToIndex(FlatConstraint con) {
+		if (con.getId() >= 0) {
+			constraintIds.set(con.getId());
+			constraintHash ^= TranspositionTable.key(TranspositionTable.CONSTRAINT, con.getId());
+		}
 		for (Atom at : con.getBody()) {
 			if (at.isVariable()) {
 				getOrInitBodyIndex(at).add(con);
@@ -148,14 +166,18 @@ class NormalizedGoal implements Set<FlatConstraint> {
 			if (con.getHead().isVariable()) {
 				getOrInitHeadIndex(con.getHead()).add(con);
 			}
+			updateWatchIndex(con, true);
 		}
 	}
 
 	@Override
 	public void clear() {
 		goal.clear();
+		constraintIds.clear();
+		constraintHash = 0;
 		variableBodyIndex.clear();
 		variableHeadIndex.clear();
+		watchIndex.clear();
 	}
 
 	@Override
@@ -217,11 +239,11 @@ class NormalizedGoal implements Set<FlatConstraint> {
 		for (Atom at : subsumers) {
 			FlatConstraint newCon;
 			if (con.isDissubsumption()) {
-				newCon = new FlatConstraint(at, con.getDissubsumptionHead(), true);
+				newCon = factory.create(at, con.getDissubsumptionHead(), true);
 
 			}
 			else {
-				newCon = new FlatConstraint(con.getBody(), at, false);
+				newCon = factory.create(con.getBody(), at, false);
 				
 			}
 			if (add(newCon)) {
@@ -231,6 +253,35 @@ class NormalizedGoal implements Set<FlatConstraint> {
 		}
 	}
 
+	/**
+	 * Retrieve the IDs of the constraints in this goal. The returned bitset is
+	 * updated whenever the goal changes and must not be modified.
+	 *
+	 * @return a bitset containing the IDs of all constraints of the goal
+	 */
+	BitSet getConstraintIds() {
+		return constraintIds;
+	}
+
+	/**
+	 * Retrieve the Zobrist hash of the set of constraints in this goal, which
+	 * is updated whenever the goal changes.
+	 *
+	 * @return the exclusive or of the keys of all constraints of the goal
+	 */
+	long getConstraintHash() {
+		return constraintHash;
+	}
+
+	/**
+	 * Retrieve the factory that creates the constraints of this goal.
+	 *
+	 * @return the constraint factory
+	 */
+	FlatConstraintFactory getConstraintFactory() {
+		return factory;
+	}
+
 	/**
 	 * Retrieve the maximal number of subsumptions observed so far.
 	 * 
@@ -278,6 +329,29 @@ class NormalizedGoal implements Set<FlatConstraint> {
 		return getOrInitHeadIndex(var);
 	}
 
+	/**
+	 * Return all stored subsumptions to which a dynamic eager rule may become
+	 * applicable when the given atom is added to the subsumers of the given
+	 * variable. These are the subsumptions that have the variable in their
+	 * body and the atom as their head (Eager Solving), and the subsumptions
+	 * whose only body variable is the given one and that contain the atom in
+	 * their body (Eager Extension).
+	 * 
+	 * @param var
+	 *            the variable
+	 * @param at
+	 *            the new subsumer of the variable
+	 * @return the set of all subsumptions satisfying the condition
+	 */
+	Set<FlatConstraint> getConstraintsWatching(Atom var, Atom at) {
+		Map<Atom, Set<FlatConstraint>> watches = watchIndex.get(var);
+		if (watches == null) {
+			return Collections.emptySet();
+		}
+		Set<FlatConstraint> cons = watches.get(at);
+		return (cons == null) ? Collections.<FlatConstraint> emptySet() : cons;
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return goal.isEmpty();
@@ -299,18 +373,21 @@ class NormalizedGoal implements Set<FlatConstraint> {
 
 	@Override
 	public boolean removeAll(Collection<?> c) {
-		if (!goal.removeAll(c)) {
-			return false;
-		}
+		boolean changed = false;
 		for (Object o : c) {
-			if (o instanceof FlatConstraint) {
+			if (goal.remove(o)) {
 				removeFromIndex((FlatConstraint) o);
+				changed = true;
 			}
 		}
-		return true;
+		return changed;
 	}
 
 	private void removeFromIndex(FlatConstraint con) {
+		if (con.getId() >= 0) {
+			constraintIds.clear(con.getId());
+			constraintHash ^= TranspositionTable.key(TranspositionTable.CONSTRAINT, con.getId());
+		}
 		for (Atom at : con.getBody()) {
 			if (at.isVariable()) {
 				variableBodyIndex.get(at).remove(con);
@@ -327,6 +404,39 @@ class NormalizedGoal implements Set<FlatConstraint> {
 			if (con.getHead().isVariable()) {
 				variableHeadIndex.get(con.getHead()).remove(con);
 			}
+			updateWatchIndex(con, false);
+		}
+	}
+
+	private void updateWatch(Atom var, Atom at, FlatConstraint sub, boolean add) {
+		if (add) {
+			watchIndex.computeIfAbsent(var, v -> new HashMap<>()).computeIfAbsent(at, a -> new HashSet<>()).add(sub);
+		} else {
+			Map<Atom, Set<FlatConstraint>> watches = watchIndex.get(var);
+			if ((watches != null) && watches.containsKey(at)) {
+				watches.get(at).remove(sub);
+			}
+		}
+	}
+
+	private void updateWatchIndex(FlatConstraint sub, boolean add) {
+		Atom bodyVar = null;
+		boolean singleVariable = true;
+		for (Atom at : sub.getBody()) {
+			if (at.isVariable()) {
+				updateWatch(at, sub.getHead(), sub, add);
+				if ((bodyVar != null) && !bodyVar.equals(at)) {
+					singleVariable = false;
+				}
+				bodyVar = at;
+			}
+		}
+		if ((bodyVar != null) && singleVariable) {
+			for (Atom at : sub.getBody()) {
+				if (!at.isVariable()) {
+					updateWatch(bodyVar, at, sub, add);
+				}
+			}
 		}
 	}
 
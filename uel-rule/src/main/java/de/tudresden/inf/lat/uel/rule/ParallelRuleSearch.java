@@ -0,0 +1,228 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import de.tudresden.inf.lat.uel.type.impl.DefinitionSet;
+import de.tudresden.inf.lat.uel.type.impl.Unifier;
+
+/**
+ * Explores the search tree of the rule-based algorithm in parallel. The
+ * subtrees below the first levels of the tree are distributed over the worker
+ * threads of a work-stealing pool.
+ *
+ * Each task is identified by a prefix of branch indices, i.e., the indices of
+ * the successful rule applications that lead from the root of the search tree
+ * to the root of its subtree. A task works on its own copy of the normalized
+ * goal and the assignment, which it obtains by replaying its prefix from the
+ * initial goal. If the prefix is shorter than the fork depth, the task only
+ * counts the alternatives on the next level and forks one task for each of
+ * them; otherwise, it searches its whole subtree. The unifiers found by the
+ * tasks are collected in a queue, from which they are retrieved one by one.
+ *
+ * The queue has room for one unifier per worker thread. A task that finds a
+ * unifier while the queue is full waits until the next unifier is retrieved
+ * or the search is cancelled, so that the tasks do not explore the search
+ * tree far ahead of the unifiers that are actually requested.
+ */
+final class ParallelRuleSearch {
+
+	private class SubtreeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] prefix;
+
+		SubtreeTask(int[] prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				search();
+			} catch (RuntimeException | Error e) {
+				failure = e;
+			} finally {
+				if (prefix.length == 0) {
+					// all other tasks are descendants of the root task
+					try {
+						put(END);
+					} catch (InterruptedException e) {
+						// the search was cancelled
+					}
+				}
+			}
+		}
+
+		private void search() {
+			if (cancelled) {
+				return;
+			}
+			RuleBasedUnificationAlgorithm worker = algorithm.createWorker(prefix, forkDepth);
+			try {
+				while (!cancelled && worker.computeNextUnifier()) {
+					put(worker.getUnifier());
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (cancelled) {
+				return;
+			}
+			worker.reportStatistics(ParallelRuleSearch.this);
+
+			int alternatives = worker.getForkedAlternatives();
+			if (alternatives > 0) {
+				List<SubtreeTask> children = new ArrayList<>(alternatives);
+				for (int i = 0; i < alternatives; i++) {
+					int[] childPrefix = Arrays.copyOf(prefix, prefix.length + 1);
+					childPrefix[prefix.length] = i;
+					children.add(new SubtreeTask(childPrefix));
+				}
+				invokeAll(children);
+			}
+		}
+	}
+
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+	private static final Unifier END = new Unifier(new DefinitionSet(0));
+
+	private final RuleBasedUnificationAlgorithm algorithm;
+	private volatile boolean cancelled = false;
+	private int deadEnds = 0;
+	private volatile Throwable failure = null;
+	private final int forkDepth;
+	private boolean finished = false;
+	private int learnedNogoods = 0;
+	private int maxConstraints = 0;
+	private final ForkJoinPool pool;
+	private int prunedBranches = 0;
+	private int treeSize = 1;
+	private final BlockingQueue<Unifier> unifiers;
+
+	/**
+	 * Start the parallel search.
+	 *
+	 * @param algorithm
+	 *            the algorithm that creates the workers for the tasks
+	 * @param parallelism
+	 *            the number of worker threads
+	 * @param forkDepth
+	 *            the depth of the search tree up to which subtrees are forked
+	 *            into separate tasks
+	 */
+	ParallelRuleSearch(RuleBasedUnificationAlgorithm algorithm, int parallelism, int forkDepth) {
+		this.algorithm = algorithm;
+		this.forkDepth = forkDepth;
+		this.unifiers = new ArrayBlockingQueue<>(parallelism);
+		this.pool = new ForkJoinPool(parallelism);
+		pool.execute(new SubtreeTask(new int[0]));
+	}
+
+	/**
+	 * Put a unifier into the queue, waiting while the queue is full. The pool
+	 * does not start spare threads for waiting tasks, since they would only
+	 * wait for the queue as well.
+	 *
+	 * @param unifier
+	 *            the unifier
+	 * @throws InterruptedException
+	 *             if the current thread was interrupted while waiting
+	 */
+	private void put(Unifier unifier) throws InterruptedException {
+		while (!cancelled) {
+			// check regularly whether the search was cancelled
+			if (unifiers.offer(unifier, CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stop all running tasks.
+	 */
+	void cancel() {
+		cancelled = true;
+		pool.shutdownNow();
+	}
+
+	synchronized int getDeadEnds() {
+		return deadEnds;
+	}
+
+	synchronized int getLearnedNogoods() {
+		return learnedNogoods;
+	}
+
+	synchronized int getMaxConstraints() {
+		return maxConstraints;
+	}
+
+	synchronized int getPrunedBranches() {
+		return prunedBranches;
+	}
+
+	synchronized int getTreeSize() {
+		return treeSize;
+	}
+
+	/**
+	 * Wait for the next unifier found by one of the tasks.
+	 *
+	 * @return the next unifier, or 'null' if all tasks are finished and all
+	 *         unifiers have been retrieved
+	 * @throws InterruptedException
+	 *             if the current thread was interrupted while waiting
+	 */
+	Unifier nextUnifier() throws InterruptedException {
+		if (finished) {
+			return null;
+		}
+		Unifier unifier = unifiers.take();
+		if (unifier == END) {
+			finished = true;
+			pool.shutdown();
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			return null;
+		}
+		return unifier;
+	}
+
+	/**
+	 * Add the statistics of a finished task to the overall statistics of the
+	 * search.
+	 *
+	 * @param taskTreeSize
+	 *            the number of nodes of the search tree that were created by
+	 *            the task
+	 * @param taskDeadEnds
+	 *            the number of dead ends encountered by the task
+	 * @param taskLearnedNogoods
+	 *            the number of nogoods learned by the task
+	 * @param taskPrunedBranches
+	 *            the number of branches pruned by the task
+	 * @param taskMaxConstraints
+	 *            the maximal size of the goal of the task
+	 */
+	synchronized void recordStatistics(int taskTreeSize, int taskDeadEnds, int taskLearnedNogoods,
+			int taskPrunedBranches, int taskMaxConstraints) {
+		treeSize += taskTreeSize;
+		deadEnds += taskDeadEnds;
+		learnedNogoods += taskLearnedNogoods;
+		prunedBranches += taskPrunedBranches;
+		maxConstraints = Math.max(maxConstraints, taskMaxConstraints);
+	}
+
+}
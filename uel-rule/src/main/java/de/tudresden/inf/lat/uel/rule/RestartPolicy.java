@@ -0,0 +1,155 @@
+package de.tudresden.inf.lat.uel.rule;
+
+/**
+ * Describes when the rule-based algorithm abandons the current search and
+ * restarts from the initial state. The number of dead ends that are allowed
+ * before each restart grows according to a Luby or a geometric sequence, so
+ * that the search remains complete. Whenever restarts are enabled, the order
+ * of the unsolved constraints and of the candidate subsumers of the
+ * nondeterministic rules is randomized, using the given seed to keep the
+ * search reproducible.
+ */
+public final class RestartPolicy {
+
+	private enum Kind {
+		NONE("none"), LUBY("luby"), GEOMETRIC("geometric");
+
+		private final String description;
+
+		Kind(String description) {
+			this.description = description;
+		}
+	}
+
+	/**
+	 * The default number of dead ends before the first restart.
+	 */
+	public static final int DEFAULT_UNIT = 100;
+
+	/**
+	 * The default growth factor of the geometric sequence.
+	 */
+	public static final double DEFAULT_FACTOR = 1.5;
+
+	/**
+	 * Never restart the search.
+	 */
+	public static final RestartPolicy NONE = new RestartPolicy(Kind.NONE, 0, 1.0, 0);
+
+	/**
+	 * Restart the search after 'unit * luby(i)' dead ends, where 'luby' is the
+	 * sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, ...
+	 *
+	 * @param unit
+	 *            the number of dead ends before the first restart
+	 * @param seed
+	 *            the seed for the random tie-breaking
+	 * @return the restart policy
+	 */
+	public static RestartPolicy luby(int unit, long seed) {
+		return new RestartPolicy(Kind.LUBY, unit, 1.0, seed);
+	}
+
+	/**
+	 * Restart the search after 'unit * factor^i' dead ends.
+	 *
+	 * @param unit
+	 *            the number of dead ends before the first restart
+	 * @param factor
+	 *            the growth factor, which has to be greater than 1
+	 * @param seed
+	 *            the seed for the random tie-breaking
+	 * @return the restart policy
+	 */
+	public static RestartPolicy geometric(int unit, double factor, long seed) {
+		if (factor <= 1.0) {
+			throw new IllegalArgumentException("The growth factor of a geometric sequence must be greater than 1.");
+		}
+		return new RestartPolicy(Kind.GEOMETRIC, unit, factor, seed);
+	}
+
+	/**
+	 * Compute the i-th element of the Luby sequence.
+	 *
+	 * @param i
+	 *            the index, starting from 0
+	 * @return the element of the sequence, which is a power of 2
+	 */
+	static long luby(int i) {
+		// find the finite subsequence that contains index 'i', and its size
+		int size = 1;
+		int exponent = 0;
+		while (size < i + 1) {
+			exponent++;
+			size = 2 * size + 1;
+		}
+		while (size - 1 != i) {
+			size = (size - 1) >> 1;
+			exponent--;
+			i = i % size;
+		}
+		return 1L << exponent;
+	}
+
+	private final double factor;
+	private final Kind kind;
+	private final long seed;
+	private final int unit;
+
+	private RestartPolicy(Kind kind, int unit, double factor, long seed) {
+		if ((kind != Kind.NONE) && (unit < 1)) {
+			throw new IllegalArgumentException("The number of dead ends before a restart must be positive.");
+		}
+		this.kind = kind;
+		this.unit = unit;
+		this.factor = factor;
+		this.seed = seed;
+	}
+
+	/**
+	 * Check whether the search is restarted at all.
+	 *
+	 * @return true iff this is not 'NONE'
+	 */
+	public boolean isEnabled() {
+		return kind != Kind.NONE;
+	}
+
+	/**
+	 * Return the number of dead ends after which the search is restarted.
+	 *
+	 * @param restarts
+	 *            the number of previous restarts
+	 * @return the maximal number of dead ends between the previous and the
+	 *         next restart
+	 */
+	public long getLimit(int restarts) {
+		switch (kind) {
+		case LUBY:
+			return unit * luby(restarts);
+		case GEOMETRIC:
+			return (long) Math.min(Long.MAX_VALUE, unit * Math.pow(factor, restarts));
+		default:
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Return the seed for the random tie-breaking.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public String toString() {
+		if (kind == Kind.NONE) {
+			return kind.description;
+		}
+		return kind.description + " (unit " + unit + ((kind == Kind.GEOMETRIC) ? (", factor " + factor) : "")
+				+ ", seed " + seed + ")";
+	}
+
+}
@@ -11,20 +11,23 @@ import de.tudresden.inf.lat.uel.rule.rules.Rule.Application;
  * rule-based unification algorithm for EL to a constraint. In particular, they
  * specify newly created constraints and new assignments.
  * 
+ * Most rule applications fail or do not change anything, and therefore the
+ * sets of constraints and the new assignment are only allocated when they are
+ * first requested.
+ * 
  * @author Stefan Borgwardt
  */
 public final class Result<T> {
 
 	private final T trigger;
 	private final Application application;
-	/*private final Set<FlatConstraint> newUnsolvedConstraints = new HashSet<>();
-	private final Set<FlatConstraint> newSolvedConstraints = new HashSet<>();
-	private final Set<FlatConstraint> solvedConstraints = new HashSet<>();*/
-	private final Set<FlatConstraint> newUnsolvedConstraints = new HashSet<>();
-	private final Set<FlatConstraint> newSolvedConstraints = new HashSet<>();
-	private final Set<FlatConstraint> solvedConstraints = new HashSet<>();
-	private final Assignment newSubsumers = new Assignment();
+	private Set<FlatConstraint> newUnsolvedConstraints = null;
+	private Set<FlatConstraint> newSolvedConstraints = null;
+	private Set<FlatConstraint> solvedConstraints = null;
+	private Assignment newSubsumers = null;
 	private boolean successful;
+	private int typeMark = -1;
+	private int attempt = -1;
 
 	/**
 	 * Construct a new rule application result.
@@ -67,22 +70,50 @@ public final class Result<T> {
 			solveConstraint((FlatConstraint) res.trigger);
 		}
 
-		newUnsolvedConstraints.addAll(res.newUnsolvedConstraints);
-		newSolvedConstraints.addAll(res.newSolvedConstraints);
+		if (res.newUnsolvedConstraints != null) {
+			getNewUnsolvedConstraints().addAll(res.newUnsolvedConstraints);
+		}
+		if (res.newSolvedConstraints != null) {
+			getNewSolvedConstraints().addAll(res.newSolvedConstraints);
+		}
 
 		// Iterate through solved constraints and cast explicitly
-		for (FlatConstraint sub : res.solvedConstraints) {
-			solveConstraint(sub);
+		if (res.solvedConstraints != null) {
+			for (FlatConstraint sub : res.solvedConstraints) {
+				solveConstraint(sub);
+			}
 		}
 
-		newSubsumers.addAll(res.newSubsumers);
+		if (res.newSubsumers != null) {
+			getNewSubsumers().addAll(res.newSubsumers);
+		}
+	}
+
+	/**
+	 * Adds the new constraints and assignments of the given result to this
+	 * instance, without solving the constraints of the given result.
+	 * 
+	 * @param res
+	 *            the result whose changes are to be added to the current
+	 *            result
+	 */
+	void addChanges(Result<?> res) {
+		if (res.solvedConstraints != null) {
+			getSolvedConstraints().addAll(res.solvedConstraints);
+		}
+		if (res.newUnsolvedConstraints != null) {
+			getNewUnsolvedConstraints().addAll(res.newUnsolvedConstraints);
+		}
+		if (res.newSubsumers != null) {
+			getNewSubsumers().addAll(res.newSubsumers);
+		}
 	}
 
 	private void solveConstraint(FlatConstraint sub) {
-		if (newUnsolvedConstraints.remove(sub)) {
-			newSolvedConstraints.add(sub);
+		if ((newUnsolvedConstraints != null) && newUnsolvedConstraints.remove(sub)) {
+			getNewSolvedConstraints().add(sub);
 		} else {
-			solvedConstraints.add(sub);
+			getSolvedConstraints().add(sub);
 		}
 
 	}
@@ -131,6 +162,50 @@ public final class Result<T> {
 		successful = value;
 	}
 
+	/**
+	 * Return the position of the trail of type changes before the rule
+	 * application.
+	 *
+	 * @return an identifier of the types of the variables that have to be
+	 *         restored when this result is rolled back, or -1 if the types do
+	 *         not have to be restored
+	 */
+	int getTypeMark() {
+		return typeMark;
+	}
+
+	/**
+	 * Set the position of the trail of type changes before the rule
+	 * application.
+	 *
+	 * @param mark
+	 *            an identifier of the types of the variables
+	 */
+	void setTypeMark(int mark) {
+		typeMark = mark;
+	}
+
+	/**
+	 * Return the position of the rule application among all applications of
+	 * the nondeterministic rules to the same constraint in the same state.
+	 *
+	 * @return the position of the rule application, or -1 if it is unknown
+	 */
+	int getAttempt() {
+		return attempt;
+	}
+
+	/**
+	 * Set the position of the rule application among all applications of the
+	 * nondeterministic rules to the same constraint in the same state.
+	 *
+	 * @param attempt
+	 *            the position, starting from 0
+	 */
+	void setAttempt(int attempt) {
+		this.attempt = attempt;
+	}
+
 	/**
 	 * Retrieve the new assignments that resulted from the rule application or
 	 * subsequent applications of eager rules.
@@ -139,9 +214,32 @@ public final class Result<T> {
 	 *         variables
 	 */
 	public Assignment getNewSubsumers() {
+		if (newSubsumers == null) {
+			newSubsumers = new Assignment();
+		}
 		return newSubsumers;
 	}
 
+	/**
+	 * Check whether the rule application or subsequent applications of eager
+	 * rules resulted in new assignments, without allocating them.
+	 * 
+	 * @return true iff there are new non-variable atoms assigned to variables
+	 */
+	boolean hasNewSubsumers() {
+		return (newSubsumers != null) && !newSubsumers.isEmpty();
+	}
+
+	/**
+	 * Check whether the rule application or subsequent applications of eager
+	 * rules resulted in new unsolved constraints, without allocating them.
+	 * 
+	 * @return true iff there are new unsolved constraints
+	 */
+	boolean hasNewUnsolvedConstraints() {
+		return (newUnsolvedConstraints != null) && !newUnsolvedConstraints.isEmpty();
+	}
+
 	/**
 	 * Retrieve the new unsolved constraints that resulted from the rule
 	 * application or subsequent applications of eager rules.
@@ -149,6 +247,9 @@ public final class Result<T> {
 	 * @return a set of new unsolved constraints
 	 */
 	public Set<FlatConstraint> getNewUnsolvedConstraints() {
+		if (newUnsolvedConstraints == null) {
+			newUnsolvedConstraints = new HashSet<>();
+		}
 		return newUnsolvedConstraints;
 	}
 
@@ -159,6 +260,9 @@ public final class Result<T> {
 	 * @return a set of new unsolved constraints
 	 */
 	public Set<FlatConstraint> getNewSolvedConstraints() {
+		if (newSolvedConstraints == null) {
+			newSolvedConstraints = new HashSet<>();
+		}
 		return newSolvedConstraints;
 	}
 
@@ -169,9 +273,16 @@ public final class Result<T> {
 	 * @return a set of solved constraints
 	 */
 	Set<FlatConstraint> getSolvedConstraints() {
+		if (solvedConstraints == null) {
+			solvedConstraints = new HashSet<>();
+		}
 		return solvedConstraints;
 	}
 
+	private static Set<FlatConstraint> orEmpty(Set<FlatConstraint> set) {
+		return (set == null) ? Collections.<FlatConstraint> emptySet() : set;
+	}
+
 	@Override
 	public String toString() {
 		StringBuffer buf = new StringBuffer();
@@ -182,13 +293,13 @@ public final class Result<T> {
 		buf.append(",");
 		buf.append(successful);
 		buf.append(",");
-		buf.append(newUnsolvedConstraints);
+		buf.append(orEmpty(newUnsolvedConstraints));
 		buf.append(",");
-		buf.append(newSolvedConstraints);
+		buf.append(orEmpty(newSolvedConstraints));
 		buf.append(",");
-		buf.append(solvedConstraints);
+		buf.append(orEmpty(solvedConstraints));
 		buf.append(",");
-		buf.append(newSubsumers);
+		buf.append((newSubsumers == null) ? new Assignment() : newSubsumers);
 		buf.append("}");
 		return buf.toString();
 	}
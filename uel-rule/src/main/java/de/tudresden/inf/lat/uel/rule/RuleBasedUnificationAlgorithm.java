@@ -1,7 +1,10 @@
 package de.tudresden.inf.lat.uel.rule;
 
-import java.rmi.UnexpectedException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 // import com.sun.org.apache.xpath.internal.operations.Variable;
 import de.tudresden.inf.lat.uel.rule.rules.*;
@@ -33,25 +36,100 @@ import de.tudresden.inf.lat.uel.type.impl.Unifier;
 public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm {
 
 	private static final String keyName = "Name";
+	private static final String keyConstraintSelection = "Constraint selection";
+	private static final String keyParallelism = "Number of threads";
 	private static final String keyInitialCons = "Initial number of constraints";
 	private static final String keyMaxCons = "Max. number of constraints (so far)";
 	private static final String keyTreeSize = "Size of the search tree (so far)";
 	private static final String keyDeadEnds = "Number of encountered dead ends (so far)";
+	private static final String keyLearnedNogoods = "Number of learned nogoods (so far)";
+	private static final String keyPrunedBranches = "Number of pruned branches (so far)";
+	private static final String keyRestartPolicy = "Restart policy";
+	private static final String keyRestarts = "Number of restarts (so far)";
+	private static final String keyDuplicates = "Number of suppressed duplicates (so far)";
+	private static final String keyCandidateRanking = "Candidate ranking";
+	private static final String keyCheckpointFile = "Checkpoint file";
 	private static final String keyNumberOfVariables = "Number of variables";
 	private static final String algorithmName = "Rule-based algorithm";
+	private static final int NO_CHECKPOINT = -1;
+	private static final int NO_BACKJUMP = Integer.MAX_VALUE;
+	private static final int NOGOOD_CAPACITY = 1000;
+	private static final int TRANSPOSITION_CAPACITY = 1 << 16;
+	private static final int PARALLEL_FORK_DEPTH = 3;
 
 	private List<EagerRule> staticEagerRules;
 	private List<EagerRule> dynamicEagerRules;
+	private EagerRuleIndex staticRuleIndex;
+	private EagerRuleIndex dynamicRuleIndex;
 	private List<Rule> nondeterministicRules;
 
 	private NormalizedGoal normalizedGoal;
+	private final ConstraintSelection constraintSelection;
+	private final int parallelism;
+	private UnsolvedConstraintQueue unsolvedConstraints;
 	private Assignment assignment;
 	private List<Atom> nonVariableAtoms;
 	//private final int initialSize;
 	private int treeSize = 1;
 	private int deadEnds = 0;
+	private int learnedNogoods = 0;
+	private int prunedBranches = 0;
+	private int unifiersFound = 0;
+	// including the unifiers that were suppressed as duplicates
+	private int solutionsFound = 0;
+	private int backjumpLevel = NO_BACKJUMP;
+	private boolean decisionOnly = false;
+	// the unifier found by 'isUnifiable', to be returned by the next call of
+	// 'computeNextUnifier'
+	private boolean pendingUnifier = false;
 
 	private Deque<Result> searchStack = null;
+	// the number of solutions found before each result was pushed on the stack
+	private Deque<Integer> unifierCounts = null;
+	// the fingerprints of the unifiers found so far, restricted to the
+	// variables on which the user variables depend; shared by the workers of
+	// the parallel search, and empty if duplicates are not suppressed
+	private Set<AssignmentFingerprint> foundUnifiers = null;
+	private boolean duplicateSuppression = true;
+	// 'null' if the goal contains type information or the pruning is disabled
+	private NogoodStore nogoods = null;
+	private TranspositionTable transpositions = null;
+	private boolean nogoodLearning = true;
+	private boolean transpositionTable = true;
+
+	// parallel search: the master delegates the search to workers, each of
+	// which follows a prefix of branch indices and then either searches the
+	// subtree below or counts the alternatives to be forked
+	private ParallelRuleSearch parallelSearch = null;
+	private Unifier parallelUnifier = null;
+	private int[] branchPrefix = new int[0];
+	private int forkDepth = 0;
+	private int forkedAlternatives = 0;
+
+	// restarts: the search is abandoned after a number of dead ends
+	private RestartPolicy restartPolicy = RestartPolicy.NONE;
+	private Random random = null;
+	private int restarts = 0;
+	private long deadEndsSinceRestart = 0;
+
+	// 'null' if the candidate subsumers are tried in the order of the atoms
+	private CandidateRanking candidateRanking = null;
+
+	private SearchTrace trace = SearchTrace.DISABLED;
+	// 'null' if the search is not profiled
+	private SearchProfile profile = null;
+
+	// 'null' if no checkpoints are written
+	private File checkpointFile = null;
+	private long checkpointInterval = 0;
+	private long nextCheckpoint = 0;
+	// the checkpoint from which the search is resumed, until it is replayed
+	private SearchCheckpoint resumeCheckpoint = null;
+	// 'null' until the signature of the goal is needed
+	private Long signature = null;
+	private boolean exhausted = false;
+	// the position of the rule application that is replayed, or -1
+	private int replayAttempt = -1;
 
 	/**
 	 * Initialize a new disunification problem with goal subsumptions and dissubsumptions.
@@ -61,6 +139,39 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 	 *            solved
 	 */
 	public RuleBasedUnificationAlgorithm(Goal goal) {
+		this(goal, ConstraintSelection.ANY);
+	}
+
+	/**
+	 * Initialize a new disunification problem with goal subsumptions and
+	 * dissubsumptions.
+	 *
+	 * @param goal
+	 *            a UelInput object that will return the subsumptions and
+	 *            dissubsumptions to be solved
+	 * @param constraintSelection
+	 *            the heuristic for choosing the next unsolved constraint
+	 */
+	public RuleBasedUnificationAlgorithm(Goal goal, ConstraintSelection constraintSelection) {
+		this(goal, constraintSelection, 1);
+	}
+
+	/**
+	 * Initialize a new disunification problem with goal subsumptions and
+	 * dissubsumptions.
+	 *
+	 * @param goal
+	 *            a UelInput object that will return the subsumptions and
+	 *            dissubsumptions to be solved
+	 * @param constraintSelection
+	 *            the heuristic for choosing the next unsolved constraint
+	 * @param parallelism
+	 *            the number of threads used for the search; if it is greater
+	 *            than 1 and the goal contains no type information, the
+	 *            subtrees of the search tree are explored in parallel and the
+	 *            order of the unifiers is not deterministic
+	 */
+	public RuleBasedUnificationAlgorithm(Goal goal, ConstraintSelection constraintSelection, int parallelism) {
 		super(goal);
 //		if (!goal.getTypes().isEmpty()) {
 //			throw new UnsupportedOperationException("The rule-based algorithm cannot deal with type information!");
@@ -68,7 +179,11 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 		this.normalizedGoal = null;
 		//this.nonVariableAtoms = goal.getAtomManager().getNonvariableAtoms();
 		this.assignment = new Assignment(goal);
+		this.constraintSelection = constraintSelection;
+		this.parallelism = hasTypeInformation() ? 1 : Math.max(1, parallelism);
 		addInfo(keyName, algorithmName);
+		addInfo(keyConstraintSelection, constraintSelection);
+		addInfo(keyParallelism, this.parallelism);
 		addInfo(keyNumberOfVariables, goal.getAtomManager().getVariables().size());
 		initRules();
 	}
@@ -77,13 +192,369 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 	public void cleanup() {
 		// reset computation of results
 		searchStack = null;
+		nogoods = null;
+		transpositions = null;
+		if (parallelSearch != null) {
+			parallelSearch.cancel();
+			parallelSearch = null;
+		}
+	}
+
+	/**
+	 * Create a worker for the parallel search that uses its own copy of the
+	 * goal and the assignment.
+	 *
+	 * @param prefix
+	 *            the indices of the successful rule applications that lead to
+	 *            the root of the subtree of the worker
+	 * @param depth
+	 *            the fork depth; if the prefix is shorter, the worker only
+	 *            counts the alternatives below the root of its subtree
+	 * @return the new worker
+	 */
+	RuleBasedUnificationAlgorithm createWorker(int[] prefix, int depth) {
+		RuleBasedUnificationAlgorithm worker = new RuleBasedUnificationAlgorithm(goal, constraintSelection);
+		worker.branchPrefix = prefix;
+		worker.forkDepth = depth;
+		worker.foundUnifiers = foundUnifiers;
+		worker.candidateRanking = candidateRanking;
+		worker.nogoodLearning = nogoodLearning;
+		worker.transpositionTable = transpositionTable;
+		worker.duplicateSuppression = duplicateSuppression;
+		return worker;
+	}
+
+	/**
+	 * Return the number of alternatives that a worker has counted at the end
+	 * of its prefix.
+	 *
+	 * @return the number of subtrees that have to be searched by new tasks
+	 */
+	int getForkedAlternatives() {
+		return forkedAlternatives;
+	}
+
+	/**
+	 * Set the policy for restarting the search. Restarts are only used if the
+	 * search is not parallel, and the policy has to be set before the first
+	 * unifier is computed.
+	 *
+	 * @param restartPolicy
+	 *            the restart policy
+	 */
+	public void setRestartPolicy(RestartPolicy restartPolicy) {
+		if (searchStack != null) {
+			throw new IllegalStateException("The restart policy cannot be changed during the search.");
+		}
+		this.restartPolicy = restartPolicy;
+		if (restartPolicy.isEnabled()) {
+			addInfo(keyRestartPolicy, restartPolicy);
+		}
+	}
+
+	/**
+	 * Enable or disable the ranking of the candidate subsumers of the
+	 * variables by the information in the background ontology (see
+	 * 'CandidateRanking'). This determines the order in which the
+	 * nondeterministic rules try to extend the assignment, and has to be set
+	 * before the first unifier is computed.
+	 *
+	 * @param enabled
+	 *            'true' to rank the candidates, 'false' to try them in the
+	 *            order of the atoms
+	 */
+	public void setCandidateRanking(boolean enabled) {
+		if (searchStack != null) {
+			throw new IllegalStateException("The candidate ranking cannot be changed during the search.");
+		}
+		candidateRanking = enabled ? new CandidateRanking(goal) : null;
+		addInfo(keyCandidateRanking, enabled);
+	}
+
+	/**
+	 * Enable or disable learning nogoods from failed subtrees of the search,
+	 * and the backjumps and pruning based on them. Nogoods are only learned
+	 * if the goal contains no type information. This has to be set before the
+	 * first unifier is computed.
+	 *
+	 * @param enabled
+	 *            'true' to learn nogoods (the default), 'false' to backtrack
+	 *            chronologically
+	 */
+	public void setNogoodLearning(boolean enabled) {
+		if (searchStack != null) {
+			throw new IllegalStateException("Nogood learning cannot be changed during the search.");
+		}
+		nogoodLearning = enabled;
+	}
+
+	/**
+	 * Enable or disable the table of failed search states, which prunes
+	 * subtrees that are reached again by applying the same rules in a
+	 * different order. The table is only used if the goal contains no type
+	 * information. This has to be set before the first unifier is computed.
+	 *
+	 * @param enabled
+	 *            'true' to store the failed search states (the default),
+	 *            'false' to search every subtree
+	 */
+	public void setTranspositionTable(boolean enabled) {
+		if (searchStack != null) {
+			throw new IllegalStateException("The transposition table cannot be changed during the search.");
+		}
+		transpositionTable = enabled;
+	}
+
+	/**
+	 * Enable or disable the suppression of assignments that result in a
+	 * unifier that was already returned, i.e., that assign the same subsumers
+	 * to the variables on which the user variables depend. Without it, the
+	 * same unifier can be returned several times, in particular after a
+	 * restart. This has to be set before the first unifier is computed.
+	 *
+	 * @param enabled
+	 *            'true' to return each unifier only once (the default),
+	 *            'false' to return every solution of the search
+	 */
+	public void setDuplicateSuppression(boolean enabled) {
+		if (searchStack != null) {
+			throw new IllegalStateException("The suppression of duplicates cannot be changed during the search.");
+		}
+		duplicateSuppression = enabled;
+	}
+
+	/**
+	 * Record the search in a trace. The trace is not shared with the workers
+	 * of the parallel search.
+	 *
+	 * @param trace
+	 *            the trace, or 'null' to disable tracing
+	 */
+	public void setTrace(SearchTrace trace) {
+		this.trace = (trace == null) ? SearchTrace.DISABLED : trace;
+	}
+
+	/**
+	 * Record statistics about the search in a profile. The profile is not
+	 * shared with the workers of the parallel search.
+	 *
+	 * @param profile
+	 *            the profile, or 'null' to disable profiling
+	 */
+	public void setProfile(SearchProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * Periodically save the state of the search to a file, from which the
+	 * enumeration of unifiers can be resumed later. A checkpoint is written
+	 * whenever a unifier is found or a new node of the search tree is
+	 * entered, and at least the given interval has passed since the last
+	 * checkpoint. A final checkpoint is written when all unifiers have been
+	 * found. Checkpoints cannot be used together with restarts or the parallel
+	 * search.
+	 *
+	 * @param file
+	 *            the file, or 'null' to disable checkpoints
+	 * @param interval
+	 *            the minimal number of milliseconds between two checkpoints;
+	 *            if it is 0, a checkpoint is written for every unifier and
+	 *            every node of the search tree
+	 */
+	public void setCheckpointFile(File file, long interval) {
+		if (searchStack != null) {
+			throw new IllegalStateException("Checkpoints have to be enabled before the search.");
+		}
+		this.checkpointFile = file;
+		this.checkpointInterval = interval;
+		if (file != null) {
+			addInfo(keyCheckpointFile, file);
+		}
+	}
+
+	/**
+	 * Resume the search from a checkpoint written by a previous run on the
+	 * same goal with the same constraint selection heuristic. The next call of
+	 * 'computeNextUnifier' then returns the first unifier that was not found
+	 * before the checkpoint was written.
+	 *
+	 * @param file
+	 *            the checkpoint file
+	 * @throws IOException
+	 *             if the checkpoint cannot be read
+	 */
+	public void resume(File file) throws IOException {
+		if (searchStack != null) {
+			throw new IllegalStateException("The search can only be resumed before it is started.");
+		}
+		resumeCheckpoint = SearchCheckpoint.read(file);
+	}
+
+	/**
+	 * Save the current state of the search to a file. If this is called after
+	 * 'computeNextUnifier' has returned a unifier, then a search resumed from
+	 * this checkpoint continues with the next unifier.
+	 *
+	 * @param file
+	 *            the checkpoint file
+	 * @throws IOException
+	 *             if the checkpoint cannot be written
+	 */
+	public void saveCheckpoint(File file) throws IOException {
+		checkCheckpointsSupported();
+		if (resumeCheckpoint != null) {
+			// the search has not been resumed yet
+			resumeCheckpoint.write(file);
+		} else if (searchStack == null) {
+			new SearchCheckpoint(getSignature(), 0).write(file);
+		} else {
+			createCheckpoint(!exhausted).write(file);
+		}
+	}
+
+	private long getSignature() {
+		if (signature == null) {
+			// the normalized goal of the search may already contain new
+			// constraints
+			signature = SearchCheckpoint.signature(goal.getAtomManager(), new NormalizedGoal(goal),
+					constraintSelection, (candidateRanking != null));
+		}
+		return signature;
+	}
+
+	private void checkCheckpointsSupported() {
+		if (restartPolicy.isEnabled() || (parallelism > 1)) {
+			throw new IllegalStateException("Checkpoints cannot be used together with restarts or the parallel search.");
+		}
+	}
+
+	private SearchCheckpoint createCheckpoint(boolean atUnifier) {
+		SearchCheckpoint checkpoint = new SearchCheckpoint(getSignature(), searchStack.size());
+		checkpoint.exhausted = exhausted;
+		checkpoint.atUnifier = atUnifier && !exhausted;
+		checkpoint.unifiersFound = unifiersFound;
+		checkpoint.solutionsFound = solutionsFound;
+		checkpoint.treeSize = treeSize;
+		checkpoint.deadEnds = deadEnds;
+		int level = 0;
+		Iterator<Integer> counts = unifierCounts.descendingIterator();
+		for (Iterator<Result> iter = searchStack.descendingIterator(); iter.hasNext(); level++) {
+			checkpoint.attempts[level] = iter.next().getAttempt();
+			checkpoint.unifierCounts[level] = counts.next();
+		}
+		for (AssignmentFingerprint fingerprint : foundUnifiers) {
+			checkpoint.fingerprints.add(fingerprint.toArray());
+		}
+		return checkpoint;
+	}
+
+	private void writeCheckpoint(boolean atUnifier, boolean force) {
+		if ((checkpointFile == null) || (replayAttempt >= 0)) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (!force && (now < nextCheckpoint)) {
+			return;
+		}
+		try {
+			createCheckpoint(atUnifier).write(checkpointFile);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		nextCheckpoint = now + checkpointInterval;
+	}
+
+	/**
+	 * Restore the state of the search that is described by a checkpoint by
+	 * replaying the stored rule applications.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 */
+	private void replay(SearchCheckpoint checkpoint) throws InterruptedException {
+		if (checkpoint.signature != getSignature()) {
+			throw new IllegalStateException("The checkpoint was not written for this goal.");
+		}
+		for (int level = 0; level < checkpoint.attempts.length; level++) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			replayAttempt = checkpoint.attempts[level];
+			FlatConstraint con = chooseUnsolvedConstraint();
+			boolean applied;
+			if (con != null) {
+				applied = applyNextNondeterministicRule(con, null, 0);
+			} else {
+				Atom var = assignment.getAmbiguousTypeVariable();
+				applied = (var != null) && applyTypeChoosingRule(var, null, 0);
+			}
+			replayAttempt = -1;
+			if (!applied) {
+				throw new IllegalStateException("The checkpoint does not match the search on this goal.");
+			}
+		}
+		unifierCounts.clear();
+		for (int count : checkpoint.unifierCounts) {
+			unifierCounts.push(count);
+		}
+		for (long[] fingerprint : checkpoint.fingerprints) {
+			foundUnifiers.add(AssignmentFingerprint.fromArray(fingerprint));
+		}
+		unifiersFound = checkpoint.unifiersFound;
+		solutionsFound = checkpoint.solutionsFound;
+		treeSize = checkpoint.treeSize;
+		deadEnds = checkpoint.deadEnds;
+	}
+
+	/**
+	 * Print the events recorded in the current trace.
+	 *
+	 * @param out
+	 *            the output stream
+	 */
+	public void dumpTrace(PrintStream out) {
+		trace.dump(out, goal.getAtomManager(),
+				(normalizedGoal == null) ? null : normalizedGoal.getConstraintFactory());
+	}
+
+	private boolean hasTypeInformation() {
+		return !goal.getTypes().isEmpty() || !goal.getDomains().isEmpty() || !goal.getRanges().isEmpty();
+	}
+
+	/**
+	 * Add the statistics of this worker to those of the parallel search.
+	 *
+	 * @param search
+	 *            the parallel search
+	 */
+	void reportStatistics(ParallelRuleSearch search) {
+		search.recordStatistics(treeSize - 1, deadEnds, learnedNogoods, prunedBranches,
+				(normalizedGoal == null) ? 0 : normalizedGoal.getMaxSize());
 	}
 
 	@Override
 	protected void updateInfo() {
+		if (parallelSearch != null) {
+			addInfo(keyMaxCons, Math.max(normalizedGoal.getMaxSize(), parallelSearch.getMaxConstraints()));
+			addInfo(keyTreeSize, parallelSearch.getTreeSize());
+			addInfo(keyDeadEnds, parallelSearch.getDeadEnds());
+			addInfo(keyLearnedNogoods, parallelSearch.getLearnedNogoods());
+			addInfo(keyPrunedBranches, parallelSearch.getPrunedBranches());
+			return;
+		}
 		addInfo(keyMaxCons, normalizedGoal.getMaxSize());
 		addInfo(keyTreeSize, treeSize);
 		addInfo(keyDeadEnds, deadEnds);
+		addInfo(keyDuplicates, solutionsFound - unifiersFound);
+		if (random != null) {
+			addInfo(keyRestarts, restarts);
+		}
+		if (nogoods != null) {
+			addInfo(keyLearnedNogoods, learnedNogoods);
+		}
+		if ((nogoods != null) || (transpositions != null)) {
+			addInfo(keyPrunedBranches, prunedBranches);
+		}
 	}
 
 	/**
@@ -123,28 +594,28 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 	 *         subsumptions and dissubsumptions
 	 */
 	public boolean computeNextUnifier() throws InterruptedException {
-		/*for (Integer at: goal.getAtomManager().getExistentialRestrictions()) {
-			System.out.println("Rolegroup id is: " + goal.getAtomManager().getRoleId(goal.SNOMED_RoleGroup_URI()));
-			Integer roleId = ((ExistentialRestriction)goal.getAtomManager().getAtom(at)).getRoleId();
-
-			Set<Integer> domain = goal.getDomains().get(roleId);
-			if (roleId.equals(goal.getAtomManager().getRoleId(goal.SNOMED_RoleGroup_URI()))) {
-				domain = new HashSet<>(goal.getRoleGroupTypes().values()) ;
-			}
-			if (domain == null) {
-				continue;
-			}
-			for (Integer id : domain) {
-				System.out.println("Domain of this role " + roleId + "is " + goal.getAtomManager().getAtom(id));
-			}
-		}*/
-		//System.out.println("DEBUG: Entering computeNextUnifier()");
+		boolean found = findNextUnifier();
+		if ((searchStack != null) && (parallelSearch == null)) {
+			exhausted = !found;
+			writeCheckpoint(found, exhausted || (checkpointInterval == 0));
+		}
+		return found;
+	}
 
+	private boolean findNextUnifier() throws InterruptedException {
+		if ((checkpointFile != null) || (resumeCheckpoint != null)) {
+			checkCheckpointsSupported();
+		}
 		if (normalizedGoal == null) {
 			normalizedGoal = new NormalizedGoal(goal);
+			if ((checkpointFile != null) || (resumeCheckpoint != null)) {
+				signature = SearchCheckpoint.signature(goal.getAtomManager(), normalizedGoal, constraintSelection,
+						(candidateRanking != null));
+			}
+			staticRuleIndex = new EagerRuleIndex(staticEagerRules);
+			dynamicRuleIndex = new EagerRuleIndex(dynamicEagerRules);
 			addInfo(keyInitialCons, normalizedGoal.size());
 			for (FlatConstraint con : normalizedGoal) {
-				//System.out.println("The constraint is:" + con);
 				if (!con.isDissubsumption()) {
 					if (con.getHead().isVariable()) {
 						// subsumptions with a variable on the right-hand side are
@@ -165,11 +636,51 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 			callbackPreprocessing();
 		}
 
+		if (parallelism > 1) {
+			if (parallelSearch == null) {
+				foundUnifiers = ConcurrentHashMap.newKeySet();
+				parallelSearch = new ParallelRuleSearch(this, parallelism, PARALLEL_FORK_DEPTH);
+			}
+			if (pendingUnifier) {
+				pendingUnifier = false;
+				return true;
+			}
+			parallelUnifier = parallelSearch.nextUnifier();
+			return parallelUnifier != null;
+		}
+
+		if (pendingUnifier) {
+			pendingUnifier = false;
+			return recordUnifier();
+		}
+
 		if (searchStack == null) {
 			searchStack = new ArrayDeque<>();
+			unifierCounts = new ArrayDeque<>();
+			backjumpLevel = NO_BACKJUMP;
+			if (foundUnifiers == null) {
+				// workers share the fingerprints of the parallel search
+				foundUnifiers = new HashSet<>();
+			}
+			if (restartPolicy.isEnabled()) {
+				random = new Random(restartPolicy.getSeed());
+			}
+			unsolvedConstraints = new UnsolvedConstraintQueue(normalizedGoal, constraintSelection,
+					goal.getAtomManager().getNonvariableAtoms().size());
+			if (!hasTypeInformation()) {
+				// types are not part of the search states, and they can be
+				// removed again during the search
+				if (nogoodLearning) {
+					nogoods = new NogoodStore(goal.getAtomManager(), normalizedGoal, NOGOOD_CAPACITY);
+				}
+				if (transpositionTable) {
+					transpositions = new TranspositionTable(goal.getAtomManager(), normalizedGoal,
+							TRANSPOSITION_CAPACITY);
+				}
+			}
 
 			// apply eager rules to each unsolved subsumption
-			Result res = applyEagerRules(normalizedGoal, staticEagerRules, null);
+			Result res = applyEagerRules(normalizedGoal, staticRuleIndex, null);
 			if (!res.wasSuccessful())
 				return false;
 			for (Object con : res.getSolvedConstraints()) {
@@ -180,13 +691,21 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 			/*for (FlatConstraint con : res.getSolvedConstraints()) {
 				con.setSolved(true);
 			}*/
-			Assignment tmp = new Assignment(goal);
-			res = applyEagerRules(normalizedGoal, dynamicEagerRules, tmp);
+			assignment = new Assignment(goal, normalizedGoal.getConstraintFactory());
+			if (candidateRanking != null) {
+				assignment.rankCandidates(candidateRanking);
+			}
+			if (random != null) {
+				unsolvedConstraints.randomize(random.nextLong());
+				assignment.shuffleCandidates(random.nextLong());
+			}
+			int checkpoint = assignment.checkpoint();
+			res = applyEagerRules(normalizedGoal, dynamicRuleIndex, assignment);
 			if (!res.wasSuccessful()) {
-				//System.out.println("DEBUG: applyEagerRules() failed, returning false.");
+				assignment.rollBackTo(checkpoint);
 				return false;
 			}
-			if (!commitResult(res, tmp)) {
+			if (!commitResult(res, checkpoint)) {
 				return false;
 			}
 
@@ -195,6 +714,19 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 			if (!applyEagerRules(res)) {
 				return false;
 			}
+
+			if (resumeCheckpoint != null) {
+				SearchCheckpoint resumed = resumeCheckpoint;
+				resumeCheckpoint = null;
+				if (resumed.exhausted) {
+					return false;
+				}
+				replay(resumed);
+				if (resumed.atUnifier && !backtrack()) {
+					// the last unifier was found before the checkpoint
+					return false;
+				}
+			}
 		} else {
 			// we already have a search stack --> try to backtrack from last
 			// solution
@@ -202,13 +734,53 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 				return false;
 			}
 		}
-		System.out.println("Calling solve()...");
-		return solve();
+		trace.record(SearchTrace.SOLVE, searchStack.size(), unifiersFound, 0);
+		if (!solve()) {
+			return false;
+		}
+		if (decisionOnly) {
+			// any solution decides the problem, even if it is a duplicate;
+			// it is recorded when it is returned by 'computeNextUnifier'
+			return true;
+		}
+		return recordUnifier();
+	}
 
+	private boolean recordUnifier() throws InterruptedException {
+		solutionsFound++;
+		while (duplicateSuppression && !foundUnifiers.add(AssignmentFingerprint.ofUserVariables(assignment, goal))) {
+			// the same unifier was already found on a different branch, in a
+			// different subtree of the parallel search, or before a restart
+			if (!backtrack() || !solve()) {
+				return false;
+			}
+			solutionsFound++;
+		}
+		unifiersFound++;
+		trace.record(SearchTrace.UNIFIER, searchStack.size(), unifiersFound, 0);
+		return true;
+	}
+
+	@Override
+	public boolean isUnifiable() throws InterruptedException {
+		if (pendingUnifier) {
+			return true;
+		}
+		decisionOnly = true;
+		try {
+			// no checkpoint is written, since the unifier is not yet returned
+			pendingUnifier = findNextUnifier();
+			return pendingUnifier;
+		} finally {
+			decisionOnly = false;
+		}
 	}
 
 	@Override
 	public Unifier getUnifier() {
+		if (parallelSearch != null) {
+			return parallelUnifier;
+		}
 		// convert current assignment to a set of definitions
 		AtomManager atomManager = goal.getAtomManager();
 		DefinitionSet definitions = new DefinitionSet(atomManager.getVariables().size());
@@ -228,92 +800,47 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 			if (Thread.interrupted()) {
 				throw new InterruptedException();
 			}
-			//System.out.println("DEBUG: Searching for unsolved constraints...");
-			FlatConstraint con = chooseUnsolvedConstraint();
-			//System.out.println("DEBUG: Found constraint: " + con);
-
 			// Choose an unsolved constraint
-			//FlatConstraint con = chooseUnsolvedConstraint();
-			//System.out.println("Choosed unsolved Constraint: " + con + "!");
+			FlatConstraint con = chooseUnsolvedConstraint();
 			if (con == null) {
-				//System.out.println("DEBUG: No unsolved constraints found!");
-
-				// 打印 `assignment.types`
-				if (assignment.types.isEmpty()) {
-					System.out.println("DEBUG: assignment.types is EMPTY!");
-				} /*else {
-					System.out.println("DEBUG: assignment.types contains:");
-					for (Atom var : assignment.types.keySet()) {
-						System.out.println(var + " -> " + assignment.types.get(var));
-					}
-				}*/
-				// If all constraints are solved, check types before returning success
-				boolean typeChosen = false;
-				//System.out.println("DEBUG: Checking assignment.types before loop:");
-
-				for (Atom var : assignment.types.keySet()) {
-					if (assignment.types.get(var).size() > 1) {
-						//System.out.println(var + " has " + assignment.types.get(var).size() + " types!");
-						//boolean success = applyTypeChoosingRule(var, null);
-						//typeChosen |= success;  // 只要有一次成功，标记为 true
-						// If there are multiple possible types, apply TypeChoosingRule
-						if (applyTypeChoosingRule(var, null)) {
-								//System.out.println("Type choosing success for: " + var);
-								//System.out.println("Updated assignment.types: " + assignment.types);
-
-							typeChosen = true;
-							break; // Exit the loop after a successful type selection
-						}
-					}
-				}
-				/*boolean typeChosen;
-				do {
-					typeChosen = false;
-					for (Atom var : assignment.types.keySet()) {
-						if (assignment.types.get(var).size() > 1) {
-							if (applyTypeChoosingRule(var, null)) {
-								typeChosen = true;
-							}
-						}
-					}
-				} while (typeChosen); // 直到没有变量可以再被选择*/
-
-				if (!typeChosen) {
-					System.out.println("DEBUG: assignment.types contains:");
-					for (Atom var : assignment.types.keySet()) {
-						System.out.println(var + " -> " + assignment.types.get(var));
-					}
-					//System.out.println("No type chosen, exiting solve()");
+				// If all constraints are solved, only the variables whose type
+				// is still ambiguous have to be considered
+				Atom var = assignment.getAmbiguousTypeVariable();
+				if (var == null) {
 					return true; // Return true when all types are uniquely determined
 				}
-				continue; // Continue with the next iteration of the while loop
-			}
-
-			/*if (con == null) {
-				boolean typeChosen = false;
-				for (Atom var : assignment.types.keySet()) {
-					if (assignment.types.get(var).size() > 1) {
-						typeChosen = true;
-						if (applyTypeChoosingRule(var, null)) {
-                            continue;
-						} else {
-							throw new RuntimeException("The first application of typeChoosing should be successful!");
-						}
-					}
+				if (applyTypeChoosingRule(var, null, 0)) {
+					continue;
 				}
-				if (!typeChosen) {
-					System.out.println("No type chosen, exiting solve()");
-					return true; // Return true when all types are uniquely determined
+				if (forkedAlternatives > 0) {
+					// the alternatives are explored by other workers
+					return false;
 				}
-				continue; // Continue with the next iteration of the while loop
-			}*/
+				deadEnds++;
+				trace.record(SearchTrace.DEAD_END, searchStack.size(), -1, 0);
+				if (restartIfNecessary()) {
+					continue;
+				}
+				if (!backtrack())
+					return false;
+				continue;
+			}
 
-			if (applyNextNondeterministicRule(con, null))
+			if (applyNextNondeterministicRule(con, null, 0))
 				continue;
+			if (forkedAlternatives > 0) {
+				// the alternatives are explored by other workers
+				return false;
+			}
 
-			/*if (applyNextNondeterministicRule(con, null))
-				continue;*/
 			deadEnds++;
+			trace.record(SearchTrace.DEAD_END, searchStack.size(), con.getId(), 0);
+			if (profile != null) {
+				profile.recordBacktrack(con);
+			}
+			if (restartIfNecessary()) {
+				continue;
+			}
 			if (!backtrack())
 				return false;
 		}
@@ -321,65 +848,231 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 
 	private boolean backtrack() {
 		while (!searchStack.isEmpty()) {
+			int level = searchStack.size();
 			Result res = searchStack.pop();
+			int previousUnifiers = unifierCounts.pop();
+			trace.record(SearchTrace.BACKTRACK, level, (level > backjumpLevel) ? backjumpLevel : level, 0);
+			if (level > backjumpLevel) {
+				// the state below this level already contains a nogood
+				rollBackResult(res);
+				continue;
+			}
+			if (level == backjumpLevel) {
+				backjumpLevel = NO_BACKJUMP;
+			} else if (((nogoods != null) || (transpositions != null)) && (previousUnifiers == solutionsFound)
+					&& (level > branchPrefix.length)) {
+				// the subtree below this result did not contain a unifier; a
+				// subtree that only contained duplicates may not be pruned,
+				// since a state that includes it can have new unifiers
+				learnNogood();
+			}
 			rollBackResult(res);
 			if (res.getConstraint() instanceof FlatConstraint) {
-				if (applyNextNondeterministicRule((FlatConstraint) res.getConstraint(), res.getApplication())) {
+				if (applyNextNondeterministicRule((FlatConstraint) res.getConstraint(), res.getApplication(),
+						res.getAttempt() + 1)) {
 					return true;
 				}
 			}
 			if (res.getConstraint() instanceof Atom) {
-				if (applyTypeChoosingRule((Atom) res.getConstraint(), res.getApplication())) {
+				if (applyTypeChoosingRule((Atom) res.getConstraint(), res.getApplication(), res.getAttempt() + 1)) {
 					return true;
 				}
 			}
 		}
+		backjumpLevel = NO_BACKJUMP;
 		return false;
 	}
 
-	private FlatConstraint chooseUnsolvedConstraint() {
-		for (FlatConstraint con : normalizedGoal) {
-			if (!con.isSolved()) {
-				//System.out.println("Found unsolved constraint: " + con);
-				return con;
+	/**
+	 * Restart the search from the initial state if the restart policy allows
+	 * no more dead ends. All rule applications on the search stack are rolled
+	 * back without learning nogoods, since their subtrees have not been
+	 * explored completely, and the constraints and candidate subsumers are
+	 * ordered anew.
+	 *
+	 * @return true iff the search was restarted
+	 */
+	private boolean restartIfNecessary() {
+		if (random == null) {
+			return false;
+		}
+		deadEndsSinceRestart++;
+		if (searchStack.isEmpty() || (deadEndsSinceRestart < restartPolicy.getLimit(restarts))) {
+			return false;
+		}
+		while (!searchStack.isEmpty()) {
+			unifierCounts.pop();
+			rollBackResult(searchStack.pop());
+		}
+		backjumpLevel = NO_BACKJUMP;
+		restarts++;
+		deadEndsSinceRestart = 0;
+		unsolvedConstraints.randomize(random.nextLong());
+		assignment.shuffleCandidates(random.nextLong());
+		trace.record(SearchTrace.RESTART, 0, restarts, 0);
+		return true;
+	}
+
+	/**
+	 * Determine the level of the search stack to which the search can jump
+	 * back because the current state includes a nogood. This is the deepest
+	 * level whose result introduced a part of the nogood.
+	 *
+	 * @param nogood
+	 *            the included nogood
+	 * @param candidate
+	 *            the result that is about to be pushed on the stack
+	 * @return the level of the stack, where 0 means that the nogood is
+	 *         included in the initial state and 'searchStack.size() + 1'
+	 *         refers to the candidate itself
+	 */
+	private int getBackjumpLevel(NogoodStore.Nogood nogood, Result candidate) {
+		int level = searchStack.size() + 1;
+		if (nogoods.intersects(nogood, candidate)) {
+			return level;
+		}
+		for (Result res : searchStack) {
+			level--;
+			if (nogoods.intersects(nogood, res)) {
+				return level;
 			}
+		}
+		return 0;
+	}
+
+	private void learnNogood() {
+		if (transpositions != null) {
+			transpositions.storeFailed();
+		}
+		if ((nogoods != null) && nogoods.learn()) {
+			// the size of the store does not change if the new nogood
+			// replaces the nogoods that include it
+			learnedNogoods++;
+		}
+	}
+
+	/**
+	 * Check whether the current state is known to fail, either because it has
+	 * already been explored on a different path or because it includes a
+	 * known nogood. In the latter case, if the given result did not contribute
+	 * to the nogood, a backjump to the last relevant level of the search stack
+	 * is initiated.
+	 *
+	 * @param res
+	 *            the result of the last nondeterministic rule application
+	 * @return true iff the current state is not known to fail
+	 */
+	private boolean pruneByNogoods(Result res) {
+		if ((transpositions != null) && transpositions.isFailed()) {
+			// the same state has been reached before on a different path
+			prunedBranches++;
+			trace.record(SearchTrace.PRUNE, searchStack.size(), searchStack.size() + 1, 0);
+			return false;
+		}
+		if (nogoods == null) {
+			return true;
+		}
+		NogoodStore.Nogood nogood = nogoods.findIncludedNogood();
+		if (nogood == null) {
+			return true;
+		}
+		prunedBranches++;
+		int level = getBackjumpLevel(nogood, res);
+		if (level <= searchStack.size()) {
+			backjumpLevel = level;
+		}
+		trace.record(SearchTrace.PRUNE, searchStack.size(), level, 0);
+		return false;
+	}
+
+	/**
+	 * Check whether the next rule application can be pushed on the stack or
+	 * is only replayed or counted by a worker of the parallel search.
+	 *
+	 * @param alternatives
+	 *            the number of previous successful rule applications on the
+	 *            same level of the stack
+	 * @return true iff the result should be pushed on the stack; otherwise,
+	 *         it has to be rolled back
+	 */
+	private boolean isSelectedAlternative(int alternatives) {
+		int level = searchStack.size() + 1;
+		if (level <= branchPrefix.length) {
+			return alternatives == branchPrefix[level - 1];
+		}
+		return !isForkLevel(level);
+	}
+
+	private boolean isForkLevel(int level) {
+		return (level == branchPrefix.length + 1) && (branchPrefix.length < forkDepth);
+	}
+
+	/**
+	 * Check whether a worker can backtrack to further alternatives on the
+	 * current level of the stack. This is not the case on the levels of its
+	 * prefix and on the level that is forked, since the other alternatives
+	 * there are explored by other workers.
+	 *
+	 * @return true iff the next alternative on the current level has to be
+	 *         explored
+	 */
+	private boolean isOpenLevel() {
+		int level = searchStack.size() + 1;
+		return (level > branchPrefix.length) && !isForkLevel(level);
+	}
+
+	private void push(Result res) {
+		searchStack.push(res);
+		unifierCounts.push(solutionsFound);
+		if (searchStack.size() >= branchPrefix.length) {
+			// the nodes on the prefix are counted by other workers
+			treeSize++;
+		}
+		writeCheckpoint(false, false);
+	}
 
+	/**
+	 * Record a successful rule application on a level that is forked.
+	 *
+	 * @param alternatives
+	 *            the total number of successful rule applications on this
+	 *            level
+	 */
+	private void fork(int alternatives) {
+		if (isForkLevel(searchStack.size() + 1) && (alternatives > 0)) {
+			forkedAlternatives = alternatives;
 		}
-		//System.out.println("No unsolved constraints found!");
-		return null;
 	}
 
-	private Result applyEagerRules(Collection<FlatConstraint> cons, List<EagerRule> rules,
+	private FlatConstraint chooseUnsolvedConstraint() {
+		return unsolvedConstraints.peek();
+	}
+
+	private Result applyEagerRules(Collection<FlatConstraint> cons, EagerRuleIndex rules,
 								   Assignment currentAssignment) {
 		Result res = new Result(null, null);
 		for (FlatConstraint con : cons) {
 			if (!con.isSolved()) {
-				for (Rule rule : rules) {
-					//System.out.println("DEBUG: Trying rule " + rule.getClass().getSimpleName() + " on " + con);
+				for (Rule rule : rules.getCandidates(con)) {
 					Result r = tryApplyRule(con, rule, null, currentAssignment);
 					if (r == null) {
-						//System.out.println("DEBUG: Rule " + rule.getClass().getSimpleName() + " was not applicable.");
 						continue;
 					}
 					if (!r.wasSuccessful()) {
-						//System.out.println("DEBUG: Rule " + rule.getClass().getSimpleName() + " failed!");
+						if (profile != null) {
+							profile.recordBacktrack(con);
+						}
+						if (trace.isEnabled(SearchTrace.PROPAGATION)) {
+							trace.record(SearchTrace.EAGER_FAILURE, searchStack.size(), trace.getRuleId(rule),
+									con.getId());
+						}
 						return r;
 					}
 
 					res.getSolvedConstraints().add(con);
-					res.getNewSubsumers().addAll(r.getNewSubsumers());
-					//res.getNewUnsolvedConstraints().addAll(r.getNewUnsolvedConstraints());
-					for (Object newSub : r.getNewUnsolvedConstraints()) {
-						boolean exists = res.getNewUnsolvedConstraints().stream().anyMatch(c -> c.equals(newSub));
-						if (!exists) {
-							res.getNewUnsolvedConstraints().add(newSub);
-						} /*else {
-							System.out.println("DEBUG: applyEagerRules detected duplicate: " + newSub);
-						}*/
+					res.addChanges(r);
 
-					}
-
-					if (currentAssignment != null) {
+					if ((currentAssignment != null) && r.hasNewSubsumers()) {
 						currentAssignment.addAll(r.getNewSubsumers());
 					}
 					break;
@@ -389,26 +1082,53 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 		return res;
 	}
 
-	private boolean applyNextNondeterministicRule(FlatConstraint con, Rule.Application previous) {
+	/**
+	 * Apply the next nondeterministic rule application to a constraint that
+	 * leads to a state that is not known to fail, and push its result on the
+	 * stack.
+	 *
+	 * @param con
+	 *            the constraint
+	 * @param previous
+	 *            the previous rule application, or 'null'
+	 * @param attempt
+	 *            the position of the next rule application among all
+	 *            applications to the constraint
+	 * @return true iff a rule application was pushed on the stack
+	 */
+	private boolean applyNextNondeterministicRule(FlatConstraint con, Rule.Application previous, int attempt) {
+		if ((previous != null) && !isOpenLevel()) {
+			return false;
+		}
+		int alternatives = 0;
+		if ((profile != null) && (previous == null)) {
+			profile.enterNode(searchStack.size());
+		}
 		Iterator<Rule> iter = nondeterministicRules
 				.listIterator((previous == null) ? 0 : nondeterministicRules.indexOf(previous.rule()));
 
 		while (iter.hasNext()) {
 			Rule rule = iter.next();
 			while (true) {
+				int typeMark = assignment.markTypes();
 				Result res = tryApplyRule(con, rule, previous, assignment);
 				if (res == null) {
 					break;
 				}
 				previous = res.getApplication();
-				if (!res.wasSuccessful()) {
+				// failed results are shared and must not be modified
+				int current = attempt++;
+				if (!res.wasSuccessful() || ((replayAttempt >= 0) && (current != replayAttempt))) {
+					assignment.rollBackTypes(typeMark);
 					continue;
 				}
+				res.setAttempt(current);
+				res.setTypeMark(typeMark);
 
 				// now 'res' is the result of a successful nondeterministic rule
 				// application ->
 				// apply eager rules, put result on the stack
-				if (!commitResult(res, null)) {
+				if (!commitResult(res, NO_CHECKPOINT)) {
 					// application of static eager rules failed -> roll back
 					// changes and continue search
 					deadEnds++;
@@ -423,40 +1143,79 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 					continue;
 				}
 
-				searchStack.push(res);
-				treeSize++;
+				if (!pruneByNogoods(res)) {
+					deadEnds++;
+					rollBackResult(res);
+					if (backjumpLevel != NO_BACKJUMP) {
+						// none of the remaining alternatives can succeed
+						return false;
+					}
+					continue;
+				}
+
+				if (!isSelectedAlternative(alternatives++)) {
+					rollBackResult(res);
+					continue;
+				}
+
+				if (profile != null) {
+					profile.recordSuccessor(searchStack.size());
+				}
+				push(res);
+				if (trace.isEnabled(SearchTrace.DECISIONS)) {
+					trace.record(SearchTrace.APPLY, searchStack.size(), trace.getRuleId(rule), con.getId());
+				}
 				return true;
 			}
 			previous = null;
 		}
+		if (profile != null) {
+			profile.leaveNode(searchStack.size());
+		}
+		fork(alternatives);
 		return false;
 	}
 
 	//private Map<Atom, Set<Atom>> selectedTypesHistory = new HashMap<>();
-	private boolean applyTypeChoosingRule(Atom var, Rule.Application previous) {
+	private boolean applyTypeChoosingRule(Atom var, Rule.Application previous, int attempt) {
+		if ((previous != null) && !isOpenLevel()) {
+			return false;
+		}
+		int alternatives = 0;
 		TypeChoosing rule = new TypeChoosing();
-		//boolean foundAtLeastOne = false;
+		if ((profile != null) && (previous == null)) {
+			profile.enterNode(searchStack.size());
+		}
 		while (true) {
+			long start = (profile == null) ? 0 : System.nanoTime();
 			Rule.Application application = (previous == null) ? rule.getFirstApplication(var, assignment) :
 					rule.getNextApplication(var, assignment, previous);
 
 			if (application == null) {
+				if (profile != null) {
+					profile.recordRule(rule, null, System.nanoTime() - start);
+				}
 				break; // No more applications available
-				//return false;
 			}
 
-			//System.out.println("DEBUG: Before applying TypeChoosing: " + assignment.types);
+			int typeMark = assignment.markTypes();
 			Result result = rule.apply(var, assignment, application);
-			//System.out.println("DEBUG: After applying TypeChoosing: " + assignment.types);
+			if (profile != null) {
+				profile.recordRule(rule, result, System.nanoTime() - start);
+			}
 
 			previous = application; // Update previous to track progress
+			int current = attempt++;
 
-			if (!result.wasSuccessful()) {
+			if (!result.wasSuccessful() || ((replayAttempt >= 0) && (current != replayAttempt))) {
+				assignment.rollBackTypes(typeMark);
 				continue; // Skip failed attempts
 			}
+			result.setAttempt(current);
+			result.setTypeMark(typeMark);
 
 			// Commit the successful result
-			if (!commitResult(result, null)) {
+			if (!commitResult(result, NO_CHECKPOINT)) {
 				deadEnds++;
 				rollBackResult(result);
 				continue;
@@ -468,11 +1227,25 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 				continue;
 			}
 
-			searchStack.push(result); // Push successful result to the stack
-			treeSize++;
+			if (!isSelectedAlternative(alternatives++)) {
+				rollBackResult(result);
+				continue;
+			}
+
+			if (profile != null) {
+				profile.recordSuccessor(searchStack.size());
+			}
+			push(result); // Push successful result to the stack
+			if (trace.isEnabled(SearchTrace.DECISIONS)) {
+				trace.record(SearchTrace.CHOOSE_TYPE, searchStack.size(), goal.getAtomManager().getIndex(var),
+						goal.getAtomManager().getIndex(assignment.getTypes(var).get(0)));
+			}
 			return true;
-			//foundAtLeastOne = true;
 		}
+		if (profile != null) {
+			profile.leaveNode(searchStack.size());
+		}
+		fork(alternatives);
 		return false;
 	}
 
@@ -488,47 +1261,46 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 	private boolean applyEagerRules(Result parent) {
 		Result currentResult = parent;
 		Result nextResult = new Result(null, null);
-		Assignment tmp = new Assignment(assignment);
 		//currentResult = applyEagerRules(currentResult.getNewUnsolvedConstraints(), staticEagerRules, tmp);
 
-		//System.out.println(tmp);
-
 		do {
+			// the eager rules work directly on the current assignment; the
+			// checkpoint allows to undo their changes if one of them fails
+			int checkpoint = assignment.checkpoint();
 
 			// apply dynamic eager rules to each new unsolved subsumption and dissubsumption
 			{
-				Result res2 = applyEagerRules(currentResult.getNewUnsolvedConstraints(), dynamicEagerRules, tmp);
-				//System.out.println("2unsolved constraints: " + res2.getNewUnsolvedConstraints());
-				if (!res2.wasSuccessful())
+				Result res2 = applyEagerRules(currentResult.getNewUnsolvedConstraints(), dynamicRuleIndex, assignment);
+				if (!res2.wasSuccessful()) {
+					assignment.rollBackTo(checkpoint);
 					return false;
-				nextResult.getSolvedConstraints().addAll(res2.getSolvedConstraints());
-				nextResult.getNewUnsolvedConstraints().addAll(res2.getNewUnsolvedConstraints());
-				nextResult.getNewSubsumers().addAll(res2.getNewSubsumers());
+				}
+				nextResult.addChanges(res2);
 			}
 
-			// apply dynamic eager rules for each new assignment
+			// apply dynamic eager rules for each new assignment, but only to
+			// the constraints that watch the new subsumers
 			Assignment newSubsumers = currentResult.getNewSubsumers();
 			//Assignment newSubsumers = nextResult.getNewSubsumers();
 			for (Atom var : newSubsumers.getKeys()) {
-				if (!newSubsumers.getSubsumers(var).isEmpty()) {
-					Result res = applyEagerRules(normalizedGoal.getConstraintsByBodyVariable(var), dynamicEagerRules, tmp);
-					if (!res.wasSuccessful())
+				for (Atom at : newSubsumers.getSubsumers(var)) {
+					Result res = applyEagerRules(normalizedGoal.getConstraintsWatching(var, at), dynamicRuleIndex, assignment);
+					if (!res.wasSuccessful()) {
+						assignment.rollBackTo(checkpoint);
 						return false;
-					nextResult.getSolvedConstraints().addAll(res.getSolvedConstraints());
-					nextResult.getNewUnsolvedConstraints().addAll(res.getNewUnsolvedConstraints());
-					nextResult.getNewSubsumers().addAll(res.getNewSubsumers());
+					}
+					nextResult.addChanges(res);
 				}
 			}
 
-			boolean commitSuccessful = commitResult(nextResult, tmp);
+			boolean commitSuccessful = commitResult(nextResult, checkpoint);
 			parent.amend(nextResult);
 			if (!commitSuccessful)
 				return false;
 
 			currentResult = nextResult;
 			nextResult = new Result(null, null);
-			tmp = new Assignment(assignment);
-		} while (!currentResult.getNewSubsumers().isEmpty() || !currentResult.getNewUnsolvedConstraints().isEmpty());
+		} while (currentResult.hasNewSubsumers() || currentResult.hasNewUnsolvedConstraints());
 
 		return true;
 	}
@@ -548,8 +1320,16 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 	 *         applications are possible
 	 */
 	private Result tryApplyRule(FlatConstraint con, Rule rule, Application previous, Assignment currentAssignment) {
-		//System.out.println("DEBUG: Trying to apply " + rule.getClass().getSimpleName() + " to " + con);
+		if (profile == null) {
+			return applyRule(con, rule, previous, currentAssignment);
+		}
+		long start = System.nanoTime();
+		Result res = applyRule(con, rule, previous, currentAssignment);
+		profile.recordRule(rule, res, System.nanoTime() - start);
+		return res;
+	}
 
+	private Result applyRule(FlatConstraint con, Rule rule, Application previous, Assignment currentAssignment) {
 		Rule.Application next;
 		if (previous == null) {
 			next = rule.getFirstApplication(con, currentAssignment);
@@ -558,14 +1338,10 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 		}
 
 		if (next == null) {
-			//System.out.println("DEBUG: No application for " + rule.getClass().getSimpleName() + " on " + con);
 			return null;
 		}
 
-		Result res = rule.apply(con, currentAssignment, next);
-
-
-		return res;
+		return rule.apply(con, currentAssignment, next);
 	}
 
 
@@ -579,17 +1355,17 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 	 *
 	 * @param res
 	 *            the result to be considered; will be changed in-place
-	 * @param newAssignment
-	 *            the new assignment that will replace the current assignment;
-	 *            if this is 'null', then the change will be computed from
-	 *            'res.getNewSubsumers()'
+	 * @param checkpoint
+	 *            the checkpoint of the current assignment since which the new
+	 *            subsumers have already been added to it, which is released by
+	 *            this method; if this is NO_CHECKPOINT, then the change will be
+	 *            computed from 'res.getNewSubsumers()'
 	 * @return <code>true</code> if and only if the execution was successful
 	 */
-	private boolean commitResult(Result res, Assignment newAssignment) {
-		//System.out.println("DEBUG: Committing result for " + res.getConstraint());
+	private boolean commitResult(Result res, int checkpoint) {
 		// solve subsumption that triggered the rule
 		if (res.getConstraint() != null && res.getConstraint() instanceof FlatConstraint) {
-			((FlatConstraint) res.getConstraint()).setSolved(true);
+			setSolved((FlatConstraint) res.getConstraint(), true);
 		}
 
 		// add new unsolved constraints to the goal
@@ -602,14 +1378,14 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 					if (con.getHead().isVariable()) {
 						// subsumptions with a variable on the right-hand side are
 						// always solved
-						con.setSolved(true);
+						setSolved(con, true);
 						res.getNewSolvedConstraints().add(con);
 					}
 				}
 				else {
 					if (con.getBody().size() == 1 && con.getDissubsumptionHead().size() == 1) {
 						if (con.getBody().get(0).isVariable() && !con.getDissubsumptionHead().get(0).isVariable()) {
-							con.setSolved(true);
+							setSolved(con, true);
 							res.getNewSolvedConstraints().add(con);
 						}
 					}
@@ -655,7 +1431,7 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 
 		for (Object con : res.getSolvedConstraints()) {
 			if (con instanceof FlatConstraint) {
-				((FlatConstraint) con).setSolved(true);
+				setSolved((FlatConstraint) con, true);
 			}
 		}
 		/*// solve subsumptions and dissubsumptions in 'res.solvedConstraints'
@@ -664,110 +1440,105 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 		}*/
 
 		// update current assignment
-		res.getNewSubsumers().removeAll(assignment);
-		if (newAssignment == null) {
+		if (checkpoint == NO_CHECKPOINT) {
+			res.getNewSubsumers().removeAll(assignment);
 			assignment.addAll(res.getNewSubsumers());
 		} else {
-			assignment = newAssignment;
+			res.getNewSubsumers().retainAll(assignment.getChangesSince(checkpoint));
+			assignment.release(checkpoint);
+		}
+		if (nogoods != null) {
+			nogoods.addSubsumers(res.getNewSubsumers());
+		}
+		if (transpositions != null) {
+			transpositions.addSubsumers(res.getNewSubsumers());
 		}
-		//System.out.println("DEBUG: assignment.types after commit: " + assignment.types);
 
 		// goal expansion (II)
 		Set<FlatConstraint> newCons = normalizedGoal.expand(res.getNewSubsumers());
 		res.getNewUnsolvedConstraints().addAll(newCons);
 
-		// goal expansion (III)
-		Set<Integer> allVars = new HashSet<>(goal.getAtomManager().getVariables());
-		for (Integer variableId : allVars) {
-			Atom var = goal.getAtomManager().getAtom(variableId);
-			//System.out.println("Goal expansion III for " + var);
-
-				/*for (Atom atom : assignment.types.get(var)) {
-					System.out.println("Type of this variable" + var + " is: " +  atom);
-				}*/
-			if (assignment.types.get(var) != null && assignment.types.get(var).size() == 1) {
-				Atom type = assignment.types.get(var).get(0);
-				Integer typeIndex = goal.getAtomManager().getIndex(type);
-				if (goal.getRoleGroupTypes().values().contains(typeIndex)) {
-					for (Integer varId : goal.getAtomManager().getVariables()) {
-						Atom body = goal.getAtomManager().getAtom(varId);
-						for (Atom at : assignment.getSubsumers(body)) {
-							if (at.isExistentialRestriction() && ((ExistentialRestriction)at).getRoleId().equals(goal.getAtomManager().getRoleId(goal.SNOMED_RoleGroup_URI()))) {
-								Atom child = at.getConceptName();
-								if (child.equals(var)) {
-									Atom head = null;
-									for (Map.Entry<Integer, Integer> entry : goal.getRoleGroupTypes().entrySet()) {
-										if (entry.getValue().equals(typeIndex)) {
-											Integer headId = entry.getKey();
-											head = goal.getAtomManager().getAtom(headId);
-											break;
-										}
-									} // find the parent according to the role group type
-									//assignment.types.computeIfAbsent(body, b -> new ArrayList<>()).add(head);
-									if (head != null) {
-										/*assignment.types.putIfAbsent(body, new LinkedList<>());  // 确保 body 存在
-										if (!assignment.types.get(body).contains(head)) {  // 避免重复添加
-											assignment.types.get(body).add(head);
-											System.out.println("Adding type for " + body);
-										}*/
-										if (!assignment.types.get(body).contains(head)) {
-											assignment.types.computeIfAbsent(body, k -> new ArrayList<>()).add(head);
-											//System.out.println("Adding type " + head +  " for " + body);
-										}
-										/*FlatConstraint newSub = new FlatConstraint(Collections.<Atom> singletonList(head), type, false);
-										boolean existsInGoal = normalizedGoal.stream().anyMatch(c -> c.equals(newSub));
-										boolean existsInNew = res.getNewUnsolvedConstraints().stream().anyMatch(c -> c.equals(newSub));
-
-										if (!existsInGoal && !existsInNew) {
-											res.getNewUnsolvedConstraints().add(newSub);
-											System.out.println("Adding new subsumption: " + newSub);
-										} else {
-											System.out.println("DEBUG: Duplicate detected: " + newSub);
-										}*/
-
-									}
-								}
-							}
+		// goal expansion (III): propagate the types that were determined
+		// since the last commit, and the types of role group fillers along
+		// the new role group edges
+		Integer roleGroupId = goal.getAtomManager().getRoleId(goal.SNOMED_RoleGroup_URI());
+		Assignment newSubsumers = res.getNewSubsumers();
+		for (Atom parent : newSubsumers.getKeys()) {
+			for (Atom at : newSubsumers.getSubsumers(parent)) {
+				if (isRoleGroup(at, roleGroupId) && assignment.isRoleGroupFiller(at.getConceptName())) {
+					if (!assignment.propagateRoleGroupType(parent, at.getConceptName())) {
+						return false;
+					}
+				}
+			}
+		}
+		for (List<Atom> determined = assignment.pollDeterminedTypes(); !determined.isEmpty();
+				determined = assignment.pollDeterminedTypes()) {
+			for (Atom var : determined) {
+				if (assignment.isRoleGroupFiller(var)) {
+					// the type of the role group determines the type of the
+					// concepts it belongs to
+					for (Atom parent : assignment.getRoleGroupParents(var)) {
+						if (!assignment.propagateRoleGroupType(parent, var)) {
+							return false;
 						}
 					}
 				} else {
-					FlatConstraint newSub = new FlatConstraint(Collections.<Atom> singletonList(var), type, false);
-					//boolean existsInGoal = normalizedGoal.stream().anyMatch(c -> c.equals(newSub));
-					//boolean existsInNew = res.getNewUnsolvedConstraints().stream().anyMatch(c -> c.equals(newSub));
-
-					if (!res.getNewUnsolvedConstraints().contains(newSub)) {
+					Atom type = assignment.getTypes(var).get(0);
+					FlatConstraint newSub = normalizedGoal.getConstraintFactory()
+							.create(Collections.<Atom> singletonList(var), type, false);
+					if (normalizedGoal.add(newSub)) {
+						// only add the subsumption if it is new
 						res.getNewUnsolvedConstraints().add(newSub);
-						//System.out.println("Adding new subsumption: " + newSub);
-					} /*else {
-						System.out.println("DEBUG: Duplicate detected: " + newSub);
-					}*/
-
-
-
+					}
 				}
 			}
 		}
 
+		unsolvedConstraints.addAll(res.getNewUnsolvedConstraints());
+
 		// try to solve new unsolved subsumptions and dissubsumptions by static eager rules
-		Result eagerRes = applyEagerRules(res.getNewUnsolvedConstraints(), staticEagerRules, null);
+		Result eagerRes = applyEagerRules(res.getNewUnsolvedConstraints(), staticRuleIndex, null);
 		if (!eagerRes.wasSuccessful()) {
-			//System.out.println("DEBUG: commitResult() failed due to applyEagerRules failure.");
 			return false;
 		}
 
 
 		for (Object con : eagerRes.getSolvedConstraints()) {
 			if (con instanceof FlatConstraint) {
-				((FlatConstraint) con).setSolved(true);
+				setSolved((FlatConstraint) con, true);
 			}
 
 		}
 
 		res.amend(eagerRes);
-		//System.out.println("DEBUG: assignment.types after commit: " + assignment.types);
+		if (trace.isEnabled(SearchTrace.PROPAGATION)) {
+			trace.record(SearchTrace.COMMIT, searchStack.size(), res.getNewSubsumers().size(),
+					res.getNewUnsolvedConstraints().size());
+		}
 		return true;
 	}
 
+	/**
+	 * Set the 'solved' status of a subsumption or dissubsumption, and update
+	 * the hash of the solved constraints in the transposition table.
+	 *
+	 * @param con
+	 *            the subsumption or dissubsumption
+	 * @param solved
+	 *            a flag indicating whether it is solved
+	 */
+	private void setSolved(FlatConstraint con, boolean solved) {
+		if ((transpositions != null) && (con.isSolved() != solved)) {
+			transpositions.toggleSolved(con);
+		}
+		con.setSolved(solved);
+	}
+
+	private static boolean isRoleGroup(Atom at, Integer roleGroupId) {
+		return at.isExistentialRestriction() && ((ExistentialRestriction) at).getRoleId().equals(roleGroupId);
+	}
+
 	/**
 	 * Undo the changes made to the goal by a result.
 	 *
@@ -777,22 +1548,46 @@ public class RuleBasedUnificationAlgorithm extends AbstractUnificationAlgorithm
 	private void rollBackResult(Result res) {
 
 		assignment.removeAll(res.getNewSubsumers());
+		if (res.getTypeMark() >= 0) {
+			assignment.rollBackTypes(res.getTypeMark());
+		}
+		if (nogoods != null) {
+			nogoods.removeSubsumers(res.getNewSubsumers());
+		}
+		if (transpositions != null) {
+			transpositions.removeSubsumers(res.getNewSubsumers());
+		}
 		normalizedGoal.removeAll(res.getNewSolvedConstraints());
 		normalizedGoal.removeAll(res.getNewUnsolvedConstraints());
+		unsolvedConstraints.removeAll(res.getNewSolvedConstraints());
+		unsolvedConstraints.removeAll(res.getNewUnsolvedConstraints());
+
+		// constraints are unique, so the removed ones have to be unsolved when
+		// they are created again
+		for (Object con : res.getNewSolvedConstraints()) {
+			setSolved((FlatConstraint) con, false);
+		}
+		for (Object con : res.getNewUnsolvedConstraints()) {
+			setSolved((FlatConstraint) con, false);
+		}
 
 
 		for (Object con : res.getSolvedConstraints()) {
-			//System.out.println("rollback for :" + con);
 			if (con instanceof FlatConstraint) {
-				((FlatConstraint)con).setSolved(false);
+				setSolved((FlatConstraint) con, false);
 			}
 		}
 
 
 		if (res.getConstraint() instanceof FlatConstraint) {
-			((FlatConstraint) res.getConstraint()).setSolved(false);
+			setSolved((FlatConstraint) res.getConstraint(), false);
 		}
 
+		// the constraints that are unsolved again
+		unsolvedConstraints.addAll(res.getSolvedConstraints());
+		if (res.getConstraint() instanceof FlatConstraint) {
+			unsolvedConstraints.add((FlatConstraint) res.getConstraint());
+		}
 	}
 
 }
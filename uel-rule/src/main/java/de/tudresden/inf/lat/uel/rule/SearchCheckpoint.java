@@ -0,0 +1,184 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * A snapshot of the search of the rule-based algorithm that allows to resume
+ * an interrupted enumeration of unifiers. Instead of the assignment and the
+ * goal, only the path from the initial state to the current node of the
+ * search tree is stored. For each level of the search stack, this is the
+ * position of the chosen rule application among all applications of the
+ * nondeterministic rules to the selected constraint (or variable). Since the
+ * search is deterministic, replaying these positions in a fresh search
+ * restores the same state.
+ *
+ * Learned nogoods are not stored, as they are only used for pruning and can
+ * be learned again. However, the number of solutions found before each level
+ * was entered is stored, since this determines whether the subtrees may be
+ * learned as nogoods. The fingerprints of the unifiers found so far are
+ * stored, so that their duplicates are still suppressed after resuming.
+ */
+final class SearchCheckpoint {
+
+	private static final int MAGIC = 0x55454C43;
+	private static final int VERSION = 2;
+
+	/**
+	 * Compute a signature of a goal, which is used to check that a checkpoint
+	 * belongs to the goal to which it is applied. It covers the IDs of the
+	 * atoms, the initial constraints in the order in which they are
+	 * considered, the constraint selection heuristic, and whether the
+	 * candidate subsumers are ranked.
+	 *
+	 * @param atomManager
+	 *            the atom manager of the goal
+	 * @param constraints
+	 *            the initial constraints of the goal
+	 * @param selection
+	 *            the constraint selection heuristic
+	 * @param ranked
+	 *            whether the candidate subsumers are ranked
+	 * @return the signature
+	 */
+	static long signature(AtomManager atomManager, Iterable<FlatConstraint> constraints,
+			ConstraintSelection selection, boolean ranked) {
+		long hash = 1125899906842597L;
+		hash = hash(hash, selection.name());
+		if (ranked) {
+			hash = hash(hash, "ranked");
+		}
+		for (int id = 0; id < atomManager.size(); id++) {
+			hash = hash(hash, String.valueOf(atomManager.getAtom(id)));
+		}
+		for (FlatConstraint con : constraints) {
+			hash = hash(hash, con.toString());
+		}
+		return hash;
+	}
+
+	private static long hash(long hash, String str) {
+		for (int i = 0; i < str.length(); i++) {
+			hash = 31 * hash + str.charAt(i);
+		}
+		return 31 * hash + str.length();
+	}
+
+	/**
+	 * Read a checkpoint from a file.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the checkpoint
+	 * @throws IOException
+	 *             if the file cannot be read or does not contain a checkpoint
+	 */
+	static SearchCheckpoint read(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+			if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+				throw new IOException("'" + file + "' is not a checkpoint of the rule-based algorithm.");
+			}
+			SearchCheckpoint checkpoint = new SearchCheckpoint(in.readLong(), in.readInt());
+			checkpoint.exhausted = in.readBoolean();
+			checkpoint.atUnifier = in.readBoolean();
+			checkpoint.unifiersFound = in.readInt();
+			checkpoint.solutionsFound = in.readInt();
+			checkpoint.treeSize = in.readInt();
+			checkpoint.deadEnds = in.readInt();
+			for (int level = 0; level < checkpoint.attempts.length; level++) {
+				checkpoint.attempts[level] = in.readInt();
+				checkpoint.unifierCounts[level] = in.readInt();
+			}
+			int numberOfFingerprints = in.readInt();
+			for (int i = 0; i < numberOfFingerprints; i++) {
+				long[] fingerprint = new long[in.readInt()];
+				for (int j = 0; j < fingerprint.length; j++) {
+					fingerprint[j] = in.readLong();
+				}
+				checkpoint.fingerprints.add(fingerprint);
+			}
+			return checkpoint;
+		}
+	}
+
+	final long signature;
+	final int[] attempts;
+	final int[] unifierCounts;
+	final List<long[]> fingerprints = new ArrayList<>();
+	boolean exhausted = false;
+	boolean atUnifier = false;
+	int unifiersFound = 0;
+	int solutionsFound = 0;
+	int treeSize = 0;
+	int deadEnds = 0;
+
+	/**
+	 * Create an empty checkpoint.
+	 *
+	 * @param signature
+	 *            the signature of the goal
+	 * @param depth
+	 *            the number of levels of the search stack
+	 */
+	SearchCheckpoint(long signature, int depth) {
+		this.signature = signature;
+		this.attempts = new int[depth];
+		this.unifierCounts = new int[depth];
+	}
+
+	/**
+	 * Write this checkpoint to a file. The checkpoint is first written to a
+	 * temporary file, which then replaces the given file, so that an
+	 * interruption does not destroy the previous checkpoint.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	void write(File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(signature);
+			out.writeInt(attempts.length);
+			out.writeBoolean(exhausted);
+			out.writeBoolean(atUnifier);
+			out.writeInt(unifiersFound);
+			out.writeInt(solutionsFound);
+			out.writeInt(treeSize);
+			out.writeInt(deadEnds);
+			for (int level = 0; level < attempts.length; level++) {
+				out.writeInt(attempts[level]);
+				out.writeInt(unifierCounts[level]);
+			}
+			out.writeInt(fingerprints.size());
+			for (long[] fingerprint : fingerprints) {
+				out.writeInt(fingerprint.length);
+				for (long pair : fingerprint) {
+					out.writeLong(pair);
+				}
+			}
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+}
@@ -0,0 +1,217 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A profile of the search performed by the rule-based algorithm. It records
+ * how often each rule was tried and applied successfully, the time spent in
+ * each rule, the depths of the nodes of the search tree, the number of
+ * successors of each node, and the constraints that most often caused the
+ * search to backtrack. The profile can be exported as a JSON object.
+ */
+public final class SearchProfile {
+
+	/**
+	 * The statistics of one rule.
+	 */
+	private static final class RuleStatistics {
+		long attempts = 0;
+		long successes = 0;
+		long failures = 0;
+		long nanos = 0;
+	}
+
+	private static final int TOP_CONSTRAINTS = 20;
+
+	private final Map<String, RuleStatistics> rules = new LinkedHashMap<>();
+	private final List<Long> depths = new ArrayList<>();
+	private final List<Long> branchingFactors = new ArrayList<>();
+	private final List<Integer> successors = new ArrayList<>();
+	private final Map<FlatConstraint, Long> backtracks = new HashMap<>();
+
+	private RuleStatistics getStatistics(Object rule) {
+		String name = rule.getClass().getSimpleName();
+		RuleStatistics stats = rules.get(name);
+		if (stats == null) {
+			stats = new RuleStatistics();
+			rules.put(name, stats);
+		}
+		return stats;
+	}
+
+	/**
+	 * Record an attempt to apply a rule.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @param res
+	 *            the result of the application, or 'null' if the rule was not
+	 *            applicable
+	 * @param nanos
+	 *            the time spent on finding and performing the application
+	 */
+	void recordRule(Object rule, Result res, long nanos) {
+		RuleStatistics stats = getStatistics(rule);
+		stats.attempts++;
+		stats.nanos += nanos;
+		if (res != null) {
+			if (res.wasSuccessful()) {
+				stats.successes++;
+			} else {
+				stats.failures++;
+			}
+		}
+	}
+
+	/**
+	 * Record that a nondeterministic rule is applied to a new node of the
+	 * search tree.
+	 *
+	 * @param depth
+	 *            the depth of the node
+	 */
+	void enterNode(int depth) {
+		increment(depths, depth);
+		while (successors.size() <= depth) {
+			successors.add(0);
+		}
+		successors.set(depth, 0);
+	}
+
+	/**
+	 * Record a new successor of a node.
+	 *
+	 * @param depth
+	 *            the depth of the parent node
+	 */
+	void recordSuccessor(int depth) {
+		if (depth < successors.size()) {
+			successors.set(depth, successors.get(depth) + 1);
+		}
+	}
+
+	/**
+	 * Record that all successors of a node have been explored.
+	 *
+	 * @param depth
+	 *            the depth of the node
+	 */
+	void leaveNode(int depth) {
+		if (depth < successors.size()) {
+			increment(branchingFactors, successors.get(depth));
+		}
+	}
+
+	/**
+	 * Record that the search has to backtrack because of a constraint, e.g.,
+	 * because no rule can solve it or an eager rule failed on it.
+	 *
+	 * @param con
+	 *            the constraint
+	 */
+	void recordBacktrack(FlatConstraint con) {
+		Long count = backtracks.get(con);
+		backtracks.put(con, (count == null) ? 1 : count + 1);
+	}
+
+	private static void increment(List<Long> histogram, int index) {
+		while (histogram.size() <= index) {
+			histogram.add(0L);
+		}
+		histogram.set(index, histogram.get(index) + 1);
+	}
+
+	/**
+	 * Export this profile as a JSON object.
+	 *
+	 * @return the JSON representation
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n  \"rules\": {");
+		String separator = "\n";
+		for (Entry<String, RuleStatistics> entry : rules.entrySet()) {
+			RuleStatistics stats = entry.getValue();
+			sb.append(separator);
+			sb.append("    ").append(quote(entry.getKey())).append(": {");
+			sb.append("\"attempts\": ").append(stats.attempts);
+			sb.append(", \"successes\": ").append(stats.successes);
+			sb.append(", \"failures\": ").append(stats.failures);
+			sb.append(", \"successRate\": ").append(rate(stats.successes, stats.successes + stats.failures));
+			sb.append(", \"millis\": ").append(stats.nanos / 1000000.0);
+			sb.append("}");
+			separator = ",\n";
+		}
+		sb.append("\n  },\n");
+		sb.append("  \"depths\": ").append(depths).append(",\n");
+		sb.append("  \"branchingFactors\": ").append(branchingFactors).append(",\n");
+		sb.append("  \"backtracks\": [");
+		separator = "\n";
+		for (Entry<FlatConstraint, Long> entry : getTopBacktracks()) {
+			sb.append(separator);
+			sb.append("    {\"constraint\": ").append(quote(entry.getKey().toString()));
+			sb.append(", \"count\": ").append(entry.getValue()).append("}");
+			separator = ",\n";
+		}
+		sb.append("\n  ]\n}\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Write the JSON representation of this profile.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @throws IOException
+	 *             if the profile cannot be written
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write(toJson());
+		writer.flush();
+	}
+
+	private List<Entry<FlatConstraint, Long>> getTopBacktracks() {
+		List<Entry<FlatConstraint, Long>> entries = new ArrayList<>(backtracks.entrySet());
+		entries.sort((e1, e2) -> (e1.getValue().equals(e2.getValue()))
+				? Integer.compare(e1.getKey().getId(), e2.getKey().getId())
+				: Long.compare(e2.getValue(), e1.getValue()));
+		return entries.subList(0, Math.min(TOP_CONSTRAINTS, entries.size()));
+	}
+
+	private static double rate(long part, long total) {
+		return (total == 0) ? 0.0 : ((double) part) / total;
+	}
+
+	private static String quote(String str) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : str.toCharArray()) {
+			switch (c) {
+			case '"':
+			case '\\':
+				sb.append('\\').append(c);
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+}
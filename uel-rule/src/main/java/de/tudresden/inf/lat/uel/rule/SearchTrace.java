@@ -0,0 +1,221 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * A trace of the search performed by the rule-based algorithm. The events are
+ * stored as fixed-size binary records in a ring buffer, so that only the most
+ * recent events are kept, and can be dumped in a readable form on demand.
+ *
+ * Each event belongs to a level, and it is only recorded if this level is
+ * enabled. The arguments of the events are plain integers, e.g., the IDs of
+ * constraints and atoms, so that a disabled event does not cause any
+ * allocations. Arguments that are expensive to compute should be guarded by
+ * 'isEnabled'.
+ */
+public final class SearchTrace {
+
+	/**
+	 * No events are recorded.
+	 */
+	public static final int OFF = 0;
+
+	/**
+	 * The decisions of the search are recorded, i.e., the successful
+	 * nondeterministic rule applications, dead ends, backtracking, restarts,
+	 * and found unifiers.
+	 */
+	public static final int DECISIONS = 1;
+
+	/**
+	 * Additionally, the commits of results and the failures of eager rules are
+	 * recorded.
+	 */
+	public static final int PROPAGATION = 2;
+
+	/**
+	 * A trace that does not record anything.
+	 */
+	static final SearchTrace DISABLED = new SearchTrace(OFF, 1);
+
+	// the events; the level is stored in the lowest byte
+	static final int SOLVE = 1 << 8 | DECISIONS;
+	static final int APPLY = 2 << 8 | DECISIONS;
+	static final int CHOOSE_TYPE = 3 << 8 | DECISIONS;
+	static final int DEAD_END = 4 << 8 | DECISIONS;
+	static final int BACKTRACK = 5 << 8 | DECISIONS;
+	static final int PRUNE = 6 << 8 | DECISIONS;
+	static final int UNIFIER = 7 << 8 | DECISIONS;
+	static final int RESTART = 10 << 8 | DECISIONS;
+	static final int COMMIT = 8 << 8 | PROPAGATION;
+	static final int EAGER_FAILURE = 9 << 8 | PROPAGATION;
+
+	private static final String[] eventNames = { null, "solve", "apply", "choose-type", "dead-end", "backtrack",
+			"prune", "unifier", "commit", "eager-failure", "restart" };
+
+	// number of longs per event: time, event and depth, arguments
+	private static final int RECORD_SIZE = 3;
+
+	private final long[] buffer;
+	private final int capacity;
+	private long count = 0;
+	private final int level;
+	private final Map<Object, Integer> ruleIds = new IdentityHashMap<>();
+	private final List<Object> rules = new ArrayList<>();
+
+	/**
+	 * Create a new trace.
+	 *
+	 * @param level
+	 *            the most detailed level of events that are recorded, i.e.,
+	 *            'OFF', 'DECISIONS', or 'PROPAGATION'
+	 * @param capacity
+	 *            the number of events that are kept; older events are
+	 *            overwritten
+	 */
+	public SearchTrace(int level, int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity of a trace must be positive.");
+		}
+		this.level = level;
+		this.capacity = capacity;
+		this.buffer = new long[(level == OFF) ? 0 : capacity * RECORD_SIZE];
+	}
+
+	/**
+	 * Check whether events of a given level are recorded.
+	 *
+	 * @param eventLevel
+	 *            the level
+	 * @return true iff events of this level are recorded
+	 */
+	public boolean isEnabled(int eventLevel) {
+		return eventLevel <= level;
+	}
+
+	/**
+	 * Record an event.
+	 *
+	 * @param event
+	 *            the type of the event
+	 * @param depth
+	 *            the current depth of the search
+	 * @param arg1
+	 *            the first argument
+	 * @param arg2
+	 *            the second argument
+	 */
+	void record(int event, int depth, int arg1, int arg2) {
+		if ((event & 0xFF) > level) {
+			return;
+		}
+		int pos = (int) (count % capacity) * RECORD_SIZE;
+		buffer[pos] = System.nanoTime();
+		buffer[pos + 1] = ((long) event << 32) | (depth & 0xFFFFFFFFL);
+		buffer[pos + 2] = ((long) arg1 << 32) | (arg2 & 0xFFFFFFFFL);
+		count++;
+	}
+
+	/**
+	 * Retrieve a small integer identifying a rule, for use as an event
+	 * argument. This should only be called if the event is enabled.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the ID of the rule
+	 */
+	int getRuleId(Object rule) {
+		Integer id = ruleIds.get(rule);
+		if (id == null) {
+			id = rules.size();
+			ruleIds.put(rule, id);
+			rules.add(rule);
+		}
+		return id;
+	}
+
+	/**
+	 * Return the total number of recorded events, including those that have
+	 * already been overwritten.
+	 *
+	 * @return the number of events
+	 */
+	public long getEventCount() {
+		return count;
+	}
+
+	/**
+	 * Remove all recorded events.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Print the recorded events that are still kept, oldest first. Constraints,
+	 * atoms, and rules are printed in full if the corresponding managers are
+	 * given.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param atomManager
+	 *            the atom manager used to resolve atom IDs, or 'null'
+	 * @param factory
+	 *            the constraint factory used to resolve constraint IDs, or
+	 *            'null'
+	 */
+	void dump(PrintStream out, AtomManager atomManager, FlatConstraintFactory factory) {
+		long first = Math.max(0, count - capacity);
+		long start = (first < count) ? buffer[(int) (first % capacity) * RECORD_SIZE] : 0;
+		for (long i = first; i < count; i++) {
+			int pos = (int) (i % capacity) * RECORD_SIZE;
+			int event = (int) (buffer[pos + 1] >>> 32);
+			int depth = (int) buffer[pos + 1];
+			int arg1 = (int) (buffer[pos + 2] >>> 32);
+			int arg2 = (int) buffer[pos + 2];
+
+			StringBuilder line = new StringBuilder();
+			line.append(String.format("%12d %3d %-13s ", (buffer[pos] - start) / 1000, depth, eventNames[event >>> 8]));
+			switch (event) {
+			case APPLY:
+			case EAGER_FAILURE:
+				line.append(getRuleName(arg1)).append(' ').append(getConstraint(factory, arg2));
+				break;
+			case CHOOSE_TYPE:
+				line.append(getAtom(atomManager, arg1)).append(" : ").append(getAtom(atomManager, arg2));
+				break;
+			case DEAD_END:
+				line.append(getConstraint(factory, arg1));
+				break;
+			case COMMIT:
+				line.append("+").append(arg1).append(" subsumers, +").append(arg2).append(" constraints");
+				break;
+			default:
+				line.append(arg1);
+			}
+			out.println(line);
+		}
+	}
+
+	private String getRuleName(int id) {
+		return ((id >= 0) && (id < rules.size())) ? rules.get(id).getClass().getSimpleName() : ("rule " + id);
+	}
+
+	private static String getConstraint(FlatConstraintFactory factory, int id) {
+		if (id < 0) {
+			return "-";
+		}
+		return (factory == null) ? ("#" + id) : String.valueOf(factory.getConstraint(id));
+	}
+
+	private static String getAtom(AtomManager atomManager, int id) {
+		return (atomManager == null) ? ("#" + id) : String.valueOf(atomManager.getAtom(id));
+	}
+
+}
@@ -0,0 +1,145 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * A transposition table for the rule-based algorithm, which recognizes search
+ * states that have already been explored without finding a unifier. Since the
+ * nondeterministic rules can be applied in different orders, the same state is
+ * often reached on several paths.
+ *
+ * A state consists of the assigned (variable, atom) pairs, the constraints of
+ * the goal, and the solved constraints. It is represented by a Zobrist hash,
+ * i.e., the exclusive or of a pseudo-random key for each of its components, so
+ * that it can be updated incrementally whenever a component is added or
+ * removed. The hash of the constraints is maintained by the goal, while the
+ * hashes of the assignment and of the solved constraints are updated while
+ * results are committed and rolled back. The failed states are kept in a
+ * bounded table from which the least recently used entries are evicted.
+ */
+final class TranspositionTable {
+
+	static final int SUBSUMER = 1;
+	static final int CONSTRAINT = 2;
+	static final int SOLVED = 3;
+
+	/**
+	 * Compute the Zobrist key of a component of a search state.
+	 *
+	 * @param kind
+	 *            the kind of the component, i.e., 'SUBSUMER', 'CONSTRAINT' or
+	 *            'SOLVED'
+	 * @param id
+	 *            the ID of the component
+	 * @return a pseudo-random key
+	 */
+	static long key(int kind, long id) {
+		long z = (id + 1) * 0x9E3779B97F4A7C15L + kind * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private final AtomManager atomManager;
+	private final Map<Long, Boolean> failedStates;
+	private final NormalizedGoal goal;
+	private long solvedHash = 0;
+	private long subsumerHash = 0;
+
+	/**
+	 * Create an empty table.
+	 *
+	 * @param atomManager
+	 *            the atom manager that assigns IDs to the atoms
+	 * @param goal
+	 *            the goal whose constraints are part of the current state
+	 * @param capacity
+	 *            the maximal number of stored states; if it is exceeded, the
+	 *            least recently used state is forgotten
+	 */
+	TranspositionTable(AtomManager atomManager, NormalizedGoal goal, int capacity) {
+		this.atomManager = atomManager;
+		this.goal = goal;
+		this.failedStates = new LinkedHashMap<Long, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Add assigned subsumers to the current state.
+	 *
+	 * @param subsumers
+	 *            the new subsumers
+	 */
+	void addSubsumers(Assignment subsumers) {
+		update(subsumers);
+	}
+
+	/**
+	 * Check whether the current state is known to have no unifier.
+	 *
+	 * @return true iff the current state was stored as failed
+	 */
+	boolean isFailed() {
+		return failedStates.get(getStateHash()) != null;
+	}
+
+	private long getStateHash() {
+		return subsumerHash ^ goal.getConstraintHash() ^ solvedHash;
+	}
+
+	/**
+	 * Remove assigned subsumers from the current state.
+	 *
+	 * @param subsumers
+	 *            the removed subsumers
+	 */
+	void removeSubsumers(Assignment subsumers) {
+		update(subsumers);
+	}
+
+	/**
+	 * Return the number of stored states.
+	 *
+	 * @return the number of states
+	 */
+	int size() {
+		return failedStates.size();
+	}
+
+	/**
+	 * Record that the 'solved' status of a constraint has changed.
+	 *
+	 * @param con
+	 *            the constraint
+	 */
+	void toggleSolved(FlatConstraint con) {
+		solvedHash ^= key(SOLVED, con.getId());
+	}
+
+	/**
+	 * Store the current state as failed.
+	 */
+	void storeFailed() {
+		failedStates.put(getStateHash(), Boolean.TRUE);
+	}
+
+	private void update(Assignment subsumers) {
+		for (Atom var : subsumers.getKeys()) {
+			long varId = (long) atomManager.getIndex(var) << 32;
+			for (Atom at : subsumers.getSubsumers(var)) {
+				subsumerHash ^= key(SUBSUMER, varId | atomManager.getIndex(at));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,378 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+
+/**
+ * The type domains of the variables, i.e., the sets of types that are still
+ * possible for each variable. The types are identified by dense IDs, so that
+ * each domain is a bitset, and the domain and range restrictions of the roles
+ * are precomputed as bitsets as well. A variable without a domain is not yet
+ * restricted and may have any type.
+ *
+ * Domains are only ever narrowed, and every change is recorded on a trail, so
+ * that it can be undone on backtracking. Variables whose domain becomes a
+ * singleton are collected until they are retrieved by the algorithm, which
+ * then propagates their type.
+ */
+final class TypeDomains {
+
+	/**
+	 * An entry of the trail: the previous domain of a variable.
+	 */
+	private static final class Change {
+		final Atom var;
+		final BitSet previous;
+
+		Change(Atom var, BitSet previous) {
+			this.var = var;
+			this.previous = previous;
+		}
+	}
+
+	private final Map<Atom, BitSet> current;
+	private final Set<Atom> determined = new LinkedHashSet<>();
+	private final Map<Integer, BitSet> domains = new HashMap<>();
+	private final Map<Integer, BitSet> ranges = new HashMap<>();
+	// whether any role has a non-empty domain restriction
+	private final boolean hasDomainRestrictions;
+	private final BitSet roleGroupTypes = new BitSet();
+	// the type of the parent of a variable with a given role group type
+	private final Map<Integer, Integer> roleGroupParents = new HashMap<>();
+	private final List<Change> trail = new ArrayList<>();
+	private final Map<Atom, Integer> typeIds = new HashMap<>();
+	private final List<Atom> typeList = new ArrayList<>();
+
+	/**
+	 * Create empty domains for the types of a goal.
+	 *
+	 * @param goal
+	 *            the goal
+	 */
+	TypeDomains(Goal goal) {
+		this.current = new LinkedHashMap<>();
+		AtomManager atomManager = goal.getAtomManager();
+		for (Integer type : new TreeSet<>(goal.getTypes())) {
+			getId(atomManager.getAtom(type));
+		}
+		for (Entry<Integer, Set<Integer>> entry : goal.getDomains().entrySet()) {
+			domains.put(entry.getKey(), toBitSet(atomManager, entry.getValue()));
+		}
+		for (Entry<Integer, Set<Integer>> entry : goal.getRanges().entrySet()) {
+			ranges.put(entry.getKey(), toBitSet(atomManager, entry.getValue()));
+		}
+
+		Integer roleGroupId = atomManager.getRoleId(goal.SNOMED_RoleGroup_URI());
+		if (roleGroupId != null) {
+			// a role group is attached to a concept of the corresponding type
+			domains.put(roleGroupId, toBitSet(atomManager, goal.getRoleGroupTypes().keySet()));
+			ranges.put(roleGroupId, toBitSet(atomManager, goal.getRoleGroupTypes().values()));
+		}
+		for (Entry<Integer, Integer> entry : goal.getRoleGroupTypes().entrySet()) {
+			Atom parent = atomManager.getAtom(entry.getKey());
+			Atom type = atomManager.getAtom(entry.getValue());
+			if ((parent != null) && (type != null)) {
+				roleGroupTypes.set(getId(type));
+				roleGroupParents.put(getId(type), getId(parent));
+			}
+		}
+		boolean restricted = false;
+		for (BitSet domain : domains.values()) {
+			restricted |= !domain.isEmpty();
+		}
+		this.hasDomainRestrictions = restricted;
+	}
+
+	/**
+	 * Create a copy of other domains. The trail is not copied.
+	 *
+	 * @param other
+	 *            the other domains
+	 */
+	TypeDomains(TypeDomains other) {
+		this.current = new LinkedHashMap<>();
+		for (Entry<Atom, BitSet> entry : other.current.entrySet()) {
+			current.put(entry.getKey(), (BitSet) entry.getValue().clone());
+		}
+		this.domains.putAll(other.domains);
+		this.ranges.putAll(other.ranges);
+		this.hasDomainRestrictions = other.hasDomainRestrictions;
+		this.roleGroupTypes.or(other.roleGroupTypes);
+		this.roleGroupParents.putAll(other.roleGroupParents);
+		this.typeIds.putAll(other.typeIds);
+		this.typeList.addAll(other.typeList);
+	}
+
+	private BitSet toBitSet(AtomManager atomManager, Iterable<Integer> types) {
+		BitSet set = new BitSet();
+		for (Integer type : types) {
+			Atom atom = atomManager.getAtom(type);
+			if (atom != null) {
+				set.set(getId(atom));
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Check whether any role has a domain restriction.
+	 *
+	 * @return true iff there is a non-empty domain restriction
+	 */
+	boolean hasDomainRestrictions() {
+		return hasDomainRestrictions;
+	}
+
+	/**
+	 * Retrieve the types that are allowed for the subjects of a role.
+	 *
+	 * @param roleId
+	 *            the role
+	 * @return the domain restriction of the role, or 'null' if there is none
+	 */
+	BitSet getDomainRestriction(Integer roleId) {
+		BitSet domain = domains.get(roleId);
+		return ((domain == null) || domain.isEmpty()) ? null : domain;
+	}
+
+	/**
+	 * Retrieve the types that are allowed for the fillers of a role.
+	 *
+	 * @param roleId
+	 *            the role
+	 * @return the range restriction of the role, or 'null' if there is none
+	 */
+	BitSet getRangeRestriction(Integer roleId) {
+		return ranges.get(roleId);
+	}
+
+	/**
+	 * Retrieve the current domain of a variable.
+	 *
+	 * @param var
+	 *            the variable
+	 * @return the IDs of all possible types, or 'null' if the variable is not
+	 *         restricted
+	 */
+	BitSet get(Atom var) {
+		return current.get(var);
+	}
+
+	/**
+	 * Check whether the domain of a variable has a type in common with a given
+	 * set of types.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param types
+	 *            the IDs of the types
+	 * @return true iff narrowing the domain to these types would succeed
+	 */
+	boolean intersects(Atom var, BitSet types) {
+		BitSet domain = current.get(var);
+		return (domain == null) ? !types.isEmpty() : domain.intersects(types);
+	}
+
+	/**
+	 * Narrow the domain of a variable to a given set of types.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param types
+	 *            the IDs of the allowed types
+	 * @return false iff the domain would become empty, in which case it is not
+	 *         changed
+	 */
+	boolean narrow(Atom var, BitSet types) {
+		BitSet previous = current.get(var);
+		BitSet domain = (BitSet) types.clone();
+		if (previous != null) {
+			domain.and(previous);
+			if (domain.cardinality() == previous.cardinality()) {
+				return true;
+			}
+		}
+		if (domain.isEmpty()) {
+			return false;
+		}
+		current.put(var, domain);
+		trail.add(new Change(var, previous));
+		if (domain.cardinality() == 1) {
+			determined.add(var);
+		}
+		return true;
+	}
+
+	/**
+	 * Narrow the domain of a variable to a single type.
+	 *
+	 * @param var
+	 *            the variable
+	 * @param type
+	 *            the ID of the type
+	 * @return false iff the type is not in the domain
+	 */
+	boolean narrow(Atom var, int type) {
+		BitSet types = new BitSet();
+		types.set(type);
+		return narrow(var, types);
+	}
+
+	/**
+	 * Retrieve the variables whose domain has become a singleton since the
+	 * last call of this method and is still a singleton.
+	 *
+	 * @return the variables, in the order in which they were determined
+	 */
+	List<Atom> pollDetermined() {
+		List<Atom> vars = new ArrayList<>();
+		for (Atom var : determined) {
+			BitSet domain = current.get(var);
+			if ((domain != null) && (domain.cardinality() == 1)) {
+				vars.add(var);
+			}
+		}
+		determined.clear();
+		return vars;
+	}
+
+	/**
+	 * Find a variable whose domain contains more than one type.
+	 *
+	 * @return the first such variable, or 'null' if all domains are singletons
+	 */
+	Atom getAmbiguousVariable() {
+		for (Entry<Atom, BitSet> entry : current.entrySet()) {
+			if (entry.getValue().cardinality() > 1) {
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieve the ID of a type, creating a new one if necessary.
+	 *
+	 * @param type
+	 *            the type
+	 * @return the ID
+	 */
+	int getId(Atom type) {
+		Integer id = typeIds.get(type);
+		if (id == null) {
+			id = typeList.size();
+			typeIds.put(type, id);
+			typeList.add(type);
+		}
+		return id;
+	}
+
+	/**
+	 * Retrieve the type with a given ID.
+	 *
+	 * @param id
+	 *            the ID
+	 * @return the type
+	 */
+	Atom getType(int id) {
+		return typeList.get(id);
+	}
+
+	/**
+	 * Retrieve the types in a domain.
+	 *
+	 * @param domain
+	 *            the IDs of the types
+	 * @return the list of types, ordered by their IDs
+	 */
+	List<Atom> getTypes(BitSet domain) {
+		List<Atom> types = new ArrayList<>(domain.cardinality());
+		for (int id = domain.nextSetBit(0); id >= 0; id = domain.nextSetBit(id + 1)) {
+			types.add(typeList.get(id));
+		}
+		return types;
+	}
+
+	/**
+	 * Retrieve the type of the concepts to which role groups of a given type
+	 * belong.
+	 *
+	 * @param type
+	 *            the ID of a role group type
+	 * @return the ID of the corresponding type, or -1 if the type is not a
+	 *         role group type
+	 */
+	int getRoleGroupParent(int type) {
+		Integer parent = roleGroupParents.get(type);
+		return (parent == null) ? -1 : parent;
+	}
+
+	/**
+	 * Check whether a type is a role group type.
+	 *
+	 * @param type
+	 *            the ID of the type
+	 * @return true iff the type belongs to role group fillers
+	 */
+	boolean isRoleGroupType(int type) {
+		return roleGroupTypes.get(type);
+	}
+
+	/**
+	 * Check whether no variable is restricted.
+	 *
+	 * @return true iff there are no domains
+	 */
+	boolean isEmpty() {
+		return current.isEmpty();
+	}
+
+	/**
+	 * Retrieve all restricted variables.
+	 *
+	 * @return an unmodifiable view of the variables that have a domain
+	 */
+	Set<Atom> getVariables() {
+		return Collections.unmodifiableSet(current.keySet());
+	}
+
+	/**
+	 * Return the current position of the trail.
+	 *
+	 * @return an identifier of the current state of the domains
+	 */
+	int mark() {
+		return trail.size();
+	}
+
+	/**
+	 * Undo all changes made since a given position of the trail.
+	 *
+	 * @param mark
+	 *            the position of the trail
+	 */
+	void rollBackTo(int mark) {
+		for (int i = trail.size() - 1; i >= mark; i--) {
+			Change change = trail.remove(i);
+			if (change.previous == null) {
+				current.remove(change.var);
+			} else {
+				current.put(change.var, change.previous);
+			}
+		}
+	}
+
+}
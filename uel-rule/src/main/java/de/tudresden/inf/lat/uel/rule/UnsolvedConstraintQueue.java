@@ -0,0 +1,253 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
+
+/**
+ * A worklist of the unsolved constraints of a goal, ordered according to a
+ * constraint selection heuristic. The priority of a constraint is computed
+ * once when it is added to the worklist. Constraints that become solved are
+ * only removed lazily when they reach the front of the worklist, while
+ * constraints that are removed from the goal have to be removed explicitly.
+ *
+ * A constraint that becomes unsolved again keeps its original position, as
+ * long as it stays in the goal. Hence, rolling back a rule application
+ * restores the previous order, and the order only depends on the rule
+ * applications that lead to the current state, but not on the branches of
+ * the search that have already been explored.
+ *
+ * Constraints with the same priority are ordered by the time at which they
+ * were added, or, after the worklist has been randomized, by a pseudo-random
+ * function of their IDs, which also does not depend on the explored branches.
+ */
+final class UnsolvedConstraintQueue {
+
+	private static final class Entry implements Comparable<Entry> {
+		final FlatConstraint con;
+		final int priority;
+		final int tieBreak;
+		final long sequence;
+
+		Entry(FlatConstraint con, int priority, int tieBreak, long sequence) {
+			this.con = con;
+			this.priority = priority;
+			this.tieBreak = tieBreak;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			if (priority != other.priority) {
+				return Integer.compare(priority, other.priority);
+			}
+			if (tieBreak != other.tieBreak) {
+				return Integer.compare(tieBreak, other.tieBreak);
+			}
+			return Long.compare(sequence, other.sequence);
+		}
+	}
+
+	private final Map<FlatConstraint, Entry> entries = new HashMap<>();
+	private final NormalizedGoal goal;
+	private final int numberOfNonVariableAtoms;
+	private final TreeSet<Entry> queue = new TreeSet<>();
+	private boolean randomized = false;
+	private long seed = 0;
+	private final ConstraintSelection selection;
+	private long sequence = 0;
+
+	/**
+	 * Create a worklist containing all unsolved constraints of a goal.
+	 *
+	 * @param goal
+	 *            the goal
+	 * @param selection
+	 *            the heuristic determining the order of the constraints
+	 * @param numberOfNonVariableAtoms
+	 *            the number of non-variable atoms that can be assigned to a
+	 *            variable
+	 */
+	UnsolvedConstraintQueue(NormalizedGoal goal, ConstraintSelection selection, int numberOfNonVariableAtoms) {
+		this.goal = goal;
+		this.selection = selection;
+		this.numberOfNonVariableAtoms = numberOfNonVariableAtoms;
+		for (FlatConstraint con : goal) {
+			add(con);
+		}
+	}
+
+	/**
+	 * Add a constraint to the worklist, unless it is solved, already contained
+	 * in the worklist, or not part of the goal. If the constraint was in the
+	 * worklist before, it is added at its previous position.
+	 *
+	 * @param con
+	 *            the constraint
+	 */
+	void add(FlatConstraint con) {
+		if (con.isSolved() || !goal.contains(con)) {
+			return;
+		}
+		Entry entry = entries.get(con);
+		if (entry == null) {
+			int tieBreak = randomized ? (int) TranspositionTable.key(con.getId(), seed) : 0;
+			entry = new Entry(con, priority(con), tieBreak, sequence++);
+			entries.put(con, entry);
+		}
+		queue.add(entry);
+	}
+
+	/**
+	 * Add several constraints to the worklist.
+	 *
+	 * @param cons
+	 *            the constraints
+	 */
+	void addAll(Iterable<FlatConstraint> cons) {
+		for (FlatConstraint con : cons) {
+			add(con);
+		}
+	}
+
+	private int countApplications(FlatConstraint con) {
+		if (con.isDissubsumption()) {
+			if (con.getDissubsumptionHead().size() > 1) {
+				// right decomposition
+				return con.getDissubsumptionHead().size();
+			}
+			if ((con.getBody().size() == 1) && con.getDissubsumptionHead().get(0).isVariable()) {
+				// local extension
+				return numberOfNonVariableAtoms;
+			}
+			return 0;
+		}
+
+		int count = 0;
+		Atom head = con.getHead();
+		for (Atom at : con.getBody()) {
+			if (at.isVariable()) {
+				// extension
+				count++;
+			} else if (head.isExistentialRestriction() && at.isExistentialRestriction()
+					&& ((ExistentialRestriction) at).getRoleId().equals(((ExistentialRestriction) head).getRoleId())) {
+				// decomposition
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private int countNonGroundAtoms(FlatConstraint con) {
+		int count = 0;
+		for (Atom at : con.getBody()) {
+			if (!at.isGround()) {
+				count++;
+			}
+		}
+		if (con.isDissubsumption()) {
+			for (Atom at : con.getDissubsumptionHead()) {
+				if (!at.isGround()) {
+					count++;
+				}
+			}
+		} else if (!con.getHead().isGround()) {
+			count++;
+		}
+		return count;
+	}
+
+	private int computeDegree(FlatConstraint con) {
+		Set<Atom> variables = new HashSet<>();
+		for (Atom at : con.getBody()) {
+			if (!at.isGround()) {
+				variables.add(at.getConceptName());
+			}
+		}
+		if (con.isDissubsumption()) {
+			for (Atom at : con.getDissubsumptionHead()) {
+				if (!at.isGround()) {
+					variables.add(at.getConceptName());
+				}
+			}
+		} else if (!con.getHead().isGround()) {
+			variables.add(con.getHead().getConceptName());
+		}
+
+		int degree = 0;
+		for (Atom var : variables) {
+			degree += goal.getConstraintsByBodyVariable(var).size();
+			degree += goal.getConstraintsByHeadVariable(var).size();
+		}
+		return degree;
+	}
+
+	/**
+	 * Retrieve the unsolved constraint with the highest priority without
+	 * removing it from the worklist.
+	 *
+	 * @return the next unsolved constraint or 'null' if there is none
+	 */
+	FlatConstraint peek() {
+		while (!queue.isEmpty()) {
+			Entry entry = queue.first();
+			if (!entry.con.isSolved()) {
+				return entry.con;
+			}
+			// keep the entry in case the constraint becomes unsolved again
+			queue.pollFirst();
+		}
+		return null;
+	}
+
+	private int priority(FlatConstraint con) {
+		switch (selection) {
+		case FEWEST_APPLICATIONS:
+			return countApplications(con);
+		case GROUND_FIRST:
+			return countNonGroundAtoms(con);
+		case VARIABLE_DEGREE:
+			return -computeDegree(con);
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Forget the positions of all constraints and order them again, breaking
+	 * ties pseudo-randomly. This is used when the search is restarted.
+	 *
+	 * @param seed
+	 *            the seed of the pseudo-random order
+	 */
+	void randomize(long seed) {
+		this.randomized = true;
+		this.seed = seed;
+		entries.clear();
+		queue.clear();
+		for (FlatConstraint con : goal) {
+			add(con);
+		}
+	}
+
+	/**
+	 * Remove several constraints from the worklist.
+	 *
+	 * @param cons
+	 *            the constraints
+	 */
+	void removeAll(Iterable<FlatConstraint> cons) {
+		for (FlatConstraint con : cons) {
+			Entry entry = entries.remove(con);
+			if (entry != null) {
+				queue.remove(entry);
+			}
+		}
+	}
+
+}
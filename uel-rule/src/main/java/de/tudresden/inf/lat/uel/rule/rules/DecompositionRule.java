@@ -70,7 +70,7 @@ public final class DecompositionRule extends Rule<FlatConstraint> {
 		Result res = new Result(sub, application);
 		ConceptName head = sub.getHead().getConceptName();
 		ConceptName body = ((Application) application).at.getConceptName();
-		FlatConstraint newSub = new FlatConstraint(Collections.<Atom> singletonList(body), head, false);
+		FlatConstraint newSub = assign.getConstraintFactory().create(Collections.<Atom> singletonList(body), head, false);
 		res.getNewUnsolvedConstraints().add(newSub);
 		//System.out.println("Dec has been applied" + sub);
 		return res;
@@ -17,7 +17,7 @@ public class EagerAtomicDecomposition0 extends EagerRule{
                 Atom head = dissub.getDissubsumptionHead().get(0);
                 Atom body = dissub.getBody().get(0);
                 if (body.isVariable() && head.isVariable()) {
-                    return new Application();
+                    return getSharedApplication();
                 }
             }
         }
@@ -30,7 +30,7 @@ public class EagerAtomicDecomposition0 extends EagerRule{
         Atom body = dissub.getBody().get(0);
         if (body.equals(head)){
             //System.out.println("EAD0 has been applied" + dissub);
-            return new Result(dissub, application, false);
+            return failure(dissub, application);
         }
         return null;
     }
@@ -32,7 +32,7 @@ public class EagerAtomicDecomposition1 extends EagerRule{
                     throw new IllegalArgumentException("Expected rule application of type EagerAtomicDecomposition1Rule.Application.");
                 }
                 //System.out.println("EAD has been applied" + dissub);
-                return new Result(dissub, application, false);
+                return failure(dissub, application);
             }
             else if (!body.equals(head)){
                 if (!(application instanceof Application)) {
@@ -38,7 +38,7 @@ public class EagerAtomicDecomposition2 extends EagerRule{
                 Result res = new Result(dissub, application);
                 ConceptName newHead = ((Application) application).head.getConceptName();
                 ConceptName newBody = ((Application) application).body.getConceptName();
-                FlatConstraint newDissub = new FlatConstraint(Collections.<Atom> singletonList(newBody), newHead, true);
+                FlatConstraint newDissub = assign.getConstraintFactory().create(Collections.<Atom> singletonList(newBody), newHead, true);
                 res.getNewUnsolvedConstraints().add(newDissub);
                 //res.getNewUnsolvedConstraints().add(newSub);
 
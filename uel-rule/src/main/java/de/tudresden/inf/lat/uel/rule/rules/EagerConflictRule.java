@@ -48,7 +48,7 @@ public final class EagerConflictRule extends EagerRule {
 					}
 				}
 			}
-			return new Application();
+			return getSharedApplication();
 		}
 		else {
 			return null;
@@ -60,7 +60,7 @@ public final class EagerConflictRule extends EagerRule {
 	@Override
 	public Result apply(FlatConstraint sub, Assignment assign, Application application) {
 		//System.out.println("ECo has been applied" + sub);
-		return new Result(sub, application, false);
+		return failure(sub, application);
 	}
 
 	@Override
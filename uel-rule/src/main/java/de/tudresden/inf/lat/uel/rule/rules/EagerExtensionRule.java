@@ -21,6 +21,11 @@ import java.util.stream.Collectors;
  */
 public final class EagerExtensionRule extends EagerRule {
 
+	@Override
+	public boolean dependsOnAssignment() {
+		return true;
+	}
+
 	@Override
 	public Application getFirstApplication(FlatConstraint sub, Assignment assign) {
 		if (!sub.isDissubsumption()) {
@@ -60,15 +65,14 @@ public final class EagerExtensionRule extends EagerRule {
 		Application appl = (Application) application;
 		if (assign.makesCyclic(appl.var, sub.getHead())) {
 			//System.out.println("DEBUG: Make cyclic!");
-			return new Result(sub, application, false);
+			return failure(sub, application);
 		}
 		if (sub.getHead().isExistentialRestriction()){
 			// domain and range restrictions
 			boolean cDomain = assign.isCompatibleTypeAboutDomain(appl.var, sub.getHead());
 			boolean cRange = assign.isCompatibleTypeAboutRange(sub.getHead());
 			if (!cDomain || !cRange) {
-				System.out.println("DEBUG: Domain or range not compatible! " + cDomain + cRange);
-				return new Result(sub, application, false);
+				return failure(sub, application);
 				//return null;
 			}
 		}
@@ -16,7 +16,7 @@ public final class EagerGroundSolvingRule extends EagerRule {
 	public Application getFirstApplication(FlatConstraint sub, Assignment assign) {
 		if (!sub.isDissubsumption()) {
 			if (sub.isGround()) {
-				return new Application();
+				return getSharedApplication();
 			}
 		}
 		return null;
@@ -25,7 +25,10 @@ public final class EagerGroundSolvingRule extends EagerRule {
 	@Override
 	public Result apply(FlatConstraint sub, Assignment assign, Application application) {
 		//System.out.println("EGr has been applied" + sub);
-		return new Result(sub, application, sub.getBody().contains(sub.getHead()));
+		if (!sub.getBody().contains(sub.getHead())) {
+			return failure(sub, application);
+		}
+		return new Result(sub, application);
 	}
 
 	@Override
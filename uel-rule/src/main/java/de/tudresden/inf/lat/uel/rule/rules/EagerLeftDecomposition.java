@@ -36,7 +36,7 @@ public final class EagerLeftDecomposition extends EagerRule{
         Result res = new Result(dissub, application);
         //FlatSubsumption.Application app = (FlatSubsumption.Application) application;
         for (Atom at : ((Application) application).body){
-            FlatConstraint newDissub = new FlatConstraint(Collections.<Atom> singletonList(at), ((Application) application).head, true);
+            FlatConstraint newDissub = assign.getConstraintFactory().create(Collections.<Atom> singletonList(at), ((Application) application).head, true);
             res.getNewUnsolvedConstraints().add(newDissub);
         }
         //System.out.println("Eld has been applied" + dissub);
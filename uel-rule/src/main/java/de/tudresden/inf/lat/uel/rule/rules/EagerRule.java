@@ -12,6 +12,32 @@ import de.tudresden.inf.lat.uel.rule.FlatConstraint;
  */
 public abstract class EagerRule extends Rule<FlatConstraint> {
 
+	private final Application application = new Application();
+
+	/**
+	 * Indicates whether the applicability of this rule depends on the current
+	 * assignment. If not, then 'getFirstApplication' can be called without an
+	 * assignment and its result only depends on the shape of the subsumption
+	 * or dissubsumption.
+	 * 
+	 * @return true iff this rule uses the current assignment to determine
+	 *         whether it is applicable
+	 */
+	public boolean dependsOnAssignment() {
+		return false;
+	}
+
+	/**
+	 * Returns the single application object of this rule, which can be used
+	 * by rules whose applications do not store any details. In this way, no
+	 * application object is allocated when the rule is tried.
+	 * 
+	 * @return the shared application of this rule
+	 */
+	protected final Application getSharedApplication() {
+		return application;
+	}
+
 	@Override
 	public final Rule.Application getNextApplication(FlatConstraint con, Assignment assign,
 													 Rule.Application previous) {
@@ -19,7 +19,7 @@ public final class EagerSolving1Rule extends EagerRule {
 			Atom head = sub.getHead();
 			for (Atom at : sub.getBody()) {
 				if (at.equals(head)) {
-					return new Application();
+					return getSharedApplication();
 				}
 			}
 		}
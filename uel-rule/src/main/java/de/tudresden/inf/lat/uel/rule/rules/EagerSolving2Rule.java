@@ -13,6 +13,11 @@ import de.tudresden.inf.lat.uel.type.api.Atom;
  */
 public final class EagerSolving2Rule extends EagerRule {
 
+	@Override
+	public boolean dependsOnAssignment() {
+		return true;
+	}
+
 	@Override
 	public Application getFirstApplication(FlatConstraint sub, Assignment assign) {
 		if (!sub.isDissubsumption()) {
@@ -20,7 +25,7 @@ public final class EagerSolving2Rule extends EagerRule {
 			for (Atom at : sub.getBody()) {
 				if (at.isVariable()) {
 					if (assign.getSubsumers(at).contains(head)) {
-						return new Application();
+						return getSharedApplication();
 					}
 				}
 			}
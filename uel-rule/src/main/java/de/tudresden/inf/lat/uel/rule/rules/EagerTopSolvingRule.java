@@ -11,7 +11,7 @@ public class EagerTopSolvingRule extends EagerRule{
         if (dissub.isDissubsumption()) {
             // Atom head = sub.getDissubsumptionHead().get(0);
             if (dissub.getDissubsumptionHead().size() == 0) {
-                return new Application();
+                return getSharedApplication();
             }
         }
         return null;
@@ -20,7 +20,7 @@ public class EagerTopSolvingRule extends EagerRule{
     @Override
     public Result apply(FlatConstraint dissub, Assignment assign, Rule.Application application) {
         //System.out.println("Ets has been applied" + dissub);
-        return new Result(dissub, application, false);
+        return failure(dissub, application);
     }
 
     @Override
@@ -1,5 +1,7 @@
 package de.tudresden.inf.lat.uel.rule.rules;
 
+import java.util.List;
+
 import de.tudresden.inf.lat.uel.rule.Assignment;
 import de.tudresden.inf.lat.uel.rule.FlatConstraint;
 import de.tudresden.inf.lat.uel.rule.Result;
@@ -15,36 +17,46 @@ public final class ExtensionRule extends Rule<FlatConstraint> {
 
 	@Override
 	public Application getFirstApplication(FlatConstraint sub, Assignment assign) {
-		//System.out.println("ExtensionRule: Getting first application for constraint: " + sub);
 		if (!sub.isDissubsumption()) {
-			for (Atom at : sub.getBody()) {
-				if (at.isVariable()) {
-					//System.out.println("ExtensionRule: First application found: " + at);
-					return new Application(at);
-				}
-			}
+			int[] order = (assign == null) ? null : assign.getExtensionOrder(sub.getBody(), sub.getHead());
+			return findApplication(sub, assign, 0, null, order);
 		}
-		//System.out.println("ExtensionRule: No valid first application found.");
 		return null;
 	}
 
 	@Override
 	public Application getNextApplication(FlatConstraint sub, Assignment assign, Rule.Application previous) {
-		//System.out.println("ExtensionRule: Getting next application for constraint: " + sub + " after previous: " + previous);
 		if (!sub.isDissubsumption()) {
 			if (!(previous instanceof Application)) {
 				throw new IllegalArgumentException("Expected rule application of type ExtensionRule.Application.");
 			}
 			Application appl = (Application) previous;
-			for (int i = sub.getBody().indexOf(appl.at) + 1; i < sub.getBody().size(); i++) {
-				if (sub.getBody().get(i).isVariable()) {
-					appl.at = sub.getBody().get(i);
-					//System.out.println("ExtensionRule: Next application found: " + appl.at);
-					return appl;
+			return findApplication(sub, assign, appl.index + 1, appl, appl.order);
+		}
+		return null;
+	}
+
+	/**
+	 * Find the next variable in the body of the subsumption, starting at the
+	 * given position, to whose assignment the head can be added. Variables for
+	 * which this would make the assignment cyclic or violate a domain
+	 * restriction are skipped. If an order is given, the positions refer to
+	 * this order instead of the body.
+	 */
+	private Application findApplication(FlatConstraint sub, Assignment assign, int start, Application appl,
+			int[] order) {
+		List<Atom> body = sub.getBody();
+		for (int i = start; i < body.size(); i++) {
+			Atom at = body.get((order == null) ? i : order[i]);
+			if (at.isVariable() && ((assign == null) || assign.admitsSubsumer(at, sub.getHead()))) {
+				if (appl == null) {
+					return new Application(at, i, order);
 				}
+				appl.at = at;
+				appl.index = i;
+				return appl;
 			}
 		}
-		//System.out.println("ExtensionRule: No valid next application found.");
 		return null;
 	}
 
@@ -55,12 +67,12 @@ public final class ExtensionRule extends Rule<FlatConstraint> {
 		}
 		Application appl = (Application) application;
 		if (assign.makesCyclic(appl.at, sub.getHead())) {
-			return new Result(sub, application, false);
+			return failure(sub, application);
 		}
 		if (sub.getHead().isExistentialRestriction()){
 			// domain and range restrictions
 			if (!assign.isCompatibleTypeAboutDomain(appl.at, sub.getHead()) || !assign.isCompatibleTypeAboutRange(sub.getHead())) {
-				return new Result(sub, application, false);
+				return failure(sub, application);
 				//return null;
 			}
 		}
@@ -78,9 +90,13 @@ public final class ExtensionRule extends Rule<FlatConstraint> {
 	private final class Application extends Rule.Application {
 
 		protected Atom at;
+		protected int index;
+		protected final int[] order;
 
-		protected Application(Atom at) {
+		protected Application(Atom at, int index, int[] order) {
 			this.at = at;
+			this.index = index;
+			this.order = order;
 		}
 
 		@Override
@@ -1,6 +1,6 @@
 package de.tudresden.inf.lat.uel.rule.rules;
 
-import java.util.Collections;
+import java.util.List;
 
 import de.tudresden.inf.lat.uel.rule.Assignment;
 import de.tudresden.inf.lat.uel.rule.FlatConstraint;
@@ -16,14 +16,8 @@ public class LocalExtension extends Rule<FlatConstraint>{
         if (dissub.isDissubsumption()) {
             if (dissub.getBody().size() == 1 && dissub.getDissubsumptionHead().size() == 1) {
                 Atom head = dissub.getDissubsumptionHead().get(0);
-                Atom body = dissub.getBody().get(0);
                 if (head.isVariable()) {
-                    if (assign.getNonVariableAtoms() == null) {
-                        throw new IllegalArgumentException("No NonVariableAtoms.");
-                    }
-                    for (Atom D : assign.getNonVariableAtoms()) {
-                        return new Application(D);
-                    }
+                    return findApplication(head, assign, 0, null);
                 }
             }
         }
@@ -37,11 +31,26 @@ public class LocalExtension extends Rule<FlatConstraint>{
                 throw new IllegalArgumentException("Expected rule application of type ExtensionRule.Application.");
             }
             Application appl = (Application) previous;
-            if (assign.getNonVariableAtoms().size() == 0) {
-                throw new IllegalArgumentException("No NonVariableAtoms.");
-            }
-            for (int i = assign.getNonVariableAtoms().indexOf(appl.D) + 1; i < assign.getNonVariableAtoms().size(); i++) {
-                appl.D = assign.getNonVariableAtoms().get(i);
+            return findApplication(dissub.getDissubsumptionHead().get(0), assign, appl.index + 1, appl);
+        }
+        return null;
+    }
+
+    /**
+     * Find the next candidate subsumer of the variable, starting at the given
+     * position, that does not make the assignment cyclic or violate a domain
+     * restriction.
+     */
+    private Application findApplication(Atom X, Assignment assign, int start, Application appl) {
+        List<Atom> candidates = assign.getCandidateSubsumers(X);
+        for (int i = start; i < candidates.size(); i++) {
+            Atom D = candidates.get(i);
+            if (assign.admitsSubsumer(X, D)) {
+                if (appl == null) {
+                    return new Application(D, i);
+                }
+                appl.D = D;
+                appl.index = i;
                 return appl;
             }
         }
@@ -58,18 +67,18 @@ public class LocalExtension extends Rule<FlatConstraint>{
 
         if (assign.makesCyclic(X, D)) {
                 //System.out.println("this make cyclic");
-                return new Result(dissub, application, false);
+                return failure(dissub, application);
             }
         if (D.isExistentialRestriction()){
             // domain and range restrictions
             if (!assign.isCompatibleTypeAboutDomain(X, D) || !assign.isCompatibleTypeAboutRange(D)) {
-                return new Result(dissub, application, false);
+                return failure(dissub, application);
                 //return null;
             }
         }
         Result res = new Result(dissub, application);
         res.getNewSubsumers().add(X, D);
-        FlatConstraint newDissub = new FlatConstraint(dissub.getBody(), D, true);
+        FlatConstraint newDissub = assign.getConstraintFactory().create(dissub.getBody(), D, true);
         res.getNewUnsolvedConstraints().add(newDissub);
         //System.out.println("LE has been applied" + dissub);
         return res;
@@ -83,9 +92,11 @@ public class LocalExtension extends Rule<FlatConstraint>{
     private final class Application extends Rule.Application {
 
         protected Atom D;
+        protected int index;
 
-        protected Application(Atom D) {
+        protected Application(Atom D, int index) {
             this.D = D;
+            this.index = index;
         }
 
         @Override
@@ -58,7 +58,7 @@ public final class RightDecomposition extends Rule<FlatConstraint> {
         Result res = new Result(dissub, application);
         Atom head = ((Application) application).head;
         List<Atom> body = dissub.getBody();
-        FlatConstraint newDissub = new FlatConstraint(body, Collections.<Atom> singletonList(head), true);
+        FlatConstraint newDissub = assign.getConstraintFactory().create(body, Collections.<Atom> singletonList(head), true);
         res.getNewUnsolvedConstraints().add(newDissub);
         //System.out.println("RDec has been applied" + dissub);
         return res;
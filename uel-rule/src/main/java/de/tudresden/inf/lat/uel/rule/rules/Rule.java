@@ -70,6 +70,26 @@ public abstract class Rule<T> {
 	 */
 	abstract String shortcut();
 
+	/**
+	 * Returns the result of a failed application of this rule. Since the same
+	 * rule application object is reused for subsequent applications to the
+	 * same subsumption or dissubsumption, the failed result is only created
+	 * once for each of them. The result is shared and must not be modified.
+	 * 
+	 * @param con
+	 *            the subsumption or dissubsumption this rule was applied to
+	 * @param application
+	 *            the failed application
+	 * @return the result of the failed application
+	 */
+	final Result<T> failure(T con, Application application) {
+		if ((application.failure == null) || (application.failedConstraint != con)) {
+			application.failure = new Result<>(con, application, false);
+			application.failedConstraint = con;
+		}
+		return application.failure;
+	}
+
 	/**
 	 * This is the common base class of all rule applications. Classes derived
 	 * from this can be used to store certain details of the specific rule
@@ -79,6 +99,9 @@ public abstract class Rule<T> {
 	 */
 	public class Application {
 
+		private Result<T> failure = null;
+		private T failedConstraint = null;
+
 		/**
 		 * A helper method to access the rule that was applied.
 		 * 
@@ -4,11 +4,13 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.Vector;
 import java.util.stream.Collectors;
 
@@ -19,6 +21,7 @@ import de.tudresden.inf.lat.uel.sat.literals.OrderLiteral;
 import de.tudresden.inf.lat.uel.sat.literals.SubsumptionLiteral;
 import de.tudresden.inf.lat.uel.sat.literals.SubtypeLiteral;
 import de.tudresden.inf.lat.uel.sat.literals.UnaryChoice;
+import de.tudresden.inf.lat.uel.sat.type.BranchingHeuristic;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Disequation;
@@ -29,6 +32,8 @@ import de.tudresden.inf.lat.uel.type.api.IndexedSet;
 import de.tudresden.inf.lat.uel.type.api.Subsumption;
 import de.tudresden.inf.lat.uel.type.impl.AbstractUnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.impl.IndexedSetImpl;
+import de.tudresden.inf.lat.uel.type.impl.TypeIndex;
+import de.tudresden.inf.lat.uel.type.impl.VariableSymmetries;
 
 /**
  * @author Stefan Borgwardt
@@ -38,6 +43,7 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 
 	private static final String algorithmName = "SAT-based algorithm";
 	private static final String keyAverageSize = "Average size of a clause";
+	private static final String keyBranchingHeuristic = "Branching heuristic";
 	private static final String keyChoicePropositions = "Choice propositions";
 	private static final String keyConfiguration = "Configuration";
 	private static final String keyName = "Name";
@@ -46,10 +52,17 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 	private static final String keyOrderPropositions = "Order propositions";
 	private static final String keySubsumptionPropositions = "Subsumption propositions";
 	private static final String keySubtypePropositions = "Subtype propositions";
+	private static final String keySymmetries = "Symmetries";
 	private static final String keyTotalSize = "Total size of all clauses";
 	private static final String notUsingMinimalAssignments = "all local assignments";
+	private static final String smallestFirst = ", smallest first";
 	private static final String usingMinimalAssignments = "only minimal assignments";
 
+	/**
+	 * Determines how the SAT solver should choose the literals to branch on.
+	 */
+	protected final BranchingHeuristic branchingHeuristic;
+
 	/**
 	 * An auxiliary variable to hold the SatInput under construction.
 	 */
@@ -65,6 +78,14 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 	 */
 	protected final boolean onlyMinimalAssignments;
 
+	/**
+	 * Indicates whether unifiers should be computed in the order of
+	 * non-decreasing size of the substitution sets of the user variables.
+	 */
+	protected final boolean smallestUnifiersFirst;
+
+	private boolean symmetryBreaking = true;
+
 	/**
 	 * Initialize a new SAT-based unification algorithm.
 	 * 
@@ -74,15 +95,65 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 	 *            indicates whether assignments should be minimized
 	 */
 	public AbstractSatUnificationAlgorithm(Goal goal, boolean onlyMinimalAssignments) {
+		this(goal, onlyMinimalAssignments, BranchingHeuristic.DEFAULT);
+	}
+
+	/**
+	 * Initialize a new SAT-based unification algorithm.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param onlyMinimalAssignments
+	 *            indicates whether assignments should be minimized
+	 * @param branchingHeuristic
+	 *            the branching heuristic to be used by the SAT solver
+	 */
+	public AbstractSatUnificationAlgorithm(Goal goal, boolean onlyMinimalAssignments,
+			BranchingHeuristic branchingHeuristic) {
+		this(goal, onlyMinimalAssignments, false, branchingHeuristic);
+	}
+
+	/**
+	 * Initialize a new SAT-based unification algorithm.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param onlyMinimalAssignments
+	 *            indicates whether assignments should be minimized
+	 * @param smallestUnifiersFirst
+	 *            indicates whether unifiers should be computed in the order of
+	 *            non-decreasing size
+	 * @param branchingHeuristic
+	 *            the branching heuristic to be used by the SAT solver
+	 */
+	public AbstractSatUnificationAlgorithm(Goal goal, boolean onlyMinimalAssignments, boolean smallestUnifiersFirst,
+			BranchingHeuristic branchingHeuristic) {
 		super(goal);
 		this.onlyMinimalAssignments = onlyMinimalAssignments;
+		this.smallestUnifiersFirst = smallestUnifiersFirst;
+		this.branchingHeuristic = branchingHeuristic;
 
 		addInfo(keyName, algorithmName);
-		if (onlyMinimalAssignments) {
-			addInfo(keyConfiguration, usingMinimalAssignments);
-		} else {
-			addInfo(keyConfiguration, notUsingMinimalAssignments);
+		String configuration = onlyMinimalAssignments ? usingMinimalAssignments : notUsingMinimalAssignments;
+		if (smallestUnifiersFirst) {
+			configuration += smallestFirst;
 		}
+		addInfo(keyConfiguration, configuration);
+		addInfo(keyBranchingHeuristic, branchingHeuristic);
+	}
+
+	/**
+	 * Determines whether symmetries between auxiliary variables are broken in
+	 * the encoding. This does not affect the unifiers as seen by the user, but
+	 * avoids computing several unifiers that differ only in the auxiliary
+	 * variables. This must be set before the encoding is computed.
+	 * 
+	 * @param symmetryBreaking
+	 *            'true' iff symmetry breaking constraints should be added
+	 *            (default: 'true')
+	 */
+	public void setSymmetryBreaking(boolean symmetryBreaking) {
+		this.symmetryBreaking = symmetryBreaking;
 	}
 
 	private void checkInterrupted() throws InterruptedException {
@@ -145,10 +216,18 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 			encodeUndefContextRestriction();
 		}
 
-		if (onlyMinimalAssignments) {
+		if (onlyMinimalAssignments || smallestUnifiersFirst) {
 			encodeMinimalAssignments();
 		}
 
+		if (symmetryBreaking) {
+			encodeSymmetryBreaking();
+		}
+
+		if (branchingHeuristic == BranchingHeuristic.GOAL_AWARE) {
+			encodeBranchingHints();
+		}
+
 		updateInfo();
 		return input;
 	}
@@ -179,11 +258,41 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 		return subsets;
 	}
 
+	private void encodeBranchingHints() {
+		// decide the substitution sets of the user variables first, then the
+		// remaining subsumptions and types, and finally order and choice
+		// literals (which are not part of any decision level)
+		Set<Integer> userLiterals = new HashSet<Integer>();
+		Set<Integer> otherLiterals = new HashSet<Integer>();
+		Set<Integer> negativeLiterals = new HashSet<Integer>();
+		for (Literal literal : literalManager) {
+			Integer literalId = literalManager.getIndex(literal);
+			if (literal instanceof SubsumptionLiteral) {
+				boolean variable = getVariables().contains(literal.getFirst());
+				if (variable && getNonVariableAtoms().contains(literal.getSecond())) {
+					negativeLiterals.add(literalId);
+				}
+				if (getUserVariables().contains(literal.getFirst())) {
+					userLiterals.add(literalId);
+				} else {
+					otherLiterals.add(literalId);
+				}
+			} else if (literal instanceof SubtypeLiteral) {
+				otherLiterals.add(literalId);
+			}
+		}
+		input.addDecisionLevel(userLiterals);
+		input.addDecisionLevel(otherLiterals);
+		input.addNegativePhaseLiterals(negativeLiterals);
+	}
+
 	private void encodeCompatibilityRestrictions() throws InterruptedException {
+		TypeIndex types = goal.getTypeIndex();
+
 		// no substitution set can contain incompatible variables
 		for (Integer atomId1 : getVariables()) {
 			for (Integer atomId2 : getVariables()) {
-				if (!goal.areCompatible(atomId1, atomId2)) {
+				if (!types.areCompatible(atomId1, atomId2)) {
 					checkInterrupted();
 
 					for (Integer varId : getVariables()) {
@@ -197,7 +306,7 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 		for (List<Integer> typePair : computeSubsets(goal.getRoleGroupTypes().keySet(), 2)) {
 			Integer type1 = typePair.get(0);
 			Integer type2 = typePair.get(1);
-			if (!goal.areCompatible(type1, type2)) {
+			if (!types.areCompatible(type1, type2)) {
 				checkInterrupted();
 
 				Integer roleGroupType1 = goal.getRoleGroupTypes().get(type1);
@@ -327,6 +436,8 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 	}
 
 	private void encodeDomainAndRangeRestrictions() throws InterruptedException {
+		TypeIndex types = goal.getTypeIndex();
+
 		// domain restrictions
 		for (Integer varId : getVariables()) {
 			for (Integer eatomId : getExistentialRestrictions()) {
@@ -335,7 +446,7 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 				if (domain != null) {
 					checkInterrupted();
 
-					Set<Integer> head = domain.stream().map(type -> goal.getRoleGroupTypes().values().contains(type)
+					Set<Integer> head = domain.stream().map(type -> types.isRoleGroupType(type)
 							? subtype(varId, type) : subsumption(varId, type)).collect(Collectors.toSet());
 					input.addImplication(head, subsumption(varId, eatomId));
 				}
@@ -387,6 +498,10 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 				input.addMinimizeLiteral(subsumption(varId, atomId));
 			}
 		}
+		if (!onlyMinimalAssignments) {
+			// the size of a unifier only depends on the substitution sets
+			return;
+		}
 		// minimize subtype literals
 		for (Integer type : goal.getTypes()) {
 			checkInterrupted();
@@ -430,6 +545,7 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 	}
 
 	private void encodeRoleNumberRestrictions() throws InterruptedException {
+		TypeIndex types = goal.getTypeIndex();
 		for (Integer roleId : goal.getAtomManager().getRoleIds()) {
 			int number = goal.getRoleNumberRestrictions().get(roleId);
 			if (number > 0) {
@@ -452,7 +568,7 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 						// compatible ...
 						Integer varChild1 = twoVariableChildren.get(0);
 						Integer varChild2 = twoVariableChildren.get(1);
-						if (goal.areCompatible(varChild1, varChild2)) {
+						if (types.areCompatible(varChild1, varChild2)) {
 							// ... and either one subsumes the other ...
 							options.add(subsumption(varChild1, varChild2));
 							options.add(subsumption(varChild2, varChild1));
@@ -569,6 +685,42 @@ public abstract class AbstractSatUnificationAlgorithm extends AbstractUnificatio
 		}
 	}
 
+	private void encodeSymmetryBreaking() throws InterruptedException {
+		VariableSymmetries symmetries = new VariableSymmetries(goal);
+		addInfo(keySymmetries, symmetries.getInterchangeablePairs().size() + " interchangeable pairs");
+
+		// lex-leader constraints for interchangeable variables: w.r.t. a fixed
+		// order of the constants, the substitution set of the first variable
+		// must be lexicographically smaller or equal to that of the second
+		List<Integer> constants = new ArrayList<Integer>(new TreeSet<Integer>(getConstants()));
+		for (List<Integer> pair : symmetries.getInterchangeablePairs()) {
+			checkInterrupted();
+
+			// 'equal' signals that both sets agree on all constants so far
+			Integer equal = null;
+			for (int i = 0; i < constants.size(); i++) {
+				Integer first = subsumption(pair.get(0), constants.get(i));
+				Integer second = subsumption(pair.get(1), constants.get(i));
+				if (equal == null) {
+					input.addImplication(second, first);
+				} else {
+					input.addImplication(second, equal, first);
+				}
+				if (i < constants.size() - 1) {
+					Integer next = literalManager.addAndGetIndex(new ChoiceLiteral());
+					if (equal == null) {
+						input.addImplication(next, first);
+						input.add(new HashSet<Integer>(Arrays.asList(next, second)));
+					} else {
+						input.addImplication(next, equal, first);
+						input.add(new HashSet<Integer>(Arrays.asList(next, -equal, second)));
+					}
+					equal = next;
+				}
+			}
+		}
+	}
+
 	private void encodeTransitivityOfOrder() throws InterruptedException {
 		for (Integer atomId1 : getVariables()) {
 			for (Integer atomId2 : getVariables()) {
@@ -0,0 +1,237 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.GateTranslator;
+
+import de.tudresden.inf.lat.uel.sat.type.CountEstimate;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+
+/**
+ * An object of this class estimates the number of models of a SAT problem,
+ * projected onto a given set of propositional variables, without enumerating
+ * all of them. It follows the ApproxMC algorithm described in S. Chakraborty,
+ * K. S. Meel, M. Y. Vardi, "Algorithmic Improvements in Approximate Counting
+ * for Probabilistic Inference: From Linear to Logarithmic SAT Calls", IJCAI
+ * 2016: the models are split into cells by random XOR constraints until the
+ * number of models in one cell is small enough to be enumerated, and the size
+ * of this cell is multiplied by the number of cells.
+ *
+ * Sat4j has no native support for XOR constraints, so they are translated
+ * into chains of ternary XOR gates. All hash constraints and blocking clauses
+ * are guarded by selector variables, which are activated by assumptions. This
+ * allows to use a single incremental solver for all SAT calls of one estimate.
+ * Each call of {@link #count(double, double)} starts with a new solver.
+ */
+public class ApproximateModelCounter {
+
+	private final SatInput input;
+	private final int[] projection;
+	private final Random random;
+	private GateTranslator solver;
+
+	/**
+	 * Constructs a new counter.
+	 *
+	 * @param input
+	 *            the SAT problem
+	 * @param projection
+	 *            the propositional variables that distinguish the models to be
+	 *            counted
+	 * @param random
+	 *            the source of randomness for choosing the hash functions
+	 */
+	public ApproximateModelCounter(SatInput input, Set<Integer> projection, Random random) {
+		this.input = input;
+		this.projection = SatInput.toArray(projection);
+		Arrays.sort(this.projection);
+		this.random = random;
+	}
+
+	/**
+	 * Creates a new solver containing the clauses of the SAT problem. Since the
+	 * hash constraints and blocking clauses cannot be removed from the solver,
+	 * each call of 'count' uses a new solver.
+	 *
+	 * @return 'false' iff the SAT problem is trivially unsatisfiable
+	 */
+	private boolean createSolver() throws InterruptedException {
+		solver = new GateTranslator(SolverFactory.newDefault());
+		int lastId = input.getLastId();
+		for (int var : projection) {
+			lastId = Math.max(lastId, var);
+		}
+		solver.newVar(lastId);
+		for (Set<Integer> clause : input.getClauses()) {
+			try {
+				solver.addClause(new VecInt(SatInput.toArray(clause)));
+			} catch (ContradictionException e) {
+				return false;
+			}
+
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the number of models that are contained in the cell described
+	 * by the given assumptions, up to a given limit.
+	 */
+	private int boundedCount(List<Integer> assumptions, int limit)
+			throws TimeoutException, ContradictionException, InterruptedException {
+		int cell = solver.nextFreeVarId(true);
+		VecInt activated = new VecInt(assumptions.size() + 1);
+		for (Integer selector : assumptions) {
+			activated.push(selector);
+		}
+		activated.push(cell);
+
+		int count = 0;
+		while ((count < limit) && solver.isSatisfiable(activated)) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+
+			count++;
+			// block this assignment of the projection variables within the
+			// current cell
+			VecInt blockingClause = new VecInt(projection.length + 1);
+			blockingClause.push(-cell);
+			for (int var : projection) {
+				blockingClause.push(solver.model(var) ? -var : var);
+			}
+			solver.addClause(blockingClause);
+		}
+
+		// disable the blocking clauses of this cell
+		solver.addClause(new VecInt(new int[] { -cell }));
+		return count;
+	}
+
+	/**
+	 * Estimates the number of models. With probability at least 1 - delta, the
+	 * result differs from the real count by at most a factor of 1 + epsilon.
+	 *
+	 * @param epsilon
+	 *            the tolerance (greater than 0)
+	 * @param delta
+	 *            the admissible probability of error (between 0 and 1)
+	 * @return the estimated number of models
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	public CountEstimate count(double epsilon, double delta) throws InterruptedException {
+		if ((epsilon <= 0) || (delta <= 0) || (delta >= 1)) {
+			throw new IllegalArgumentException("Invalid tolerance or confidence.");
+		}
+		int threshold = 1
+				+ (int) Math.ceil(9.84 * (1 + epsilon / (1 + epsilon)) * (1 + 1 / epsilon) * (1 + 1 / epsilon));
+		int iterations = (int) Math.ceil(17 * Math.log(3 / delta) / Math.log(2));
+
+		try {
+			if (!createSolver()) {
+				return new CountEstimate(0);
+			}
+
+			int count = boundedCount(new ArrayList<Integer>(), threshold);
+			if (count < threshold) {
+				return new CountEstimate(count);
+			}
+
+			List<Double> estimates = new ArrayList<Double>();
+			int previous = 1;
+			for (int i = 0; i < iterations; i++) {
+				List<Integer> hashes = new ArrayList<Integer>();
+				Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+				counts.put(0, count);
+
+				// search for the smallest number of hash constraints that
+				// leads to a small cell, starting from the previous result
+				int m = previous;
+				while (true) {
+					int cellCount = countCell(hashes, m, threshold, counts);
+					if (cellCount >= threshold) {
+						m++;
+					} else if (countCell(hashes, m - 1, threshold, counts) < threshold) {
+						m--;
+					} else {
+						estimates.add(cellCount * Math.pow(2, m));
+						break;
+					}
+				}
+				previous = m;
+			}
+
+			estimates.sort(null);
+			return new CountEstimate(estimates.get(estimates.size() / 2), epsilon, 1 - delta);
+		} catch (TimeoutException e) {
+			throw new RuntimeException(e);
+		} catch (ContradictionException e) {
+			// cannot happen, since all added clauses contain an inactive
+			// selector literal
+			throw new IllegalStateException(e);
+		} finally {
+			// release the memory of the solver
+			solver.reset();
+			solver = null;
+		}
+	}
+
+	private int countCell(List<Integer> hashes, int m, int threshold, Map<Integer, Integer> counts)
+			throws TimeoutException, ContradictionException, InterruptedException {
+		Integer count = counts.get(m);
+		if (count == null) {
+			while (hashes.size() < m) {
+				hashes.add(createHashConstraint());
+			}
+			count = boundedCount(hashes.subList(0, m), threshold);
+			counts.put(m, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Adds a random XOR constraint over the projection variables and returns
+	 * the selector variable that activates it.
+	 */
+	private int createHashConstraint() throws ContradictionException {
+		int selector = solver.nextFreeVarId(true);
+		boolean parity = random.nextBoolean();
+		int xor = 0;
+		for (int var : projection) {
+			if (random.nextBoolean()) {
+				if (xor == 0) {
+					xor = var;
+				} else {
+					int gate = solver.nextFreeVarId(true);
+					solver.xor(gate, xor, var);
+					xor = gate;
+				}
+			}
+		}
+
+		if (xor == 0) {
+			// the empty XOR is always 'false'
+			if (parity) {
+				solver.addClause(new VecInt(new int[] { -selector }));
+			}
+		} else {
+			solver.addClause(new VecInt(new int[] { -selector, parity ? xor : -xor }));
+		}
+		return selector;
+	}
+
+}
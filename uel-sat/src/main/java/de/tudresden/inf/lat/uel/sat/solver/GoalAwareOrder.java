@@ -0,0 +1,117 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.Set;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.minisat.core.ICDCL;
+import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+import org.sat4j.minisat.orders.LevelBasedVarOrderHeap;
+import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
+import org.sat4j.specs.ISolver;
+
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+
+/**
+ * A variable order for Sat4j that uses the decision levels and preferred
+ * phases specified in a SatInput. Within one decision level, variables are
+ * still chosen according to their activity.
+ */
+public class GoalAwareOrder extends LevelBasedVarOrderHeap {
+
+	private static final long serialVersionUID = 3319536093493453128L;
+
+	/**
+	 * Install a goal-aware order in the given solver if the SAT input contains
+	 * decision levels and the solver supports custom orders.
+	 *
+	 * @param solver
+	 *            the Sat4j solver
+	 * @param input
+	 *            the SAT input
+	 * @return 'true' iff the order was changed
+	 */
+	public static boolean install(ISolver solver, SatInput input) {
+		if (input.getDecisionLevels().isEmpty() || !(solver instanceof ICDCL)) {
+			return false;
+		}
+		((ICDCL<?>) solver).setOrder(new GoalAwareOrder(input));
+		return true;
+	}
+
+	/**
+	 * Construct a new order from the decision levels and preferred phases of
+	 * the given SAT input.
+	 *
+	 * @param input
+	 *            the SAT input
+	 */
+	public GoalAwareOrder(SatInput input) {
+		super(new NegativePhaseSelectionStrategy(input.getNegativePhaseLiterals()));
+		for (Set<Integer> level : input.getDecisionLevels()) {
+			addLevel(SatInput.toArray(level));
+		}
+	}
+
+	/**
+	 * Uses phase saving, except for the given variables, which are always
+	 * tried with 'false' first.
+	 */
+	private static class NegativePhaseSelectionStrategy implements IPhaseSelectionStrategy {
+
+		private static final long serialVersionUID = -2036402297150413870L;
+
+		private final IPhaseSelectionStrategy delegate = new RSATPhaseSelectionStrategy();
+		private boolean[] negative = new boolean[0];
+		private final Set<Integer> negativeVars;
+
+		NegativePhaseSelectionStrategy(Set<Integer> negativeVars) {
+			this.negativeVars = negativeVars;
+		}
+
+		@Override
+		public void assignLiteral(int p) {
+			delegate.assignLiteral(p);
+		}
+
+		@Override
+		public void init(int nlength) {
+			delegate.init(nlength);
+			negative = new boolean[nlength];
+			for (Integer var : negativeVars) {
+				if (var < nlength) {
+					negative[var] = true;
+				}
+			}
+		}
+
+		@Override
+		public void init(int var, int p) {
+			delegate.init(var, p);
+		}
+
+		@Override
+		public int select(int var) {
+			if (var < negative.length && negative[var]) {
+				return LiteralsUtils.negLit(var);
+			}
+			return delegate.select(var);
+		}
+
+		@Override
+		public String toString() {
+			return "negative phase for subsumption literals, phase saving otherwise";
+		}
+
+		@Override
+		public void updateVar(int p) {
+			delegate.updateVar(p);
+		}
+
+		@Override
+		public void updateVarAtDecisionLevel(int q) {
+			delegate.updateVarAtDecisionLevel(q);
+		}
+
+	}
+
+}
@@ -0,0 +1,173 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.pb.IPBSolver;
+import org.sat4j.pb.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.TimeoutException;
+
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.SatSolver;
+
+/**
+ * An object of this class uses the Sat4j pseudo-Boolean solver to enumerate
+ * the models of a SAT problem in the order of non-decreasing cost, where the
+ * cost of a model is the number of minimize literals that are set to 1 (true).
+ *
+ * Each call to {@link #solve(SatInput)} or {@link #update(Set)} returns a model
+ * of minimal cost. Since updates only add (blocking) clauses, the optimal cost
+ * can never decrease and serves as a lower bound for the next call. The cost
+ * bounds are attached to selector variables and activated by assumptions, so
+ * that the solver state (including learned clauses) is kept between calls.
+ */
+public class Sat4jCostOrderedSolver implements SatSolver {
+
+	private boolean cleanedUp = false;
+	private int[] costLiterals;
+	private int lastCost = 0;
+	private Integer nbVars;
+	private final Map<Integer, Integer> selectors = new HashMap<Integer, Integer>();
+	private IPBSolver solver;
+
+	/**
+	 * Constructs a new solver.
+	 */
+	public Sat4jCostOrderedSolver() {
+	}
+
+	@Override
+	public void cleanup() {
+		if ((solver != null) && !cleanedUp) {
+			solver.reset();
+			// we only need to reset the solver once
+			cleanedUp = true;
+		}
+	}
+
+	private int cost(Set<Integer> model) {
+		int cost = 0;
+		for (int literal : costLiterals) {
+			if (model.contains(literal)) {
+				cost++;
+			}
+		}
+		return cost;
+	}
+
+	/**
+	 * Returns the cost of the last model computed by this solver.
+	 *
+	 * @return the number of minimize literals that are true in the last model
+	 */
+	public int getLastCost() {
+		return lastCost;
+	}
+
+	private Integer getSelector(int bound) throws ContradictionException {
+		Integer selector = selectors.get(bound);
+		if (selector == null) {
+			// selector -> (sum of cost literals <= bound), expressed as
+			// (sum of cost literals) + (n - bound) * selector <= n
+			selector = solver.nextFreeVarId(true);
+			int[] literals = new int[costLiterals.length + 1];
+			int[] coefficients = new int[costLiterals.length + 1];
+			for (int i = 0; i < costLiterals.length; i++) {
+				literals[i] = costLiterals[i];
+				coefficients[i] = 1;
+			}
+			literals[costLiterals.length] = selector;
+			coefficients[costLiterals.length] = costLiterals.length - bound;
+			solver.addAtMost(new VecInt(literals), new VecInt(coefficients), costLiterals.length);
+			selectors.put(bound, selector);
+		}
+		return selector;
+	}
+
+	private SatOutput getSatOutput() throws InterruptedException {
+		try {
+			if (!solver.isSatisfiable()) {
+				return new SatOutput(false, Collections.<Integer> emptySet());
+			}
+			Set<Integer> model = getModel();
+			int upperBound = cost(model);
+
+			// binary search between the previous optimum and the cost of the
+			// current model
+			int lowerBound = lastCost;
+			while (lowerBound < upperBound) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+
+				int bound = (lowerBound + upperBound) / 2;
+				if (solver.isSatisfiable(new VecInt(new int[] { getSelector(bound) }))) {
+					model = getModel();
+					upperBound = cost(model);
+				} else {
+					lowerBound = bound + 1;
+				}
+			}
+
+			lastCost = upperBound;
+			return new SatOutput(true, model);
+		} catch (TimeoutException e) {
+			throw new RuntimeException(e);
+		} catch (ContradictionException e) {
+			// cannot happen, since the bound constraints are always satisfiable
+			// by setting the selector to false
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Set<Integer> getModel() {
+		Set<Integer> model = new HashSet<Integer>();
+		for (int literal : solver.model()) {
+			if ((literal > 0) && (literal <= nbVars)) {
+				model.add(literal);
+			}
+		}
+		return model;
+	}
+
+	@Override
+	public SatOutput solve(SatInput input) throws InterruptedException {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		solver = SolverFactory.newDefault();
+		GoalAwareOrder.install(solver, input);
+		nbVars = input.getLastId();
+		solver.newVar(nbVars);
+		costLiterals = SatInput.toArray(input.getMinimizeLiterals());
+		for (Set<Integer> clause : input.getClauses()) {
+			try {
+				solver.addClause(new VecInt(SatInput.toArray(clause)));
+			} catch (ContradictionException e) {
+				return new SatOutput(false, Collections.<Integer> emptySet());
+			}
+
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		return getSatOutput();
+	}
+
+	@Override
+	public SatOutput update(Set<Integer> clause) throws InterruptedException {
+		try {
+			solver.addClause(new VecInt(SatInput.toArray(clause)));
+		} catch (ContradictionException e) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		return getSatOutput();
+	}
+}
@@ -7,6 +7,7 @@ import java.util.Set;
 import org.sat4j.core.VecInt;
 import org.sat4j.maxsat.SolverFactory;
 import org.sat4j.maxsat.WeightedMaxSatDecorator;
+import org.sat4j.pb.IPBSolver;
 import org.sat4j.pb.PseudoOptDecorator;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IOptimizationProblem;
@@ -81,9 +82,9 @@ public class Sat4jMaxSatSolver implements SatSolver {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		// TODO: use own VarOrder and PhaseSelectionStrategy?
-
-		solver = new WeightedMaxSatDecorator(SolverFactory.newDefault());
+		IPBSolver pbSolver = SolverFactory.newDefault();
+		GoalAwareOrder.install(pbSolver, input);
+		solver = new WeightedMaxSatDecorator(pbSolver);
 		nbVars = input.getLastId();
 		solver.newVar(nbVars);
 		solver.addLiteralsToMinimize(new VecInt(SatInput.toArray(input.getMinimizeLiterals())));
@@ -66,6 +66,7 @@ public class Sat4jSolver implements SatSolver {
 		}
 
 		solver = SolverFactory.newDefault();
+		GoalAwareOrder.install(solver, input);
 		solver.newVar(input.getLastId());
 		for (Set<Integer> clause : input.getClauses()) {
 			try {
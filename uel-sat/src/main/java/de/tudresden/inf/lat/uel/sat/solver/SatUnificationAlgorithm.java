@@ -3,10 +3,13 @@ package de.tudresden.inf.lat.uel.sat.solver;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import de.tudresden.inf.lat.uel.sat.type.BranchingHeuristic;
+import de.tudresden.inf.lat.uel.sat.type.CountEstimate;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.SatSolver;
 import de.tudresden.inf.lat.uel.type.api.Definition;
@@ -128,6 +131,41 @@ public class SatUnificationAlgorithm extends AbstractSatUnificationAlgorithm {
 		super(goal, onlyMinimalAssignments);
 	}
 
+	/**
+	 * Initialize an instance of the SAT-based unification algorithm.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param onlyMinimalAssignments
+	 *            indicates whether only unifiers based on minimal assignments
+	 *            should be returned
+	 * @param branchingHeuristic
+	 *            the branching heuristic to be used by the SAT solver
+	 */
+	public SatUnificationAlgorithm(Goal goal, boolean onlyMinimalAssignments, BranchingHeuristic branchingHeuristic) {
+		super(goal, onlyMinimalAssignments, branchingHeuristic);
+	}
+
+	/**
+	 * Initialize an instance of the SAT-based unification algorithm.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param onlyMinimalAssignments
+	 *            indicates whether only unifiers based on minimal assignments
+	 *            should be returned
+	 * @param smallestUnifiersFirst
+	 *            indicates whether the unifiers should be returned in the order
+	 *            of non-decreasing total size of the substitution sets of the
+	 *            user variables
+	 * @param branchingHeuristic
+	 *            the branching heuristic to be used by the SAT solver
+	 */
+	public SatUnificationAlgorithm(Goal goal, boolean onlyMinimalAssignments, boolean smallestUnifiersFirst,
+			BranchingHeuristic branchingHeuristic) {
+		super(goal, onlyMinimalAssignments, smallestUnifiersFirst, branchingHeuristic);
+	}
+
 	@Override
 	public void cleanup() {
 		if (solver != null) {
@@ -149,12 +187,19 @@ public class SatUnificationAlgorithm extends AbstractSatUnificationAlgorithm {
 		try {
 			if (firstTime) {
 				// System.out.println("Initializing SAT problem ...");
-				if (onlyMinimalAssignments) {
+				if (smallestUnifiersFirst) {
+					solver = new Sat4jCostOrderedSolver();
+				} else if (onlyMinimalAssignments) {
 					solver = new Sat4jMaxSatSolver();
 				} else {
 					solver = new Sat4jSolver();
 				}
-				computeSatInput();
+				if (input == null) {
+					// the encoding may have been computed before by
+					// 'isUnifiable' or 'estimateNumberOfUnifiers'
+					computeSatInput();
+					callbackPreprocessing();
+				}
 
 				//// DEBUG
 				// StringBuffer sbuf = new StringBuffer();
@@ -191,7 +236,6 @@ public class SatUnificationAlgorithm extends AbstractSatUnificationAlgorithm {
 				// }
 				// System.out.println(sbuf);
 
-				callbackPreprocessing();
 				satoutput = solver.solve(input);
 				unifiable = satoutput.isSatisfiable();
 
@@ -261,14 +305,25 @@ public class SatUnificationAlgorithm extends AbstractSatUnificationAlgorithm {
 
 	private Set<Integer> computeUpdate() {
 		Set<Integer> update = new HashSet<Integer>();
-		// for (Integer firstAtomId : getUserVariables()) {
-		for (Integer varId : getVariables()) {
+		if (onlyMinimalAssignments) {
+			// exclude the current assignment and all larger ones w.r.t. the
+			// minimized literals; the remaining literals are not minimized,
+			// and thus their values depend on the model chosen by the solver
+			for (Integer literalId : input.getMinimizeLiterals()) {
+				if (valuation.contains(literalId)) {
+					update.add(-literalId);
+				}
+			}
+			return update;
+		}
+		// when enumerating by size, only the substitution sets of the user
+		// variables are relevant; blocking the auxiliary variables as well
+		// would return the same unifier several times
+		Set<Integer> blockedVariables = smallestUnifiersFirst ? getUserVariables() : getVariables();
+		for (Integer varId : blockedVariables) {
 			for (Integer atomId : getNonVariableAtoms()) {
 				Integer literalId = subsumption(varId, atomId);
-				boolean literalValue = valuation.contains(literalId);
-				if (!onlyMinimalAssignments || literalValue) {
-					update.add(literalValue ? -literalId : literalId);
-				}
+				update.add(valuation.contains(literalId) ? -literalId : literalId);
 			}
 		}
 		return update;
@@ -279,4 +334,53 @@ public class SatUnificationAlgorithm extends AbstractSatUnificationAlgorithm {
 		return result;
 	}
 
+	/**
+	 * Estimates the number of unifiers that differ in the substitution sets of
+	 * the user variables, without enumerating them. Minimality of assignments
+	 * is not taken into account.
+	 * 
+	 * @param epsilon
+	 *            the tolerance: with probability at least 1 - delta, the
+	 *            estimate differs from the real number by at most a factor of
+	 *            1 + epsilon
+	 * @param delta
+	 *            the admissible probability of error
+	 * @param random
+	 *            the source of randomness
+	 * @return the estimated number of unifiers
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	public CountEstimate estimateNumberOfUnifiers(double epsilon, double delta, Random random)
+			throws InterruptedException {
+		if (input == null) {
+			computeSatInput();
+			callbackPreprocessing();
+		}
+
+		Set<Integer> projection = new HashSet<Integer>();
+		for (Integer varId : getUserVariables()) {
+			for (Integer atomId : getNonVariableAtoms()) {
+				projection.add(subsumption(varId, atomId));
+			}
+		}
+		return new ApproximateModelCounter(input, projection, random).count(epsilon, delta);
+	}
+
+	@Override
+	public boolean isUnifiable() throws InterruptedException {
+		if (input == null) {
+			computeSatInput();
+			callbackPreprocessing();
+		}
+
+		// minimality and the order of unifiers are irrelevant for the decision
+		Sat4jSolver decider = new Sat4jSolver();
+		try {
+			return decider.solve(input).isSatisfiable();
+		} finally {
+			decider.cleanup();
+		}
+	}
+
 }
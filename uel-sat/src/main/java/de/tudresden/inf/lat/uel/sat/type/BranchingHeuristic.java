@@ -0,0 +1,33 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+/**
+ * Describes how the SAT solver chooses the next propositional variable to
+ * branch on.
+ */
+public enum BranchingHeuristic {
+
+	/**
+	 * The default heuristic of the SAT solver (VSIDS with phase saving).
+	 */
+	DEFAULT("solver default"),
+
+	/**
+	 * Branch first on the subsumption literals of user variables, then on the
+	 * remaining subsumption and type literals, and only then on order and
+	 * choice literals. Subsumption literals of variables are initially set to
+	 * 'false', which favors small substitution sets.
+	 */
+	GOAL_AWARE("goal-aware");
+
+	private final String description;
+
+	BranchingHeuristic(String description) {
+		this.description = description;
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+
+}
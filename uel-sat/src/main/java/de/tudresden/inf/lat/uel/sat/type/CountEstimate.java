@@ -0,0 +1,93 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+/**
+ * An object of this class is an estimate of the number of models of a SAT
+ * problem, together with bounds that hold with a certain probability.
+ */
+public class CountEstimate {
+
+	private final double confidence;
+	private final double estimate;
+	private final boolean exact;
+	private final double lowerBound;
+	private final double upperBound;
+
+	/**
+	 * Constructs an exact count.
+	 *
+	 * @param count
+	 *            the number of models
+	 */
+	public CountEstimate(long count) {
+		this.estimate = count;
+		this.lowerBound = count;
+		this.upperBound = count;
+		this.confidence = 1.0;
+		this.exact = true;
+	}
+
+	/**
+	 * Constructs an approximate count.
+	 *
+	 * @param estimate
+	 *            the estimated number of models
+	 * @param tolerance
+	 *            the multiplicative tolerance: with the given confidence, the
+	 *            real count lies between estimate / (1 + tolerance) and
+	 *            estimate * (1 + tolerance)
+	 * @param confidence
+	 *            the probability that the bounds are correct
+	 */
+	public CountEstimate(double estimate, double tolerance, double confidence) {
+		this.estimate = estimate;
+		this.lowerBound = estimate / (1 + tolerance);
+		this.upperBound = estimate * (1 + tolerance);
+		this.confidence = confidence;
+		this.exact = false;
+	}
+
+	/**
+	 * @return the probability that the real count lies within the bounds
+	 */
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * @return the estimated number of models
+	 */
+	public double getEstimate() {
+		return estimate;
+	}
+
+	/**
+	 * @return a lower bound on the number of models
+	 */
+	public double getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * @return an upper bound on the number of models
+	 */
+	public double getUpperBound() {
+		return upperBound;
+	}
+
+	/**
+	 * @return a value indicating whether the models were counted exactly
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	@Override
+	public String toString() {
+		if (exact) {
+			return String.format("%.0f (exact)", estimate);
+		}
+		return String.format("%.0f (between %.0f and %.0f with probability %.2f)", estimate, lowerBound, upperBound,
+				confidence);
+	}
+
+}
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -68,8 +69,10 @@ public class SatInput {
 	}
 
 	private Collection<Set<Integer>> clauses = new ArrayList<>();
+	private List<Set<Integer>> decisionLevels = new ArrayList<Set<Integer>>();
 	private Integer lastId = 0;
 	private Set<Integer> minimizeLiterals = new HashSet<Integer>();
+	private Set<Integer> negativePhaseLiterals = new HashSet<Integer>();
 	private Collection<Set<Integer>> softClauses = new ArrayList<Set<Integer>>();
 
 	/**
@@ -119,6 +122,19 @@ public class SatInput {
 		add(head);
 	}
 
+	/**
+	 * Adds a set of propositional variables on which the solver should branch
+	 * before all variables of later decision levels. Variables not contained
+	 * in any decision level are considered last.
+	 * 
+	 * @param literals
+	 *            a set of (positive) literal identifiers
+	 */
+	public void addDecisionLevel(Set<Integer> literals) {
+		decisionLevels.add(literals);
+		updateLastId(literals);
+	}
+
 	/**
 	 * Adds a literal to the set of literals that are to be minimized.
 	 * 
@@ -144,6 +160,18 @@ public class SatInput {
 		addImplication(new HashSet<Integer>(), body);
 	}
 
+	/**
+	 * Adds several propositional variables that the solver should initially
+	 * try to set to 'false' when branching on them.
+	 * 
+	 * @param literals
+	 *            a set of (positive) literal identifiers
+	 */
+	public void addNegativePhaseLiterals(Set<Integer> literals) {
+		negativePhaseLiterals.addAll(literals);
+		updateLastId(literals);
+	}
+
 	public void addNegativeSoftClause(Integer... body) {
 		addSoftClause(Arrays.stream(body).map(l -> -l).collect(Collectors.toSet()));
 	}
@@ -180,6 +208,16 @@ public class SatInput {
 		return Collections.unmodifiableCollection(clauses);
 	}
 
+	/**
+	 * Returns the decision levels, i.e., the sets of propositional variables
+	 * in the order in which the solver should branch on them.
+	 * 
+	 * @return the decision levels
+	 */
+	public List<Set<Integer>> getDecisionLevels() {
+		return Collections.unmodifiableList(decisionLevels);
+	}
+
 	public Collection<Set<Integer>> getSoftClauses() {
 		return Collections.unmodifiableCollection(softClauses);
 	}
@@ -202,6 +240,15 @@ public class SatInput {
 		return Collections.unmodifiableSet(minimizeLiterals);
 	}
 
+	/**
+	 * Retrieve the set of literals whose preferred phase is 'false'.
+	 * 
+	 * @return the literals with negative default phase
+	 */
+	public Set<Integer> getNegativePhaseLiterals() {
+		return Collections.unmodifiableSet(negativePhaseLiterals);
+	}
+
 	@Override
 	public int hashCode() {
 		return this.clauses.hashCode();
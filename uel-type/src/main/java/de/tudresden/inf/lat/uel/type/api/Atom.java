@@ -11,6 +11,16 @@ import de.tudresden.inf.lat.uel.type.impl.ConceptName;
  */
 public interface Atom {
 
+	/**
+	 * Retrieve the id of this flat atom in the atom manager that created it.
+	 * In contrast to 'AtomManager.getIndex', this does not need to look up the
+	 * atom.
+	 * 
+	 * @return the associated id, or -1 if this atom was not created by an atom
+	 *         manager
+	 */
+	int getAtomId();
+
 	/**
 	 * Retrieve the concept name of this flat atom.
 	 * 
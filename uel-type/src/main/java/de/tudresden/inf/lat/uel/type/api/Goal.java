@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Set;
 
 import de.tudresden.inf.lat.uel.type.impl.DefinitionSet;
+import de.tudresden.inf.lat.uel.type.impl.TypeIndex;
 
 /**
  * An object implementing this interface is an input for the UEL system.
@@ -142,6 +143,19 @@ public interface Goal {
 	default boolean isTop(Integer id) {
 		return false;
 	}
+
+	/**
+	 * Returns an index of the type information of this goal, which answers
+	 * the queries 'subtypeOrEquals' and 'areCompatible', and whether a type is
+	 * a role group type, in constant time. Implementations should compute the
+	 * index only once; the default implementation creates a new index on every
+	 * call, so it should not be called in inner loops.
+	 * 
+	 * @return the type index
+	 */
+	default TypeIndex getTypeIndex() {
+		return new TypeIndex(this);
+	}
 	
 	/**
 	 * Retrieves the URI of the 'RoleGroup' in SNOMED CT.
@@ -50,6 +50,20 @@ public interface UnificationAlgorithm {
 	 */
 	Unifier getUnifier();
 
+	/**
+	 * Decides whether the goal has a unifier. In contrast to
+	 * {@link #computeNextUnifier()}, the unifier is not constructed, and the
+	 * algorithm may skip any work that is only needed for enumerating further
+	 * unifiers. This method can be called before the enumeration of unifiers
+	 * starts, but not interleaved with it.
+	 * 
+	 * @return <code>true</code> if and only if the goal is unifiable
+	 * 
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	boolean isUnifiable() throws InterruptedException;
+
 	void setCallbackPreprocessing(Runnable r);
 
 	void setShortFormMap(Function<String, String> map);
@@ -50,6 +50,7 @@ public class AtomManagerImpl implements AtomManager {
 	public Integer createConceptName(String conceptName, boolean onlyTypes) {
 		Integer conceptNameId = conceptNames.addAndGetIndex(conceptName);
 		Integer atomId = atoms.addAndGetIndex(new ConceptName(conceptNameId));
+		((ConceptName) atoms.get(atomId)).setAtomId(atomId);
 		if (!variables.contains(atomId) && !onlyTypes) {
 			// if the concept name had already been created earlier and marked
 			// as a variable, then do not mark it as a constant
@@ -62,6 +63,7 @@ public class AtomManagerImpl implements AtomManager {
 	public Integer createExistentialRestriction(String roleName, Integer childId) {
 		Integer roleId = roleNames.addAndGetIndex(roleName);
 		Integer atomId = atoms.addAndGetIndex(new ExistentialRestriction(roleId, getConceptName(childId)));
+		((ExistentialRestriction) atoms.get(atomId)).setAtomId(atomId);
 
 		childMap.put(atomId, childId);
 		roleIdMap.put(atomId, roleId);
@@ -9,6 +9,7 @@ import de.tudresden.inf.lat.uel.type.api.Atom;
  */
 public class ConceptName implements Atom {
 
+	private int atomId = -1;
 	private final Integer conceptNameId;
 	private boolean isVariable = false;
 
@@ -41,6 +42,11 @@ public class ConceptName implements Atom {
 		return true;
 	}
 
+	@Override
+	public int getAtomId() {
+		return atomId;
+	}
+
 	@Override
 	public ConceptName getConceptName() {
 		return this;
@@ -88,6 +94,10 @@ public class ConceptName implements Atom {
 		isVariable = true;
 	}
 
+	void setAtomId(int atomId) {
+		this.atomId = atomId;
+	}
+
 	@Override
 	public String toString() {
 		return conceptNameId.toString() + " {" + (isVariable() ? "v" : "c") + "}";
@@ -9,6 +9,7 @@ import de.tudresden.inf.lat.uel.type.api.Atom;
  */
 public class ExistentialRestriction implements Atom {
 
+	private int atomId = -1;
 	private final ConceptName child;
 	private final Integer role;
 
@@ -47,6 +48,11 @@ public class ExistentialRestriction implements Atom {
 		return true;
 	}
 
+	@Override
+	public int getAtomId() {
+		return atomId;
+	}
+
 	@Override
 	public ConceptName getConceptName() {
 		return child;
@@ -95,6 +101,10 @@ public class ExistentialRestriction implements Atom {
 		return false;
 	}
 
+	void setAtomId(int atomId) {
+		this.atomId = atomId;
+	}
+
 	@Override
 	public String toString() {
 		return "some " + role + " " + child;
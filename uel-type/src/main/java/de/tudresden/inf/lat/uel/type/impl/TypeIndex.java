@@ -0,0 +1,218 @@
+package de.tudresden.inf.lat.uel.type.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.Goal;
+
+/**
+ * A precomputed index of the type information of a goal, which answers the
+ * queries that the unification algorithms use in their inner loops in
+ * constant time:
+ *
+ * <ul>
+ * <li>the subtype relation, which is stored as a bitset of the ancestors of
+ * each type (w.r.t. 'Goal.getDirectSupertype'),</li>
+ * <li>whether a type is a role group type, and the type to which the role
+ * groups of this type belong, which is the inverse of
+ * 'Goal.getRoleGroupTypes', and</li>
+ * <li>the compatibility of two definition variables, which is stored as a bit
+ * matrix over the definition variables.</li>
+ * </ul>
+ *
+ * All IDs are the IDs of the atom manager of the goal. The index is a snapshot
+ * of the goal at the time of its construction, and it is immutable afterwards,
+ * so that it can be shared between threads.
+ */
+public final class TypeIndex {
+
+	private final Goal goal;
+	private final Map<Integer, BitSet> ancestors = new HashMap<>();
+	private final BitSet roleGroupTypes = new BitSet();
+	private final Map<Integer, Integer> roleGroupParents = new HashMap<>();
+	// 'false' if there is no compatibility information
+	private final boolean restricted;
+	// the row of each definition variable in the compatibility matrix, or -1
+	private final int[] rows;
+	private final BitSet[] compatible;
+
+	/**
+	 * Create an index for the given goal, which computes the compatibility
+	 * relation by querying 'Goal.areCompatible' for all pairs of definition
+	 * variables.
+	 *
+	 * @param goal
+	 *            the goal
+	 */
+	public TypeIndex(Goal goal) {
+		this(goal, null, true);
+	}
+
+	/**
+	 * Create an index for the given goal, where two definition variables are
+	 * compatible iff they occur together in one of the given sets, e.g., the
+	 * sets of subsumers of some concept name in the background ontology.
+	 *
+	 * @param goal
+	 *            the goal
+	 * @param ideals
+	 *            the sets of mutually compatible concept names; if this is
+	 *            empty, then all concept names are compatible
+	 */
+	public TypeIndex(Goal goal, Collection<? extends Set<Integer>> ideals) {
+		this(goal, ideals, false);
+	}
+
+	private TypeIndex(Goal goal, Collection<? extends Set<Integer>> ideals, boolean queryGoal) {
+		this.goal = goal;
+
+		Set<Integer> types = new HashSet<>(goal.getTypes());
+		types.addAll(goal.getTypeAssignment().values());
+		for (Entry<Integer, Integer> entry : goal.getRoleGroupTypes().entrySet()) {
+			types.add(entry.getKey());
+			types.add(entry.getValue());
+			roleGroupTypes.set(entry.getValue());
+			roleGroupParents.put(entry.getValue(), entry.getKey());
+		}
+		for (Integer type : types) {
+			computeAncestors(type);
+		}
+
+		List<Integer> variables = new ArrayList<>(goal.getAtomManager().getDefinitionVariables());
+		this.restricted = queryGoal || !ideals.isEmpty();
+		int maxId = variables.stream().mapToInt(Integer::intValue).max().orElse(-1);
+		this.rows = new int[restricted ? maxId + 1 : 0];
+		this.compatible = new BitSet[restricted ? variables.size() : 0];
+		if (restricted) {
+			Arrays.fill(rows, -1);
+			for (int row = 0; row < variables.size(); row++) {
+				rows[variables.get(row)] = row;
+				compatible[row] = new BitSet(variables.size());
+				compatible[row].set(row);
+			}
+			if (queryGoal) {
+				for (int row1 = 0; row1 < variables.size(); row1++) {
+					for (int row2 = 0; row2 < variables.size(); row2++) {
+						if (goal.areCompatible(variables.get(row1), variables.get(row2))) {
+							compatible[row1].set(row2);
+						}
+					}
+				}
+			} else {
+				for (Set<Integer> ideal : ideals) {
+					List<Integer> members = new ArrayList<>();
+					for (Integer id : ideal) {
+						int row = getRow(id);
+						if (row >= 0) {
+							members.add(row);
+						}
+					}
+					for (Integer row1 : members) {
+						for (Integer row2 : members) {
+							compatible[row1].set(row2);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private BitSet computeAncestors(Integer type) {
+		BitSet set = ancestors.get(type);
+		if (set == null) {
+			set = new BitSet();
+			// mark the type before visiting its supertypes in case of a cycle
+			ancestors.put(type, set);
+			set.set(type);
+			Integer supertype = goal.getDirectSupertype(type);
+			if (supertype != null) {
+				set.or(computeAncestors(supertype));
+			}
+		}
+		return set;
+	}
+
+	private int getRow(Integer atomId) {
+		return ((atomId != null) && (atomId >= 0) && (atomId < rows.length)) ? rows[atomId] : -1;
+	}
+
+	/**
+	 * Check whether a type is a subtype of another type, or equal to it.
+	 *
+	 * @param type1
+	 *            the first type
+	 * @param type2
+	 *            the second type
+	 * @return true iff 'type2' is 'type1' or one of its ancestors
+	 */
+	public boolean subtypeOrEquals(Integer type1, Integer type2) {
+		BitSet set = ancestors.get(type1);
+		if (set == null) {
+			// not a known type, so the direct supertypes have to be checked
+			while (type1 != null) {
+				if (type1.equals(type2)) {
+					return true;
+				}
+				type1 = goal.getDirectSupertype(type1);
+			}
+			return false;
+		}
+		return (type2 != null) && (type2 >= 0) && set.get(type2);
+	}
+
+	/**
+	 * Check whether a type is a role group type.
+	 *
+	 * @param type
+	 *            the type
+	 * @return true iff the type is one of the values of
+	 *         'Goal.getRoleGroupTypes'
+	 */
+	public boolean isRoleGroupType(Integer type) {
+		return (type != null) && (type >= 0) && roleGroupTypes.get(type);
+	}
+
+	/**
+	 * Retrieve the type of the concepts to which role groups of a given role
+	 * group type belong.
+	 *
+	 * @param roleGroupType
+	 *            the role group type
+	 * @return the type that is mapped to 'roleGroupType' by
+	 *         'Goal.getRoleGroupTypes', or 'null' if there is none
+	 */
+	public Integer getRoleGroupParent(Integer roleGroupType) {
+		return roleGroupParents.get(roleGroupType);
+	}
+
+	/**
+	 * Check whether two concept names are compatible, i.e., may be subsumers of
+	 * the same concept. Only definition variables can be incompatible.
+	 *
+	 * @param atomId1
+	 *            the first concept name
+	 * @param atomId2
+	 *            the second concept name
+	 * @return true iff the concept names are compatible
+	 */
+	public boolean areCompatible(Integer atomId1, Integer atomId2) {
+		if (!restricted) {
+			return true;
+		}
+		int row1 = getRow(atomId1);
+		int row2 = getRow(atomId2);
+		if ((row1 < 0) || (row2 < 0)) {
+			return true;
+		}
+		return compatible[row1].get(row2);
+	}
+
+}
@@ -0,0 +1,216 @@
+/**
+ *
+ */
+package de.tudresden.inf.lat.uel.type.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Axiom;
+import de.tudresden.inf.lat.uel.type.api.Definition;
+import de.tudresden.inf.lat.uel.type.api.Disequation;
+import de.tudresden.inf.lat.uel.type.api.Dissubsumption;
+import de.tudresden.inf.lat.uel.type.api.Equation;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+import de.tudresden.inf.lat.uel.type.api.Subsumption;
+
+/**
+ * Detects symmetries of a unification problem that lead to unifiers that differ
+ * only in variables that are not visible to the user. Only auxiliary variables
+ * are considered, namely pairs of flattening variables whose transposition
+ * (together with the corresponding existential restrictions) maps the set of
+ * all axioms of the goal onto itself. User variables are never broken, since
+ * swapping or fixing their substitution sets yields a different unifier; this
+ * includes the blank existential fillers ('role_VAR'), which are user
+ * variables.
+ *
+ * The encodings can use this information to add lex-leader constraints that
+ * only admit one representative of each symmetry class. It suffices to
+ * compare the substitution sets on the constants: if two interchangeable
+ * variables agree on all constants, then no constraint is imposed, and
+ * otherwise exactly one of the two symmetric assignments is admitted.
+ */
+public class VariableSymmetries {
+
+	private final AtomManager atomManager;
+	private final Map<Integer, Set<Integer>> fillerIndex = new HashMap<Integer, Set<Integer>>();
+	private final Goal goal;
+	private final Set<Axiom> axioms = new HashSet<Axiom>();
+	private final Map<Integer, Set<Axiom>> axiomIndex = new HashMap<Integer, Set<Axiom>>();
+	private final List<List<Integer>> interchangeablePairs = new ArrayList<List<Integer>>();
+
+	/**
+	 * Analyze the given goal for symmetries.
+	 *
+	 * @param goal
+	 *            the unification problem
+	 */
+	public VariableSymmetries(Goal goal) {
+		this.goal = goal;
+		this.atomManager = goal.getAtomManager();
+
+		for (Integer eatomId : atomManager.getExistentialRestrictions()) {
+			fillerIndex.computeIfAbsent(atomManager.getChild(eatomId), k -> new HashSet<Integer>()).add(eatomId);
+		}
+		goal.getDefinitions().forEach(this::indexAxiom);
+		goal.getEquations().forEach(this::indexAxiom);
+		goal.getSubsumptions().forEach(this::indexAxiom);
+		goal.getDisequations().forEach(this::indexAxiom);
+		goal.getDissubsumptions().forEach(this::indexAxiom);
+
+		computeInterchangeablePairs();
+	}
+
+	private void indexAxiom(Axiom axiom) {
+		axioms.add(axiom);
+		for (Integer atomId : axiom.getLeft()) {
+			axiomIndex.computeIfAbsent(atomId, k -> new HashSet<Axiom>()).add(axiom);
+		}
+		for (Integer atomId : axiom.getRight()) {
+			axiomIndex.computeIfAbsent(atomId, k -> new HashSet<Axiom>()).add(axiom);
+		}
+	}
+
+	private Set<Axiom> getAxioms(Integer atomId) {
+		return axiomIndex.getOrDefault(atomId, Collections.emptySet());
+	}
+
+	private Set<Integer> getFillerOf(Integer varId) {
+		return fillerIndex.getOrDefault(varId, Collections.emptySet());
+	}
+
+	private void computeInterchangeablePairs() {
+		// only variables with the same occurrence profile can be
+		// interchangeable
+		Map<List<Object>, List<Integer>> candidates = new HashMap<List<Object>, List<Integer>>();
+		for (Integer varId : new TreeSet<Integer>(atomManager.getFlatteningVariables())) {
+			if (atomManager.getUndefNames().contains(varId) || atomManager.getUserVariables().contains(varId)) {
+				continue;
+			}
+			candidates.computeIfAbsent(getProfile(varId), k -> new ArrayList<Integer>()).add(varId);
+		}
+
+		for (List<Integer> group : candidates.values()) {
+			// each class of pairwise interchangeable variables is represented
+			// by a chain of transpositions between consecutive members
+			List<List<Integer>> classes = new ArrayList<List<Integer>>();
+			for (Integer varId : group) {
+				boolean found = false;
+				for (List<Integer> cls : classes) {
+					if (isSymmetry(cls.get(0), varId)) {
+						interchangeablePairs.add(Arrays.asList(cls.get(cls.size() - 1), varId));
+						cls.add(varId);
+						found = true;
+						break;
+					}
+				}
+				if (!found) {
+					classes.add(new ArrayList<Integer>(Collections.singletonList(varId)));
+				}
+			}
+		}
+	}
+
+	private List<Object> getProfile(Integer varId) {
+		List<Object> profile = new ArrayList<Object>();
+		profile.add(getAxioms(varId).stream().map(a -> a.getClass().getSimpleName() + a.getLeft().contains(varId))
+				.sorted().collect(Collectors.toList()));
+		profile.add(getFillerOf(varId).stream().map(atomManager::getRoleId).sorted().collect(Collectors.toList()));
+		profile.add(goal.getTypeAssignment().get(varId));
+		return profile;
+	}
+
+	private boolean isSymmetry(Integer varId1, Integer varId2) {
+		Map<Integer, Integer> permutation = new HashMap<Integer, Integer>();
+		permutation.put(varId1, varId2);
+		permutation.put(varId2, varId1);
+		for (Integer eatomId : getFillerOf(varId1)) {
+			Integer roleId = atomManager.getRoleId(eatomId);
+			Integer imageId = atomManager
+					.getIndex(new ExistentialRestriction(roleId, atomManager.getConceptName(varId2)));
+			if (imageId < 0) {
+				return false;
+			}
+			permutation.put(eatomId, imageId);
+			permutation.put(imageId, eatomId);
+		}
+
+		Set<Axiom> affected = new HashSet<Axiom>();
+		for (Integer atomId : permutation.keySet()) {
+			affected.addAll(getAxioms(atomId));
+		}
+		for (Axiom axiom : affected) {
+			if (!axioms.contains(rename(axiom, permutation))) {
+				return false;
+			}
+		}
+
+		if (!goal.getTypes().isEmpty()) {
+			TypeIndex types = goal.getTypeIndex();
+			for (Integer varId : atomManager.getVariables()) {
+				Integer imageId = permutation.getOrDefault(varId, varId);
+				if (types.areCompatible(varId1, varId) != types.areCompatible(varId2, imageId)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private Set<Integer> rename(Set<Integer> atomIds, Map<Integer, Integer> permutation) {
+		return atomIds.stream().map(atomId -> permutation.getOrDefault(atomId, atomId)).collect(Collectors.toSet());
+	}
+
+	private Axiom rename(Axiom axiom, Map<Integer, Integer> permutation) {
+		Set<Integer> left = rename(axiom.getLeft(), permutation);
+		Set<Integer> right = rename(axiom.getRight(), permutation);
+		if (axiom instanceof Definition) {
+			return new Definition(left.iterator().next(), right, ((Definition) axiom).isPrimitive());
+		}
+		if (axiom instanceof Equation) {
+			return new Equation(left, right);
+		}
+		if (axiom instanceof Disequation) {
+			return new Disequation(left, right);
+		}
+		if (axiom instanceof Dissubsumption) {
+			return new Dissubsumption(left, right);
+		}
+		return new Subsumption(left, right);
+	}
+
+	/**
+	 * Returns pairs of interchangeable variables. The first variable of each
+	 * pair has a smaller id than the second one, and the transposition of the
+	 * two variables maps every unifier to an equivalent one.
+	 *
+	 * @return a list of pairs of variable ids
+	 */
+	public List<List<Integer>> getInterchangeablePairs() {
+		return Collections.unmodifiableList(interchangeablePairs);
+	}
+
+	/**
+	 * Checks whether any symmetries were found.
+	 *
+	 * @return 'true' iff there are interchangeable variables
+	 */
+	public boolean isEmpty() {
+		return interchangeablePairs.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "interchangeable: " + interchangeablePairs;
+	}
+
+}